@@ -0,0 +1,120 @@
+package com.example.carte.analytics;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Histogramme de durées (en heures) à classes fixes : fines sur la première
+ * journée, une classe par jour jusqu'à 90 jours, puis une par semaine jusqu'à
+ * un peu plus d'un an, et une classe de débordement. Deux histogrammes se
+ * fusionnent par simple addition, ce qui permet des agrégats incrémentaux dont
+ * on tire médiane et quantiles sans relire les données brutes.
+ */
+public class DurationHistogram {
+
+    static final double[] UPPER_BOUNDS;
+
+    static {
+        List<Double> bounds = new ArrayList<>(List.of(1.0, 2.0, 3.0, 6.0, 12.0));
+        for (int day = 1; day <= 90; day++) {
+            bounds.add(day * 24.0);
+        }
+        for (int week = 1; week <= 40; week++) {
+            bounds.add(90 * 24.0 + week * 168.0);
+        }
+        UPPER_BOUNDS = bounds.stream().mapToDouble(Double::doubleValue).toArray();
+    }
+
+    // Dernière case : au-delà de la plus grande borne
+    private final long[] counts = new long[UPPER_BOUNDS.length + 1];
+
+    public void add(double hours) {
+        counts[bucket(Math.max(0, hours))]++;
+    }
+
+    public void merge(DurationHistogram other) {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+    }
+
+    public long count() {
+        long total = 0;
+        for (long c : counts) {
+            total += c;
+        }
+        return total;
+    }
+
+    /** Quantile approché (interpolation linéaire dans la classe), en heures ; null si vide. */
+    public Double quantile(double q) {
+        long total = count();
+        if (total == 0) {
+            return null;
+        }
+        double target = q * total;
+        long cumulated = 0;
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) {
+                continue;
+            }
+            if (cumulated + counts[i] >= target) {
+                double lower = i == 0 ? 0 : UPPER_BOUNDS[i - 1];
+                if (i == UPPER_BOUNDS.length) {
+                    return lower;
+                }
+                double fraction = (target - cumulated) / counts[i];
+                return lower + fraction * (UPPER_BOUNDS[i] - lower);
+            }
+            cumulated += counts[i];
+        }
+        return UPPER_BOUNDS[UPPER_BOUNDS.length - 1];
+    }
+
+    public byte[] encode() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(counts.length);
+        for (long c : counts) {
+            while ((c & ~0x7FL) != 0) {
+                out.write((int) ((c & 0x7F) | 0x80));
+                c >>>= 7;
+            }
+            out.write((int) c);
+        }
+        return out.toByteArray();
+    }
+
+    public static DurationHistogram decode(byte[] data) {
+        DurationHistogram h = new DurationHistogram();
+        if (data == null) {
+            return h;
+        }
+        int pos = 0;
+        for (int i = 0; i < h.counts.length && pos < data.length; i++) {
+            long value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data[pos++];
+                value |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            h.counts[i] = value;
+        }
+        return h;
+    }
+
+    private static int bucket(double hours) {
+        int lo = 0;
+        int hi = UPPER_BOUNDS.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (hours < UPPER_BOUNDS[mid]) {
+                hi = mid;
+            } else {
+                lo = mid + 1;
+            }
+        }
+        return lo;
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.carte.analytics;
+
+import java.time.LocalDateTime;
+
+/**
+ * Un changement de statut tel qu'inscrit dans historique_statut, avec ce qu'il
+ * faut pour les agrégats : début du statut quitté (changement précédent, ou
+ * création du signalement) et rattachements entreprise / ville.
+ */
+public record StatutTransition(
+        Long idSignalement,
+        String ancienStatut,
+        String nouveauStatut,
+        LocalDateTime dateSignalement,
+        LocalDateTime debutAncienStatut,
+        LocalDateTime dateChangement,
+        Long idEntreprise,
+        Long idVille) {
+}
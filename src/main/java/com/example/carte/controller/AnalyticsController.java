@@ -0,0 +1,65 @@
+package com.example.carte.controller;
+
+import com.example.carte.dto.MessageResponse;
+import com.example.carte.dto.ResolutionAnalyticsStatusResponse;
+import com.example.carte.service.ResolutionAnalyticsService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.YearMonth;
+
+@RestController
+@RequestMapping("/api/analytics")
+@Tag(name = "Analytics", description = "Statistiques de résolution des signalements")
+public class AnalyticsController {
+
+    @Autowired
+    private ResolutionAnalyticsService resolutionAnalyticsService;
+
+    @GetMapping("/resolution")
+    @Operation(summary = "Temps de résolution (création -> RESOLU), en jours",
+               description = "groupBy : global, entreprise ou ville ; période au format AAAA-MM, 12 derniers mois par défaut")
+    public ResponseEntity<?> getResolution(@RequestParam(required = false) String groupBy,
+                                           @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth from,
+                                           @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth to,
+                                           @RequestParam(defaultValue = "true") boolean parMois) {
+        try {
+            return ResponseEntity.ok(resolutionAnalyticsService.getStats(
+                    ResolutionAnalyticsService.MESURE_RESOLUTION, groupBy, from, to, parMois));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
+        }
+    }
+
+    @GetMapping("/resolution/statuts")
+    @Operation(summary = "Temps passé dans chaque statut, en jours",
+               description = "groupBy : global, entreprise ou ville ; période au format AAAA-MM, 12 derniers mois par défaut")
+    public ResponseEntity<?> getTimeInStatus(@RequestParam(required = false) String groupBy,
+                                             @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth from,
+                                             @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth to,
+                                             @RequestParam(defaultValue = "true") boolean parMois) {
+        try {
+            return ResponseEntity.ok(resolutionAnalyticsService.getStats(
+                    ResolutionAnalyticsService.MESURE_DUREE_STATUT, groupBy, from, to, parMois));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
+        }
+    }
+
+    @GetMapping("/resolution/etat")
+    @Operation(summary = "Échecs d'ajout et de compactage des agrégats depuis le démarrage")
+    public ResponseEntity<ResolutionAnalyticsStatusResponse> getStatus() {
+        return ResponseEntity.ok(resolutionAnalyticsService.getStatus());
+    }
+
+    @PostMapping("/resolution/rebuild")
+    @Operation(summary = "Recalculer les agrégats de résolution depuis l'historique")
+    public ResponseEntity<MessageResponse> rebuild() {
+        long transitions = resolutionAnalyticsService.rebuild();
+        return ResponseEntity.ok(new MessageResponse("Agrégats recalculés (" + transitions + " changements)"));
+    }
+}
@@ -1,12 +1,16 @@
 package com.example.carte.controller;
 
 import com.example.carte.dto.*;
+import com.example.carte.security.PasswordHasher;
+import com.example.carte.service.RefreshTokenService;
 import com.example.carte.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -18,12 +22,19 @@ public class AuthController {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
     @PostMapping("/register")
     @Operation(summary = "Inscription d'un nouvel utilisateur")
     public ResponseEntity<?> registerUser(@Valid @RequestBody RegisterRequest request) {
         try {
             AuthResponse response = userService.registerUser(request);
             return ResponseEntity.ok(response);
+        } catch (PasswordHasher.BusyException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(new MessageResponse(e.getMessage()));
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
         }
@@ -31,9 +42,27 @@ public class AuthController {
 
     @PostMapping("/login")
     @Operation(summary = "Connexion d'un utilisateur")
-    public ResponseEntity<?> loginUser(@Valid @RequestBody LoginRequest request) {
+    public ResponseEntity<?> loginUser(@Valid @RequestBody LoginRequest request,
+                                       HttpServletRequest httpRequest) {
+        try {
+            AuthResponse response = userService.authenticateUser(request, httpRequest.getRemoteAddr());
+            return ResponseEntity.ok(response);
+        } catch (PasswordHasher.BusyException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(new MessageResponse(e.getMessage()));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(new MessageResponse(e.getMessage()));
+        }
+    }
+
+    @PostMapping("/refresh")
+    @Operation(summary = "Renouveler le jeton d'accès",
+               description = "Échange un jeton de rafraîchissement contre une nouvelle paire de jetons")
+    public ResponseEntity<?> refreshToken(@Valid @RequestBody RefreshTokenRequest request) {
         try {
-            AuthResponse response = userService.authenticateUser(request);
+            AuthResponse response = refreshTokenService.refresh(request.getRefreshToken());
             return ResponseEntity.ok(response);
         } catch (RuntimeException e) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
@@ -41,6 +70,17 @@ public class AuthController {
         }
     }
 
+    @PostMapping("/logout")
+    @Operation(summary = "Déconnexion",
+               description = "Révoque le jeton d'accès présenté et la famille du jeton de rafraîchissement")
+    public ResponseEntity<?> logout(@RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+                                    @RequestBody(required = false) RefreshTokenRequest request) {
+        String accessToken = authorization != null && authorization.regionMatches(true, 0, "Bearer ", 0, 7)
+                ? authorization.substring(7).trim() : null;
+        refreshTokenService.logout(accessToken, request == null ? null : request.getRefreshToken());
+        return ResponseEntity.ok(new MessageResponse("Logged out successfully"));
+    }
+
     @PostMapping("/unlock/{username}")
     @Operation(summary = "Débloquer un utilisateur", 
                description = "API pour réinitialiser le blocage d'un utilisateur")
@@ -0,0 +1,76 @@
+package com.example.carte.controller;
+
+import com.example.carte.dto.MessageResponse;
+import com.example.carte.service.BasemapService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+
+@RestController
+@RequestMapping("/api/basemap")
+@Tag(name = "Basemap", description = "Tuiles du fond de carte lues depuis le fichier MBTiles")
+@ConditionalOnProperty(name = "basemap.mbtiles.enabled", havingValue = "true")
+public class BasemapController {
+
+    @Autowired
+    private BasemapService basemapService;
+
+    @Value("${basemap.cache-max-age:604800}")
+    private long cacheMaxAgeSeconds;
+
+    @GetMapping("/{z}/{x}/{y}")
+    @Operation(summary = "Tuile du fond de carte")
+    public ResponseEntity<?> getTile(@PathVariable int z, @PathVariable int x, @PathVariable int y,
+                                     @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        CacheControl cacheControl = CacheControl.maxAge(Duration.ofSeconds(cacheMaxAgeSeconds)).cachePublic();
+
+        // La tuile est résolue d'abord : un 304 (même pour *) suppose une tuile valide et existante
+        byte[] tile;
+        try {
+            tile = basemapService.getTile(z, x, y);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
+        }
+        if (tile.length == 0) {
+            return ResponseEntity.noContent().cacheControl(cacheControl).build();
+        }
+
+        String etag = basemapService.etag(z, x, y);
+        if (ETags.matchesIfNoneMatch(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(cacheControl).build();
+        }
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(cacheControl)
+                .contentType(contentType(basemapService.getFormat()));
+        // Les tuiles vectorielles sont généralement stockées gzippées dans le MBTiles
+        if (tile.length > 2 && (tile[0] & 0xff) == 0x1f && (tile[1] & 0xff) == 0x8b) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(tile);
+    }
+
+    private static MediaType contentType(String format) {
+        return switch (format) {
+            case "png" -> MediaType.IMAGE_PNG;
+            case "jpg", "jpeg" -> MediaType.IMAGE_JPEG;
+            case "webp" -> MediaType.parseMediaType("image/webp");
+            default -> MediaType.parseMediaType("application/vnd.mapbox-vector-tile");
+        };
+    }
+}
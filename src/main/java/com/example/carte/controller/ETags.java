@@ -0,0 +1,24 @@
+package com.example.carte.controller;
+
+/**
+ * Comparaison d'ETag pour les réponses conditionnelles (If-None-Match).
+ */
+final class ETags {
+
+    private ETags() {
+    }
+
+    // Comparaison faible (RFC 9110) : « W/ » est ignoré, « * » correspond à toute ressource existante
+    static boolean matchesIfNoneMatch(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String c = candidate.trim();
+            if (c.equals("*") || c.equals(etag) || c.equals("W/" + etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
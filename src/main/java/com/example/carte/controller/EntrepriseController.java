@@ -2,7 +2,9 @@ package com.example.carte.controller;
 
 import com.example.carte.dto.EntrepriseRequest;
 import com.example.carte.dto.EntrepriseResponse;
+import com.example.carte.dto.EntrepriseWorkloadResponse;
 import com.example.carte.dto.MessageResponse;
+import com.example.carte.dto.ReferenceCacheStatusResponse;
 import com.example.carte.service.EntrepriseService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -27,6 +29,28 @@ public class EntrepriseController {
         return ResponseEntity.ok(entrepriseService.getAll());
     }
 
+    @GetMapping("/workload")
+    @Operation(summary = "Charge de travail de toutes les entreprises")
+    public ResponseEntity<List<EntrepriseWorkloadResponse>> getWorkloads() {
+        return ResponseEntity.ok(entrepriseService.getWorkloads());
+    }
+
+    @GetMapping("/{id}/workload")
+    @Operation(summary = "Charge de travail d'une entreprise (signalements par statut, budget, surface)")
+    public ResponseEntity<?> getWorkload(@PathVariable Long id) {
+        try {
+            return ResponseEntity.ok(entrepriseService.getWorkload(id));
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @GetMapping("/cache/status")
+    @Operation(summary = "État du cache des entreprises")
+    public ResponseEntity<ReferenceCacheStatusResponse> getCacheStatus() {
+        return ResponseEntity.ok(entrepriseService.getCacheStatus());
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Récupérer une entreprise par ID")
     public ResponseEntity<?> getById(@PathVariable Long id) {
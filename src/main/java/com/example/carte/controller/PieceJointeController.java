@@ -3,14 +3,33 @@ package com.example.carte.controller;
 import com.example.carte.dto.MessageResponse;
 import com.example.carte.dto.PieceJointeRequest;
 import com.example.carte.dto.PieceJointeResponse;
+import com.example.carte.dto.ThumbnailStatusResponse;
 import com.example.carte.service.PieceJointeService;
+import com.example.carte.service.PieceThumbnailService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
 import java.util.List;
 
 @RestController
@@ -18,9 +37,21 @@ import java.util.List;
 @Tag(name = "Piece Jointe Management", description = "API de gestion des pièces jointes")
 public class PieceJointeController {
 
+    // Attributs de Tomcat pour confier l'envoi d'un fichier au sendfile du connecteur
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
     @Autowired
     private PieceJointeService pieceJointeService;
 
+    @Autowired
+    private PieceThumbnailService pieceThumbnailService;
+
+    @Value("${pieces.cache-max-age:86400}")
+    private long cacheMaxAgeSeconds;
+
     @GetMapping("/signalement/{idSignalement}")
     @Operation(summary = "Récupérer toutes les pièces d'un signalement")
     public ResponseEntity<List<PieceJointeResponse>> getBySignalement(@PathVariable Long idSignalement) {
@@ -36,6 +67,63 @@ public class PieceJointeController {
             return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
         }
     }
+
+    @PostMapping(value = "/upload", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @Operation(summary = "Déposer le fichier d'une pièce jointe")
+    public ResponseEntity<?> upload(@RequestParam Long idSignalement,
+                                    @RequestParam MultipartFile fichier,
+                                    @RequestParam(required = false) String typeFichier) {
+        try {
+            return ResponseEntity.ok(pieceJointeService.upload(idSignalement, fichier, typeFichier));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
+        }
+    }
+
+    @GetMapping("/{id}/fichier")
+    @Operation(summary = "Télécharger le fichier d'une pièce jointe")
+    public ResponseEntity<StreamingResponseBody> download(@PathVariable Long id,
+                                                          @RequestHeader(value = HttpHeaders.RANGE, required = false) String range,
+                                                          @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                                          @RequestHeader(value = HttpHeaders.IF_RANGE, required = false) String ifRange,
+                                                          HttpServletRequest request) {
+        PieceJointeService.Fichier fichier;
+        try {
+            fichier = pieceJointeService.getFichier(id);
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+        return serve(fichier, range, ifNoneMatch, ifRange, request);
+    }
+
+    @GetMapping("/{id}/thumb")
+    @Operation(summary = "Vignette JPEG d'une photo (taille minimale du plus grand côté, en pixels)")
+    public ResponseEntity<StreamingResponseBody> thumbnail(@PathVariable Long id,
+                                                           @RequestParam(defaultValue = "160") int size,
+                                                           @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                                           HttpServletRequest request) {
+        PieceJointeService.Fichier fichier;
+        try {
+            fichier = pieceJointeService.getThumbnail(id, size);
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+        // Vignette en cours de génération : le client réessaiera
+        if (fichier == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "2")
+                    .cacheControl(CacheControl.noStore())
+                    .build();
+        }
+        return serve(fichier, null, ifNoneMatch, null, request);
+    }
+
+    @GetMapping("/thumbs/status")
+    @Operation(summary = "État de la file de génération des vignettes")
+    public ResponseEntity<ThumbnailStatusResponse> thumbnailStatus() {
+        return ResponseEntity.ok(pieceThumbnailService.getStatus());
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Récupérer une pièce jointe par son ID")
     public ResponseEntity<?> getById(@PathVariable Long id) {
@@ -57,4 +145,84 @@ public class PieceJointeController {
             return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Envoie un fichier avec ETag et une plage d'octets (Range).
+     * Sous Tomcat, l'envoi est délégué au sendfile du connecteur et le thread est
+     * libéré aussitôt ; sinon il se fait en asynchrone par FileChannel.transferTo.
+     */
+    private ResponseEntity<StreamingResponseBody> serve(PieceJointeService.Fichier fichier, String range,
+                                                        String ifNoneMatch, String ifRange,
+                                                        HttpServletRequest request) {
+        String etag = fichier.etag();
+        CacheControl cacheControl = CacheControl.maxAge(Duration.ofSeconds(cacheMaxAgeSeconds)).cachePrivate();
+        if (ETags.matchesIfNoneMatch(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(cacheControl).build();
+        }
+
+        long length = fichier.taille();
+        long start = 0;
+        long end = length - 1;
+        boolean partial = false;
+        // Plusieurs plages ou un If-Range périmé : on renvoie le fichier entier
+        List<HttpRange> ranges = range != null && (ifRange == null || ifRange.equals(etag)) ? parseRanges(range) : List.of();
+        if (ranges.size() == 1) {
+            start = ranges.get(0).getRangeStart(length);
+            end = ranges.get(0).getRangeEnd(length);
+            if (start >= length || start > end) {
+                return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                        .header(HttpHeaders.CONTENT_RANGE, "bytes */" + length)
+                        .build();
+            }
+            partial = true;
+        }
+        long count = end - start + 1;
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(partial ? HttpStatus.PARTIAL_CONTENT : HttpStatus.OK)
+                .eTag(etag)
+                .cacheControl(cacheControl)
+                .contentType(fichier.typeMime() != null
+                        ? MediaType.parseMediaType(fichier.typeMime()) : MediaType.APPLICATION_OCTET_STREAM)
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                .contentLength(count);
+        if (partial) {
+            response.header(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+        }
+        if (count == 0) {
+            return response.build();
+        }
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT)) && !"HEAD".equals(request.getMethod())) {
+            request.setAttribute(SENDFILE_FILENAME, fichier.path().toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return response.build();
+        }
+        long from = start;
+        return response.body(out -> transfer(fichier.path(), from, count, out));
+    }
+
+    private static void transfer(Path path, long start, long count, OutputStream out) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            WritableByteChannel target = Channels.newChannel(out);
+            long position = start;
+            long remaining = count;
+            while (remaining > 0) {
+                long n = channel.transferTo(position, remaining, target);
+                if (n <= 0) {
+                    break;
+                }
+                position += n;
+                remaining -= n;
+            }
+        }
+    }
+
+    private static List<HttpRange> parseRanges(String range) {
+        try {
+            return HttpRange.parseRanges(range);
+        } catch (IllegalArgumentException e) {
+            return List.of();
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.carte.controller;
 
 import com.example.carte.dto.MessageResponse;
+import com.example.carte.dto.ReferenceCacheStatusResponse;
 import com.example.carte.dto.RueRequest;
 import com.example.carte.dto.RueResponse;
 import com.example.carte.service.RueService;
@@ -28,6 +29,33 @@ public class RueController {
         return ResponseEntity.ok(rueService.getAll());
     }
 
+    @GetMapping("/nearest")
+    @Operation(summary = "Rechercher les rues les plus proches d'un point")
+    public ResponseEntity<?> getNearest(@RequestParam double lat,
+                                        @RequestParam double lon,
+                                        @RequestParam(required = false) Integer k,
+                                        @RequestParam(required = false) Long idVille) {
+        try {
+            return ResponseEntity.ok(rueService.getNearest(lat, lon, k, idVille));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
+        }
+    }
+
+    @GetMapping("/suggest")
+    @Operation(summary = "Autocomplétion des noms de rue")
+    public ResponseEntity<?> suggest(@RequestParam String prefix,
+                                     @RequestParam(required = false) Long idVille,
+                                     @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(rueService.suggest(prefix, idVille, limit));
+    }
+
+    @GetMapping("/cache/status")
+    @Operation(summary = "État du cache des rues")
+    public ResponseEntity<ReferenceCacheStatusResponse> getCacheStatus() {
+        return ResponseEntity.ok(rueService.getCacheStatus());
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Récupérer une rue par ID")
     public ResponseEntity<?> getById(@PathVariable Long id) {
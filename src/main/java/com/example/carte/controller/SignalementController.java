@@ -1,16 +1,27 @@
 package com.example.carte.controller;
 
+import com.example.carte.dto.BulkStatutUpdateRequest;
 import com.example.carte.dto.MessageResponse;
+import com.example.carte.dto.SignalementImportResponse;
+import com.example.carte.dto.SignalementPageResponse;
 import com.example.carte.dto.SignalementRequest;
-import com.example.carte.dto.SignalementResponse;
+import com.example.carte.dto.SignalementStatsResponse;
+import com.example.carte.dto.StatutUpdateRequest;
+import com.example.carte.service.SignalementImportService;
 import com.example.carte.service.SignalementService;
+import com.example.carte.service.SignalementStatutService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -21,10 +32,80 @@ public class SignalementController {
     @Autowired
     private SignalementService signalementService;
 
+    @Autowired
+    private SignalementImportService signalementImportService;
+
+    @Autowired
+    private SignalementStatutService signalementStatutService;
+
     @GetMapping
-    @Operation(summary = "Récupérer tous les signalements")
-    public ResponseEntity<List<SignalementResponse>> getAll() {
-        return ResponseEntity.ok(signalementService.getAll());
+    @Operation(summary = "Lister les signalements (pagination par curseur)",
+               description = "Passer nextCursor de la réponse dans le paramètre after pour obtenir la page suivante")
+    public ResponseEntity<SignalementPageResponse> getPage(
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String statut,
+            @RequestParam(required = false) Long idEntreprise,
+            @RequestParam(required = false) Long idUtilisateur,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since) {
+        return ResponseEntity.ok(signalementService.getPage(after, limit, statut, idEntreprise, idUtilisateur, since));
+    }
+
+    @GetMapping("/bbox")
+    @Operation(summary = "Récupérer les signalements visibles dans une zone (bounding box)")
+    public ResponseEntity<?> getInBoundingBox(@RequestParam double minLat,
+                                              @RequestParam double minLon,
+                                              @RequestParam double maxLat,
+                                              @RequestParam double maxLon,
+                                              @RequestParam(required = false) String statut) {
+        try {
+            return ResponseEntity.ok(signalementService.getInBoundingBox(minLat, minLon, maxLat, maxLon, statut));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
+        }
+    }
+
+    @GetMapping("/search")
+    @Operation(summary = "Rechercher des signalements par mots-clés (titre et description)",
+               description = "bbox au format minLon,minLat,maxLon,maxLat")
+    public ResponseEntity<?> search(@RequestParam String q,
+                                    @RequestParam(required = false) String bbox,
+                                    @RequestParam(required = false) String statut,
+                                    @RequestParam(required = false) Integer limit) {
+        try {
+            return ResponseEntity.ok(signalementService.search(q, bbox, statut, limit));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
+        }
+    }
+
+    @GetMapping("/clusters")
+    @Operation(summary = "Récupérer les clusters de signalements pour un niveau de zoom",
+               description = "bbox au format minLon,minLat,maxLon,maxLat")
+    public ResponseEntity<?> getClusters(@RequestParam int zoom, @RequestParam String bbox) {
+        try {
+            return ResponseEntity.ok(signalementService.getClusters(zoom, bbox));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
+        }
+    }
+
+    @GetMapping("/stats")
+    @Operation(summary = "Statistiques des signalements par statut, entreprise et ville")
+    public ResponseEntity<SignalementStatsResponse> getStats() {
+        return ResponseEntity.ok(signalementService.getStats());
+    }
+
+    @GetMapping("/changes")
+    @Operation(summary = "Flux des signalements créés, modifiés ou supprimés depuis un curseur",
+               description = "Sans since, le flux part du début ; renvoyer le cursor reçu pour l'appel suivant")
+    public ResponseEntity<?> getChanges(@RequestParam(required = false) String since,
+                                        @RequestParam(required = false) Integer limit) {
+        try {
+            return ResponseEntity.ok(signalementService.getChanges(since, limit));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
+        }
     }
 
     @GetMapping("/{id}")
@@ -47,6 +128,42 @@ public class SignalementController {
         }
     }
 
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Importer des signalements en masse (tableau JSON)")
+    public ResponseEntity<SignalementImportResponse> bulkImport(@RequestBody List<SignalementRequest> requests) {
+        return ResponseEntity.ok(signalementImportService.importAll(requests));
+    }
+
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Importer des signalements en masse (flux NDJSON)")
+    public ResponseEntity<?> bulkImportNdjson(HttpServletRequest request) throws IOException {
+        try {
+            return ResponseEntity.ok(signalementImportService.importNdjson(request.getInputStream()));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
+        }
+    }
+
+    @PatchMapping("/{id}/statut")
+    @Operation(summary = "Changer le statut d'un signalement")
+    public ResponseEntity<?> updateStatut(@PathVariable Long id, @Valid @RequestBody StatutUpdateRequest request) {
+        try {
+            return ResponseEntity.ok(signalementStatutService.updateStatut(id, request));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
+        }
+    }
+
+    @PatchMapping("/statut")
+    @Operation(summary = "Changer le statut de plusieurs signalements")
+    public ResponseEntity<?> updateStatuts(@Valid @RequestBody BulkStatutUpdateRequest request) {
+        try {
+            return ResponseEntity.ok(signalementStatutService.updateStatuts(request));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
+        }
+    }
+
     @DeleteMapping("/{id}")
     @Operation(summary = "Supprimer un signalement")
     public ResponseEntity<?> delete(@PathVariable Long id) {
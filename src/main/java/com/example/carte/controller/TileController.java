@@ -0,0 +1,38 @@
+package com.example.carte.controller;
+
+import com.example.carte.dto.MessageResponse;
+import com.example.carte.service.SignalementTileService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/tiles")
+@Tag(name = "Tiles", description = "Tuiles vectorielles des signalements")
+public class TileController {
+
+    private static final MediaType MVT = MediaType.parseMediaType("application/vnd.mapbox-vector-tile");
+
+    @Autowired
+    private SignalementTileService signalementTileService;
+
+    @GetMapping("/signalements/{z}/{x}/{y}.mvt")
+    @Operation(summary = "Tuile Mapbox Vector Tile des signalements (couche signalements)")
+    public ResponseEntity<?> getSignalementTile(@PathVariable int z, @PathVariable int x, @PathVariable int y) {
+        try {
+            byte[] tile = signalementTileService.getTile(z, x, y);
+            if (tile.length == 0) {
+                return ResponseEntity.noContent().build();
+            }
+            return ResponseEntity.ok().contentType(MVT).body(tile);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
+        }
+    }
+}
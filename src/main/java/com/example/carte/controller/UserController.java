@@ -1,14 +1,19 @@
 package com.example.carte.controller;
 
 import com.example.carte.dto.MessageResponse;
+import com.example.carte.dto.PrincipalCacheStatusResponse;
 import com.example.carte.dto.UpdateUserRequest;
 import com.example.carte.dto.UserResponse;
+import com.example.carte.security.PasswordHasher;
+import com.example.carte.security.UserPrincipalCache;
 import com.example.carte.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -23,12 +28,21 @@ public class UserController {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private UserPrincipalCache userPrincipalCache;
+
     @GetMapping
     @Operation(summary = "Récupérer tous les utilisateurs")
     public ResponseEntity<List<UserResponse>> getAllUsers() {
         return ResponseEntity.ok(userService.getAllUsers());
     }
 
+    @GetMapping("/principal-cache/status")
+    @Operation(summary = "État du cache des utilisateurs authentifiés")
+    public ResponseEntity<PrincipalCacheStatusResponse> getPrincipalCacheStatus() {
+        return ResponseEntity.ok(userPrincipalCache.getStatus());
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Récupérer un utilisateur par ID")
     public ResponseEntity<?> getUserById(@PathVariable Long id) {
@@ -58,6 +72,10 @@ public class UserController {
         try {
             UserResponse updatedUser = userService.updateUser(id, request);
             return ResponseEntity.ok(updatedUser);
+        } catch (PasswordHasher.BusyException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(new MessageResponse(e.getMessage()));
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
         }
@@ -1,6 +1,7 @@
 package com.example.carte.controller;
 
 import com.example.carte.dto.MessageResponse;
+import com.example.carte.dto.ReferenceCacheStatusResponse;
 import com.example.carte.dto.VilleRequest;
 import com.example.carte.dto.VilleResponse;
 import com.example.carte.service.VilleService;
@@ -27,6 +28,22 @@ public class VilleController {
         return ResponseEntity.ok(villeService.getAll());
     }
 
+    @GetMapping("/locate")
+    @Operation(summary = "Trouver la ville contenant un point")
+    public ResponseEntity<?> locate(@RequestParam double lat, @RequestParam double lon) {
+        try {
+            return ResponseEntity.ok(villeService.locate(lat, lon));
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @GetMapping("/cache/status")
+    @Operation(summary = "État du cache des villes")
+    public ResponseEntity<ReferenceCacheStatusResponse> getCacheStatus() {
+        return ResponseEntity.ok(villeService.getCacheStatus());
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Récupérer une ville par ID")
     public ResponseEntity<?> getById(@PathVariable Long id) {
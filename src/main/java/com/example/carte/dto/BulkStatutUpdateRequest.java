@@ -0,0 +1,23 @@
+package com.example.carte.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BulkStatutUpdateRequest {
+
+    @NotEmpty
+    @Size(max = 10000)
+    private List<Long> ids;
+
+    @NotBlank
+    private String statut;
+
+    @NotNull
+    private Long idManager;
+}
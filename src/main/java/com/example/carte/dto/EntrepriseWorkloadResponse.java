@@ -0,0 +1,45 @@
+package com.example.carte.dto;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+@Data
+public class EntrepriseWorkloadResponse {
+
+    public static final String EN_ATTENTE = "EN_ATTENTE";
+    public static final String EN_COURS = "EN_COURS";
+    public static final String RESOLU = "RESOLU";
+
+    private Long idEntreprise;
+    private String nom;
+
+    private long enAttente;
+    private long enCours;
+    private long resolu;
+    private long total;
+
+    // Cumul sur tous les statuts
+    private BigDecimal budget = BigDecimal.ZERO;
+    private BigDecimal surfaceM2 = BigDecimal.ZERO;
+
+    public static EntrepriseWorkloadResponse of(Long idEntreprise, String nom,
+                                                Map<String, SignalementStatsResponse.Bucket> parStatut) {
+        EntrepriseWorkloadResponse r = new EntrepriseWorkloadResponse();
+        r.setIdEntreprise(idEntreprise);
+        r.setNom(nom);
+        parStatut.forEach((statut, b) -> {
+            switch (statut) {
+                case EN_ATTENTE -> r.setEnAttente(b.getCount());
+                case EN_COURS -> r.setEnCours(b.getCount());
+                case RESOLU -> r.setResolu(b.getCount());
+                default -> { }
+            }
+            r.setTotal(r.getTotal() + b.getCount());
+            r.setBudget(r.getBudget().add(b.getBudget()));
+            r.setSurfaceM2(r.getSurfaceM2().add(b.getSurfaceM2()));
+        });
+        return r;
+    }
+}
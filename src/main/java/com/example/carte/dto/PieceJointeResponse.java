@@ -11,6 +11,8 @@ public class PieceJointeResponse {
     private Long idPiece;
     private String typeFichier;
     private String chemin;
+    private String typeMime;
+    private Long taille;
     private LocalDateTime dateAjout;
 
     public static PieceJointeResponse fromPieceJointe(PieceJointe p) {
@@ -18,6 +20,8 @@ public class PieceJointeResponse {
         r.setIdPiece(p.getIdPiece());
         r.setTypeFichier(p.getTypeFichier());
         r.setChemin(p.getChemin());
+        r.setTypeMime(p.getTypeMime());
+        r.setTaille(p.getTaille());
         r.setDateAjout(p.getDateAjout());
         return r;
     }
@@ -0,0 +1,16 @@
+package com.example.carte.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class PrincipalCacheStatusResponse {
+    private int size;
+    private int maxSize;
+    private long ttlMs;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private double hitRatio;
+}
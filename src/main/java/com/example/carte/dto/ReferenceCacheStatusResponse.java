@@ -0,0 +1,17 @@
+package com.example.carte.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class ReferenceCacheStatusResponse {
+    private String name;
+    private int size;
+    private long hits;
+    private long misses;
+    private long loads;
+    private long invalidations;
+    private long lastLoadMs;
+    private double hitRatio;
+}
@@ -0,0 +1,16 @@
+package com.example.carte.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResolutionAnalyticsStatusResponse {
+
+    // Changements de statut dont les deltas n'ont pas été ajoutés : un rebuild les rétablit
+    private long recordFailures;
+
+    private long compactionFailures;
+}
@@ -0,0 +1,24 @@
+package com.example.carte.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResolutionStatsResponse {
+
+    private String statut;
+
+    // null pour GLOBAL, ou pour les signalements sans entreprise / ville
+    private Long idDimension;
+
+    // Format AAAA-MM ; null quand la période est agrégée
+    private String mois;
+
+    private long nombre;
+    private Double moyenneJours;
+    private Double medianeJours;
+    private Double p90Jours;
+}
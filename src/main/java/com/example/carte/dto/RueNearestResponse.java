@@ -0,0 +1,30 @@
+package com.example.carte.dto;
+
+import com.example.carte.index.RueSegmentIndex;
+import lombok.Data;
+
+@Data
+public class RueNearestResponse {
+
+    private Long idRue;
+    private String nom;
+    private String typeRue;
+    private Long idVille;
+
+    // Distance en mètres et point projeté sur le tronçon
+    private double distanceM;
+    private double latitude;
+    private double longitude;
+
+    public static RueNearestResponse fromMatch(RueSegmentIndex.Match m) {
+        RueNearestResponse res = new RueNearestResponse();
+        res.setIdRue(m.segment().idRue());
+        res.setNom(m.segment().nom());
+        res.setTypeRue(m.segment().typeRue());
+        res.setIdVille(m.segment().idVille());
+        res.setDistanceM(m.distanceM());
+        res.setLatitude(m.latitude());
+        res.setLongitude(m.longitude());
+        return res;
+    }
+}
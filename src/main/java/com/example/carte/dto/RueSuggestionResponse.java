@@ -0,0 +1,22 @@
+package com.example.carte.dto;
+
+import com.example.carte.index.RueSegment;
+import lombok.Data;
+
+@Data
+public class RueSuggestionResponse {
+
+    private Long idRue;
+    private String nom;
+    private String typeRue;
+    private Long idVille;
+
+    public static RueSuggestionResponse fromSegment(RueSegment s) {
+        RueSuggestionResponse res = new RueSuggestionResponse();
+        res.setIdRue(s.idRue());
+        res.setNom(s.nom());
+        res.setTypeRue(s.typeRue());
+        res.setIdVille(s.idVille());
+        return res;
+    }
+}
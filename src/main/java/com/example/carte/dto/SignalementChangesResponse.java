@@ -0,0 +1,21 @@
+package com.example.carte.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class SignalementChangesResponse {
+
+    // Signalements créés ou modifiés depuis le curseur
+    private List<SignalementResponse> updated;
+
+    // Identifiants des signalements supprimés depuis le curseur
+    private List<Long> deleted;
+
+    // À renvoyer dans since au prochain appel
+    private String cursor;
+    private boolean hasMore;
+}
@@ -0,0 +1,17 @@
+package com.example.carte.dto;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+@Data
+public class SignalementClusterResponse {
+
+    private double latitude;
+    private double longitude;
+    private long count;
+    private Map<String, Long> statuts;
+    private BigDecimal surfaceM2;
+    private BigDecimal budget;
+}
@@ -0,0 +1,15 @@
+package com.example.carte.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class SignalementImportResponse {
+
+    private int success;
+    private int errors;
+    private List<SignalementImportResult> results;
+}
@@ -0,0 +1,15 @@
+package com.example.carte.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class SignalementImportResult {
+
+    // Position de la ligne dans le lot envoyé (à partir de 0)
+    private int index;
+    private Long idSignalement;
+    private boolean success;
+    private String message;
+}
@@ -0,0 +1,17 @@
+package com.example.carte.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class SignalementPageResponse {
+
+    private List<SignalementResponse> items;
+
+    // id à passer en paramètre after pour la page suivante, null s'il n'y en a plus
+    private Long nextCursor;
+    private boolean hasMore;
+}
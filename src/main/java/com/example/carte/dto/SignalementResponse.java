@@ -1,12 +1,17 @@
 package com.example.carte.dto;
 
 import com.example.carte.entity.Signalement;
+import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
+// L'ordre des champs est celui du constructeur utilisé par SignalementRepository.RESPONSE_PROJECTION
 @Data
+@NoArgsConstructor
+@AllArgsConstructor
 public class SignalementResponse {
 
     private Long idSignalement;
@@ -24,6 +29,9 @@ public class SignalementResponse {
     private Long idEntreprise;
     private String nomEntreprise;
 
+    private Long idRue;
+    private String nomRue;
+
     private String syncState;
     private LocalDateTime dateSignalement;
     private LocalDateTime derniereMaj;
@@ -49,6 +57,11 @@ public class SignalementResponse {
             r.setIdEntreprise(s.getEntreprise().getIdEntreprise());
             r.setNomEntreprise(s.getEntreprise().getNom());
         }
+
+        if (s.getRue() != null) {
+            r.setIdRue(s.getRue().getIdRue());
+            r.setNomRue(s.getRue().getNom());
+        }
         return r;
     }
 }
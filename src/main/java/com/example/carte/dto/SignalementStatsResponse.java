@@ -0,0 +1,22 @@
+package com.example.carte.dto;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+@Data
+public class SignalementStatsResponse {
+
+    private Bucket total;
+    private Map<String, Bucket> parStatut;
+    private Map<String, Bucket> parEntreprise;
+    private Map<String, Bucket> parVille;
+
+    @Data
+    public static class Bucket {
+        private long count;
+        private BigDecimal surfaceM2;
+        private BigDecimal budget;
+    }
+}
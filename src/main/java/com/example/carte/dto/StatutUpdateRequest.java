@@ -0,0 +1,15 @@
+package com.example.carte.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+@Data
+public class StatutUpdateRequest {
+
+    @NotBlank
+    private String statut;
+
+    @NotNull
+    private Long idManager;
+}
@@ -0,0 +1,18 @@
+package com.example.carte.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class StatutUpdateResponse {
+
+    private String statut;
+    private int updated;
+
+    // Déjà dans le statut demandé : ni mise à jour ni historique
+    private int unchanged;
+    private List<Long> notFound;
+}
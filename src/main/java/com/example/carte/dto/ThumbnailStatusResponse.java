@@ -0,0 +1,17 @@
+package com.example.carte.dto;
+
+import lombok.Data;
+
+@Data
+public class ThumbnailStatusResponse {
+
+    private int queued;
+    private int active;
+    private int queueCapacity;
+    // Âge de la plus ancienne demande encore en file : le retard du pipeline
+    private long oldestQueuedMs;
+    private long lastDurationMs;
+    private long completed;
+    private long failed;
+    private long rejected;
+}
@@ -1,6 +1,7 @@
 package com.example.carte.dto;
 
 import java.math.BigDecimal;
+import java.util.List;
 
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -19,4 +20,7 @@ public class VilleRequest {
     private BigDecimal longitude;
 
     private BigDecimal rayonKm;
+
+    // Anneaux au format GeoJSON : [[[lon, lat], ...], ...], le premier est le contour extérieur
+    private List<List<List<Double>>> frontiere;
 }
@@ -1,10 +1,13 @@
 package com.example.carte.dto;
 
 import com.example.carte.entity.Ville;
+import com.example.carte.index.PolygonCodec;
 import lombok.Data;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 
 @Data
 public class VilleResponse {
@@ -14,6 +17,7 @@ public class VilleResponse {
     private BigDecimal latitude;
     private BigDecimal longitude;
     private BigDecimal rayonKm;
+    private List<List<List<Double>>> frontiere;
     private LocalDateTime dateImport;
 
     public static VilleResponse fromVille(Ville v) {
@@ -24,6 +28,21 @@ public class VilleResponse {
         r.setLongitude(v.getLongitude());
         r.setRayonKm(v.getRayonKm());
         r.setDateImport(v.getDateImport());
+        if (v.getFrontiere() != null) {
+            r.setFrontiere(toCoordinates(PolygonCodec.decode(v.getFrontiere())));
+        }
         return r;
     }
+
+    private static List<List<List<Double>>> toCoordinates(double[][] rings) {
+        List<List<List<Double>>> result = new ArrayList<>(rings.length);
+        for (double[] ring : rings) {
+            List<List<Double>> points = new ArrayList<>(ring.length / 2);
+            for (int i = 0; i < ring.length; i += 2) {
+                points.add(List.of(ring[i], ring[i + 1]));
+            }
+            result.add(points);
+        }
+        return result;
+    }
 }
@@ -0,0 +1,28 @@
+package com.example.carte.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Dernier numéro attribué dans un flux de changements. La ligne est verrouillée
+ * pendant toute la numérotation : les numéros sont committés dans l'ordre.
+ */
+@Entity
+@Table(name = "compteur_changement")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CompteurChangement {
+
+    @Id
+    @Column(length = 50)
+    private String nom;
+
+    @Column(nullable = false)
+    private Long valeur;
+}
@@ -5,6 +5,7 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.PrePersist;
@@ -16,7 +17,9 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "historique_statut")
+@Table(name = "historique_statut", indexes = {
+        @Index(name = "idx_historique_signalement_date", columnList = "id_signalement, date_changement")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -0,0 +1,43 @@
+package com.example.carte.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Fichier partagé par les pièces jointes de même contenu, identifié par son
+ * SHA-256. refCount compte les pièces qui y pointent ; le fichier est supprimé
+ * quand il tombe à zéro.
+ */
+@Entity
+@Table(name = "piece_blob")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PieceBlob {
+
+    @Id
+    @Column(length = 64)
+    private String sha256;
+
+    @Column(nullable = false)
+    private long taille;
+
+    @Column(name = "ref_count", nullable = false)
+    private long refCount;
+
+    @Column(name = "date_creation", updatable = false)
+    private LocalDateTime dateCreation;
+
+    @PrePersist
+    void onCreate() {
+        dateCreation = LocalDateTime.now();
+    }
+}
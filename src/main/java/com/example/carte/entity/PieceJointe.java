@@ -37,6 +37,12 @@ public class PieceJointe {
     @Column(nullable = false, columnDefinition = "TEXT")
     private String chemin;
 
+    @Column(name = "type_mime", length = 100)
+    private String typeMime;
+
+    // Taille en octets, connue pour les fichiers déposés via l'upload
+    private Long taille;
+
     @Column(name = "date_ajout", updatable = false)
     private LocalDateTime dateAjout;
 
@@ -0,0 +1,62 @@
+package com.example.carte.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+/**
+ * Jeton de rafraîchissement, stocké sous forme de SHA-256. Chaque rotation
+ * marque le jeton utilisé et en émet un nouveau dans la même famille ; la
+ * présentation d'un jeton déjà utilisé révoque toute la famille.
+ */
+@Entity
+@Table(name = "refresh_token")
+@Data
+@NoArgsConstructor
+public class RefreshToken {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "token_hash", nullable = false, unique = true, length = 64)
+    private String tokenHash;
+
+    @Column(name = "family_id", nullable = false, length = 36)
+    private String familyId;
+
+    // Exclu de toString/equals/hashCode : le proxy LAZY n'est jamais chargé par Lombok
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private User user;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    @Column(name = "used_at")
+    private LocalDateTime usedAt;
+
+    @Column(nullable = false)
+    private boolean revoked = false;
+
+    // Jeton d'accès émis avec celui-ci, à révoquer avec la famille
+    @Column(name = "access_jti", length = 36)
+    private String accessJti;
+
+    @Column(name = "access_expires_at")
+    private LocalDateTime accessExpiresAt;
+
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.carte.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Agrégat mensuel de durées, par mesure (RESOLUTION ou DUREE_STATUT), statut
+ * et dimension (GLOBAL, ENTREPRISE, VILLE). idDimension vaut 0 pour GLOBAL ou
+ * pour un signalement sans entreprise / ville. L'histogramme est celui de
+ * DurationHistogram, encodé. Une clé peut avoir plusieurs lignes (deltas pas
+ * encore compactés) : elles s'additionnent.
+ */
+@Entity
+@Table(name = "resolution_rollup", indexes = @Index(
+        name = "idx_resolution_rollup_cle", columnList = "mesure, dimension, mois, statut, id_dimension"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResolutionRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id_rollup")
+    private Long idRollup;
+
+    @Column(nullable = false, length = 20)
+    private String mesure;
+
+    @Column(nullable = false, length = 20)
+    private String statut;
+
+    @Column(nullable = false, length = 20)
+    private String dimension;
+
+    @Column(name = "id_dimension", nullable = false)
+    private Long idDimension;
+
+    @Column(nullable = false)
+    private LocalDate mois;
+
+    @Column(nullable = false)
+    private long nombre;
+
+    @Column(name = "total_heures", nullable = false)
+    private double totalHeures;
+
+    @Column(nullable = false)
+    private byte[] histogramme;
+}
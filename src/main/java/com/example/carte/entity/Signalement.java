@@ -2,9 +2,11 @@ package com.example.carte.entity;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.PrePersist;
@@ -12,13 +14,21 @@ import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "signalement")
+@Table(name = "signalement", indexes = {
+        @Index(name = "idx_signalement_statut", columnList = "statut, id_signalement"),
+        @Index(name = "idx_signalement_entreprise", columnList = "id_entreprise, id_signalement"),
+        @Index(name = "idx_signalement_utilisateur", columnList = "id_utilisateur, id_signalement"),
+        @Index(name = "idx_signalement_changement", columnList = "numero_changement")
+})
+// Associations LAZY exclues de toString/equals/hashCode : ni chargement ni LazyInitializationException
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -53,28 +63,50 @@ public class Signalement {
     @Column(precision = 15, scale = 2)
     private BigDecimal budget;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "id_utilisateur", nullable = false)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private User utilisateur;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "id_entreprise")
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private Entreprise entreprise;
 
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "id_ville")
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private Ville ville;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "id_rue")
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private Rue rue;
+
     @Column(name = "sync_state", length = 20)
     private String syncState = "local";
 
     @Column(name = "derniere_maj")
     private LocalDateTime derniereMaj;
 
+    // Position dans le flux de changements, attribuée après le commit (null : en attente)
+    @Column(name = "numero_changement")
+    private Long numeroChangement;
+
     @PrePersist
     void onCreate() {
         dateSignalement = LocalDateTime.now();
         derniereMaj = LocalDateTime.now();
+        numeroChangement = null;
     }
 
     @PreUpdate
     void onUpdate() {
         derniereMaj = LocalDateTime.now();
+        numeroChangement = null;
     }
 }
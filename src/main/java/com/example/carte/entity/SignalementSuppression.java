@@ -0,0 +1,34 @@
+package com.example.carte.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Trace d'un signalement supprimé, pour le flux de changements des clients
+@Entity
+@Table(name = "signalement_suppression", indexes = {
+        @Index(name = "idx_suppression_changement", columnList = "numero_changement")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SignalementSuppression {
+
+    @Id
+    @Column(name = "id_signalement")
+    private Long idSignalement;
+
+    @Column(name = "date_suppression", nullable = false)
+    private LocalDateTime dateSuppression;
+
+    // Position dans le flux de changements, attribuée après le commit (null : en attente)
+    @Column(name = "numero_changement")
+    private Long numeroChangement;
+}
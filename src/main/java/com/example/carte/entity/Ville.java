@@ -38,6 +38,10 @@ public class Ville {
     @Column(name = "rayon_km", precision = 6, scale = 2)
     private BigDecimal rayonKm;
 
+    // Frontière optionnelle, encodée par PolygonCodec
+    @Column(name = "frontiere")
+    private byte[] frontiere;
+
     @Column(name = "date_import", updatable = false)
     private LocalDateTime dateImport;
 
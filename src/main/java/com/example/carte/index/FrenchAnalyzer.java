@@ -0,0 +1,70 @@
+package com.example.carte.index;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Découpage du texte français pour l'index plein texte : minuscules, accents
+ * retirés, mots vides ignorés, pluriels en -s / -x ramenés au singulier. Les
+ * élisions (l', d', qu') tombent d'elles-mêmes, l'apostrophe séparant les mots.
+ */
+public final class FrenchAnalyzer {
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "au", "aux", "avec", "ce", "ces", "cet", "cette", "dans", "de", "des", "du", "elle", "en",
+            "est", "et", "il", "ils", "la", "le", "les", "leur", "leurs", "mais", "ne", "ni", "nous", "on",
+            "ou", "par", "pas", "plus", "pour", "qu", "que", "qui", "sa", "se", "ses", "son", "sont", "sur",
+            "un", "une", "vers", "y");
+
+    private FrenchAnalyzer() {
+    }
+
+    public static String normalize(String text) {
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        StringBuilder sb = new StringBuilder(decomposed.length());
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.getType(c) != Character.NON_SPACING_MARK) {
+                sb.append(c);
+            }
+        }
+        return sb.toString().toLowerCase(Locale.ROOT).replace("œ", "oe").replace("æ", "ae");
+    }
+
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isBlank()) {
+            return tokens;
+        }
+        String normalized = normalize(text);
+        int start = -1;
+        for (int i = 0; i <= normalized.length(); i++) {
+            boolean letter = i < normalized.length() && Character.isLetterOrDigit(normalized.charAt(i));
+            if (letter && start < 0) {
+                start = i;
+            } else if (!letter && start >= 0) {
+                addToken(normalized.substring(start, i), tokens);
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    private static void addToken(String word, List<String> tokens) {
+        if (word.length() < 2 || STOP_WORDS.contains(word)) {
+            return;
+        }
+        tokens.add(stem(word));
+    }
+
+    private static String stem(String word) {
+        if (word.length() > 3 && (word.endsWith("s") || word.endsWith("x"))
+                && !Character.isDigit(word.charAt(word.length() - 2))) {
+            return word.substring(0, word.length() - 1);
+        }
+        return word;
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.carte.index;
+
+import java.io.ByteArrayOutputStream;
+
+/**
+ * Encodage compact des frontières de ville : coordonnées arrondies à 1e-7 degré
+ * (la précision des colonnes DECIMAL(10, 7)), delta par rapport au point
+ * précédent, zigzag puis varint. Un contour de quelques milliers de points tient
+ * en quelques kilo-octets.
+ *
+ * Format : nombre d'anneaux, puis pour chaque anneau le nombre de points suivi
+ * des couples (lon, lat). Les anneaux sont au format plat [lon0, lat0, lon1, lat1, ...].
+ */
+public final class PolygonCodec {
+
+    private static final double SCALE = 1e7;
+
+    private PolygonCodec() {
+    }
+
+    public static byte[] encode(double[][] rings) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writeVarint(out, rings.length);
+        long prevLon = 0;
+        long prevLat = 0;
+        for (double[] ring : rings) {
+            writeVarint(out, ring.length / 2);
+            for (int i = 0; i < ring.length; i += 2) {
+                long lon = Math.round(ring[i] * SCALE);
+                long lat = Math.round(ring[i + 1] * SCALE);
+                writeVarint(out, zigZag(lon - prevLon));
+                writeVarint(out, zigZag(lat - prevLat));
+                prevLon = lon;
+                prevLat = lat;
+            }
+        }
+        return out.toByteArray();
+    }
+
+    public static double[][] decode(byte[] data) {
+        int[] pos = {0};
+        int ringCount = (int) readVarint(data, pos);
+        double[][] rings = new double[ringCount][];
+        long lon = 0;
+        long lat = 0;
+        for (int r = 0; r < ringCount; r++) {
+            int points = (int) readVarint(data, pos);
+            double[] ring = new double[points * 2];
+            for (int i = 0; i < ring.length; i += 2) {
+                lon += unZigZag(readVarint(data, pos));
+                lat += unZigZag(readVarint(data, pos));
+                ring[i] = lon / SCALE;
+                ring[i + 1] = lat / SCALE;
+            }
+            rings[r] = ring;
+        }
+        return rings;
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarint(byte[] data, int[] pos) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = data[pos[0]++];
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    private static long zigZag(long n) {
+        return (n << 1) ^ (n >> 63);
+    }
+
+    private static long unZigZag(long n) {
+        return (n >>> 1) ^ -(n & 1);
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.carte.index;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Polygone préparé pour les tests d'appartenance répétés. Les arêtes sont
+ * rangées par bandes horizontales : un test ne parcourt que les arêtes de la
+ * bande du point (règle pair-impair, les trous sont donc des anneaux comme les
+ * autres).
+ */
+public class PreparedPolygon {
+
+    private static final int EDGES_PER_BAND = 8;
+    private static final int MAX_BANDS = 1024;
+
+    private final double minLon;
+    private final double minLat;
+    private final double maxLon;
+    private final double maxLat;
+    private final double bandHeight;
+
+    // Arêtes à plat : x1, y1, x2, y2 pour chaque arête
+    private final double[] edges;
+    private final int[][] bands;
+
+    public PreparedPolygon(double[][] rings) {
+        double x0 = Double.MAX_VALUE, y0 = Double.MAX_VALUE, x1 = -Double.MAX_VALUE, y1 = -Double.MAX_VALUE;
+        int edgeCount = 0;
+        for (double[] ring : rings) {
+            for (int i = 0; i < ring.length; i += 2) {
+                x0 = Math.min(x0, ring[i]);
+                x1 = Math.max(x1, ring[i]);
+                y0 = Math.min(y0, ring[i + 1]);
+                y1 = Math.max(y1, ring[i + 1]);
+            }
+            edgeCount += ring.length / 2;
+        }
+        this.minLon = x0;
+        this.minLat = y0;
+        this.maxLon = x1;
+        this.maxLat = y1;
+
+        // Chaque anneau est refermé implicitement : l'arête (dernier point -> premier point) est ajoutée
+        this.edges = new double[edgeCount * 4];
+        int e = 0;
+        for (double[] ring : rings) {
+            int n = ring.length / 2;
+            for (int i = 0; i < n; i++) {
+                int j = (i + 1) % n;
+                edges[e++] = ring[2 * i];
+                edges[e++] = ring[2 * i + 1];
+                edges[e++] = ring[2 * j];
+                edges[e++] = ring[2 * j + 1];
+            }
+        }
+
+        int bandCount = Math.max(1, Math.min(MAX_BANDS, edgeCount / EDGES_PER_BAND));
+        this.bandHeight = Math.max((maxLat - minLat) / bandCount, Double.MIN_NORMAL);
+        List<List<Integer>> buckets = new ArrayList<>(bandCount);
+        for (int b = 0; b < bandCount; b++) {
+            buckets.add(new ArrayList<>());
+        }
+        for (int k = 0; k < edgeCount; k++) {
+            double ya = edges[4 * k + 1];
+            double yb = edges[4 * k + 3];
+            if (ya == yb) {
+                // Une arête horizontale ne croise jamais le rayon
+                continue;
+            }
+            int from = band(Math.min(ya, yb), bandCount);
+            int to = band(Math.max(ya, yb), bandCount);
+            for (int b = from; b <= to; b++) {
+                buckets.get(b).add(k);
+            }
+        }
+        this.bands = new int[bandCount][];
+        for (int b = 0; b < bandCount; b++) {
+            bands[b] = buckets.get(b).stream().mapToInt(Integer::intValue).toArray();
+        }
+    }
+
+    public double minLon() {
+        return minLon;
+    }
+
+    public double minLat() {
+        return minLat;
+    }
+
+    public double maxLon() {
+        return maxLon;
+    }
+
+    public double maxLat() {
+        return maxLat;
+    }
+
+    public double bboxArea() {
+        return (maxLon - minLon) * (maxLat - minLat);
+    }
+
+    public boolean contains(double lat, double lon) {
+        if (lat < minLat || lat > maxLat || lon < minLon || lon > maxLon) {
+            return false;
+        }
+        boolean inside = false;
+        for (int k : bands[band(lat, bands.length)]) {
+            double xa = edges[4 * k];
+            double ya = edges[4 * k + 1];
+            double xb = edges[4 * k + 2];
+            double yb = edges[4 * k + 3];
+            if ((ya > lat) != (yb > lat) && lon < xa + (lat - ya) * (xb - xa) / (yb - ya)) {
+                inside = !inside;
+            }
+        }
+        return inside;
+    }
+
+    private int band(double lat, int bandCount) {
+        return Math.max(0, Math.min(bandCount - 1, (int) ((lat - minLat) / bandHeight)));
+    }
+}
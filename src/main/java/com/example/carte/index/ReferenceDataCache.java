@@ -0,0 +1,185 @@
+package com.example.carte.index;
+
+import com.example.carte.dto.EntrepriseResponse;
+import com.example.carte.dto.ReferenceCacheStatusResponse;
+import com.example.carte.dto.RueResponse;
+import com.example.carte.dto.VilleResponse;
+import com.example.carte.repository.EntrepriseRepository;
+import com.example.carte.repository.RueRepository;
+import com.example.carte.repository.VilleRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Villes, rues et entreprises tenues en mémoire sous forme de listes de réponses
+ * immuables, chargées d'un bloc à la première lecture. Ces données ne changent
+ * qu'à l'édition : chaque écriture publie un ReferenceDataChangedEvent et la
+ * liste concernée est vidée après le commit (celle des rues aussi quand une
+ * ville change, pour nomVille). Un chargement commencé avant une invalidation
+ * n'est pas conservé.
+ */
+@Component
+public class ReferenceDataCache {
+
+    public enum Type { VILLE, RUE, ENTREPRISE }
+
+    @Autowired
+    private VilleRepository villeRepository;
+
+    @Autowired
+    private RueRepository rueRepository;
+
+    @Autowired
+    private EntrepriseRepository entrepriseRepository;
+
+    private final Cached<VilleResponse> villes = new Cached<>("villes", VilleResponse::getIdVille, null,
+            () -> villeRepository.findAll().stream().map(VilleResponse::fromVille).collect(Collectors.toList()));
+
+    private final Cached<RueResponse> rues = new Cached<>("rues", RueResponse::getIdRue, RueResponse::getIdVille,
+            () -> rueRepository.findAllWithVille().stream().map(RueResponse::fromRue).collect(Collectors.toList()));
+
+    private final Cached<EntrepriseResponse> entreprises = new Cached<>("entreprises",
+            EntrepriseResponse::getIdEntreprise, null,
+            () -> entrepriseRepository.findAll().stream()
+                    .map(EntrepriseResponse::fromEntreprise).collect(Collectors.toList()));
+
+    public List<VilleResponse> villes() {
+        return villes.get().all();
+    }
+
+    public VilleResponse ville(Long id) {
+        return villes.get().byId().get(id);
+    }
+
+    public List<RueResponse> rues() {
+        return rues.get().all();
+    }
+
+    public RueResponse rue(Long id) {
+        return rues.get().byId().get(id);
+    }
+
+    public List<RueResponse> ruesByVille(Long idVille) {
+        return rues.get().byGroup().getOrDefault(idVille, List.of());
+    }
+
+    public List<EntrepriseResponse> entreprises() {
+        return entreprises.get().all();
+    }
+
+    public EntrepriseResponse entreprise(Long id) {
+        return entreprises.get().byId().get(id);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReferenceDataChanged(ReferenceDataChangedEvent event) {
+        switch (event.type()) {
+            case VILLE -> {
+                villes.invalidate();
+                rues.invalidate();
+            }
+            case RUE -> rues.invalidate();
+            case ENTREPRISE -> entreprises.invalidate();
+        }
+    }
+
+    public ReferenceCacheStatusResponse getStatus(Type type) {
+        return switch (type) {
+            case VILLE -> villes.status();
+            case RUE -> rues.status();
+            case ENTREPRISE -> entreprises.status();
+        };
+    }
+
+    private record Snapshot<T>(List<T> all, Map<Long, T> byId, Map<Long, List<T>> byGroup) {
+    }
+
+    private static final class Cached<T> {
+
+        private final String name;
+        private final Function<T, Long> id;
+        private final Function<T, Long> group;
+        private final Supplier<List<T>> loader;
+        private final AtomicReference<Snapshot<T>> snapshot = new AtomicReference<>();
+        private final AtomicLong generation = new AtomicLong();
+        private volatile long lastLoadMs;
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+        private final LongAdder loads = new LongAdder();
+        private final LongAdder invalidations = new LongAdder();
+
+        Cached(String name, Function<T, Long> id, Function<T, Long> group, Supplier<List<T>> loader) {
+            this.name = name;
+            this.id = id;
+            this.group = group;
+            this.loader = loader;
+        }
+
+        Snapshot<T> get() {
+            Snapshot<T> s = snapshot.get();
+            if (s != null) {
+                hits.increment();
+                return s;
+            }
+            misses.increment();
+            // Un seul chargement à la fois : les autres lecteurs attendent son résultat
+            synchronized (this) {
+                s = snapshot.get();
+                if (s != null) {
+                    return s;
+                }
+                long before = generation.get();
+                long start = System.currentTimeMillis();
+                s = build(loader.get());
+                loads.increment();
+                lastLoadMs = System.currentTimeMillis() - start;
+                snapshot.set(s);
+                // Invalidé pendant le chargement : le résultat sert à cet appel, pas aux suivants
+                if (generation.get() != before) {
+                    snapshot.compareAndSet(s, null);
+                }
+                return s;
+            }
+        }
+
+        void invalidate() {
+            generation.incrementAndGet();
+            snapshot.set(null);
+            invalidations.increment();
+        }
+
+        private Snapshot<T> build(List<T> loaded) {
+            List<T> all = List.copyOf(loaded);
+            Map<Long, T> byId = new HashMap<>();
+            Map<Long, List<T>> byGroup = new HashMap<>();
+            for (T item : all) {
+                byId.put(id.apply(item), item);
+                if (group != null) {
+                    byGroup.computeIfAbsent(group.apply(item), k -> new ArrayList<>()).add(item);
+                }
+            }
+            byGroup.replaceAll((k, v) -> List.copyOf(v));
+            return new Snapshot<>(all, Map.copyOf(byId), Map.copyOf(byGroup));
+        }
+
+        ReferenceCacheStatusResponse status() {
+            Snapshot<T> s = snapshot.get();
+            long h = hits.sum();
+            long m = misses.sum();
+            return new ReferenceCacheStatusResponse(name, s == null ? 0 : s.all().size(), h, m, loads.sum(),
+                    invalidations.sum(), lastLoadMs, h + m == 0 ? 0 : (double) h / (h + m));
+        }
+    }
+}
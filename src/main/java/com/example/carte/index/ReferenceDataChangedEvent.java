@@ -0,0 +1,8 @@
+package com.example.carte.index;
+
+/**
+ * Publié par VilleService, RueService et EntrepriseService à chaque écriture ;
+ * ReferenceDataCache invalide les listes concernées après le commit.
+ */
+public record ReferenceDataChangedEvent(ReferenceDataCache.Type type) {
+}
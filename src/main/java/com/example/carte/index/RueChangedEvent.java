@@ -0,0 +1,8 @@
+package com.example.carte.index;
+
+/**
+ * Publié par RueService à chaque écriture ; RueSegmentIndex et RueNameIndex
+ * l'appliquent après le commit. current est null pour une suppression.
+ */
+public record RueChangedEvent(Long idRue, RueSegment current) {
+}
@@ -0,0 +1,226 @@
+package com.example.carte.index;
+
+import com.example.carte.entity.Rue;
+import com.example.carte.repository.RueRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Index d'autocomplétion des noms de rue. Chaque mot du libellé normalisé
+ * (type + nom, sans accents) donne une clé triée « mot \0 libellé \0 id » :
+ * une recherche par préfixe est un parcours de plage dans l'ordre, les mots
+ * exacts avant les mots plus longs, puis par libellé. Un ensemble par ville,
+ * plus un ensemble global quand aucune ville n'est précisée.
+ */
+@Component
+public class RueNameIndex {
+
+    private static final char SEPARATOR = '\u0000';
+    private static final int MAX_SCAN = 10_000;
+
+    @Autowired
+    private RueRepository rueRepository;
+
+    private final Map<Long, Entry> rues = new ConcurrentHashMap<>();
+    private final Map<Long, NavigableSet<String>> byVille = new ConcurrentHashMap<>();
+    private final NavigableSet<String> all = new ConcurrentSkipListSet<>();
+
+    private record Entry(RueSegment rue, String[] keys) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        rueRepository.findAllSegments().forEach(this::put);
+    }
+
+    public void put(Rue rue) {
+        put(RueSegment.fromRue(rue));
+    }
+
+    public void put(RueSegment rue) {
+        String label = FrenchAnalyzer.normalize(label(rue));
+        Set<String> keys = new LinkedHashSet<>();
+        for (String word : words(label)) {
+            keys.add(word + SEPARATOR + label + SEPARATOR + rue.idRue());
+        }
+        Entry entry = new Entry(rue, keys.toArray(new String[0]));
+
+        Entry old = rues.put(rue.idRue(), entry);
+        if (old != null) {
+            unregister(old);
+        }
+        NavigableSet<String> ville = byVille.computeIfAbsent(rue.idVille(), id -> new ConcurrentSkipListSet<>());
+        for (String key : entry.keys()) {
+            ville.add(key);
+            all.add(key);
+        }
+    }
+
+    public void remove(Long idRue) {
+        Entry old = rues.remove(idRue);
+        if (old != null) {
+            unregister(old);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRueChanged(RueChangedEvent event) {
+        if (event.current() == null) {
+            remove(event.idRue());
+        } else {
+            put(event.current());
+        }
+    }
+
+    /**
+     * Les limit premières rues dont un mot commence par le premier mot du préfixe
+     * et qui contiennent les autres mots (en début de mot), dans l'ordre des clés
+     * du premier mot. Le parcours part du mot le plus sélectif : « rue rats »
+     * ne balaie pas toutes les rues commençant par « rue ».
+     */
+    public List<RueSegment> suggest(String prefix, Long idVille, int limit) {
+        List<String> terms = new ArrayList<>(new LinkedHashSet<>(words(FrenchAnalyzer.normalize(prefix))));
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+        NavigableSet<String> keys = idVille == null ? all : byVille.get(idVille);
+        if (keys == null) {
+            return List.of();
+        }
+
+        String first = terms.get(0);
+        String driver = terms.size() == 1 ? first : mostSelective(keys, terms);
+        if (driver == null || driver.equals(first)) {
+            return scanInOrder(keys, terms, limit);
+        }
+
+        // Candidats pris dans la liste la plus courte, puis remis dans l'ordre des clés du premier mot
+        TreeMap<String, RueSegment> ordered = new TreeMap<>();
+        for (String key : range(keys, driver)) {
+            Entry entry = rues.get(id(key));
+            if (entry == null) {
+                continue;
+            }
+            String firstKey = firstKey(entry, first);
+            if (firstKey != null && containsWordPrefixes(label(key), terms)) {
+                ordered.put(firstKey, entry.rue());
+            }
+        }
+        return ordered.values().stream().limit(limit).toList();
+    }
+
+    private List<RueSegment> scanInOrder(NavigableSet<String> keys, List<String> terms, int limit) {
+        Set<Long> seen = new LinkedHashSet<>();
+        List<RueSegment> result = new ArrayList<>(limit);
+        int scanned = 0;
+        for (String key : range(keys, terms.get(0))) {
+            if (result.size() >= limit || ++scanned > MAX_SCAN) {
+                break;
+            }
+            Long id = id(key);
+            if (!seen.add(id)) {
+                continue;
+            }
+            Entry entry = rues.get(id);
+            if (entry != null && containsWordPrefixes(label(key), terms)) {
+                result.add(entry.rue());
+            }
+        }
+        return result;
+    }
+
+    // Avance les listes des mots en parallèle : la première épuisée est la plus courte ; null au-delà de MAX_SCAN
+    private static String mostSelective(NavigableSet<String> keys, List<String> terms) {
+        List<Iterator<String>> postings = new ArrayList<>(terms.size());
+        for (String term : terms) {
+            postings.add(range(keys, term).iterator());
+        }
+        for (int step = 0; step <= MAX_SCAN; step++) {
+            for (int t = 0; t < postings.size(); t++) {
+                if (!postings.get(t).hasNext()) {
+                    return terms.get(t);
+                }
+                postings.get(t).next();
+            }
+        }
+        return null;
+    }
+
+    // Plus petite clé de la rue pour le premier mot : sa position dans le parcours ordonné
+    private static String firstKey(Entry entry, String first) {
+        String min = null;
+        for (String key : entry.keys()) {
+            if (key.startsWith(first) && (min == null || key.compareTo(min) < 0)) {
+                min = key;
+            }
+        }
+        return min;
+    }
+
+    private static NavigableSet<String> range(NavigableSet<String> keys, String term) {
+        return keys.subSet(term, true, term + Character.MAX_VALUE, false);
+    }
+
+    private static Long id(String key) {
+        return Long.valueOf(key.substring(key.lastIndexOf(SEPARATOR) + 1));
+    }
+
+    private static String label(String key) {
+        return key.substring(key.indexOf(SEPARATOR) + 1, key.lastIndexOf(SEPARATOR));
+    }
+
+    private void unregister(Entry old) {
+        NavigableSet<String> ville = byVille.get(old.rue().idVille());
+        for (String key : old.keys()) {
+            if (ville != null) {
+                ville.remove(key);
+            }
+            all.remove(key);
+        }
+    }
+
+    private static String label(RueSegment rue) {
+        String nom = rue.nom() == null ? "" : rue.nom();
+        return rue.typeRue() == null || rue.typeRue().isBlank() ? nom : rue.typeRue() + " " + nom;
+    }
+
+    private static boolean containsWordPrefixes(String label, List<String> terms) {
+        List<String> labelWords = words(label);
+        for (int t = 1; t < terms.size(); t++) {
+            String term = terms.get(t);
+            if (labelWords.stream().noneMatch(w -> w.startsWith(term))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static List<String> words(String normalized) {
+        List<String> words = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= normalized.length(); i++) {
+            boolean letter = i < normalized.length() && Character.isLetterOrDigit(normalized.charAt(i));
+            if (letter && start < 0) {
+                start = i;
+            } else if (!letter && start >= 0) {
+                words.add(normalized.substring(start, i));
+                start = -1;
+            }
+        }
+        return words;
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.carte.index;
+
+import com.example.carte.entity.Rue;
+
+import java.math.BigDecimal;
+
+public record RueSegment(
+        Long idRue,
+        Long idVille,
+        String nom,
+        String typeRue,
+        double latitudeDebut,
+        double longitudeDebut,
+        double latitudeFin,
+        double longitudeFin) {
+
+    // Constructeur utilisé par les projections JPQL (colonnes DECIMAL)
+    public RueSegment(Long idRue, Long idVille, String nom, String typeRue,
+                      BigDecimal latitudeDebut, BigDecimal longitudeDebut,
+                      BigDecimal latitudeFin, BigDecimal longitudeFin) {
+        this(idRue, idVille, nom, typeRue, latitudeDebut.doubleValue(), longitudeDebut.doubleValue(),
+                latitudeFin.doubleValue(), longitudeFin.doubleValue());
+    }
+
+    public static RueSegment fromRue(Rue rue) {
+        return new RueSegment(rue.getIdRue(), rue.getVille().getIdVille(), rue.getNom(), rue.getTypeRue(),
+                rue.getLatitudeDebut(), rue.getLongitudeDebut(), rue.getLatitudeFin(), rue.getLongitudeFin());
+    }
+}
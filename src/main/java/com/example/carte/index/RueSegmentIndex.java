@@ -0,0 +1,227 @@
+package com.example.carte.index;
+
+import com.example.carte.entity.Rue;
+import com.example.carte.repository.RueRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongConsumer;
+
+/**
+ * Index des tronçons de rue pour la recherche du plus proche voisin.
+ * Une grille par ville : chaque tronçon est inscrit dans toutes les cellules que
+ * couvre son rectangle englobant. La recherche parcourt les cellules en anneaux
+ * autour du point et s'arrête dès que l'anneau suivant ne peut plus contenir de
+ * tronçon plus proche que le k-ième trouvé.
+ */
+@Component
+public class RueSegmentIndex {
+
+    private static final double METERS_PER_DEGREE = 111_320.0;
+    // Près des pôles la cellule s'écrase en longitude : on borne le nombre d'anneaux parcourus
+    private static final double MIN_COS_LAT = 0.05;
+    private static final int MAX_RING = 256;
+
+    @Autowired
+    private RueRepository rueRepository;
+
+    @Value("${rue.index.cell-size:0.002}")
+    private double cellSize;
+
+    @Value("${rue.index.max-distance-m:2000}")
+    private double maxDistanceM;
+
+    // Rattachement automatique des signalements : 0 pour désactiver
+    @Value("${rue.snap.max-distance-m:50}")
+    private double snapDistanceM;
+
+    private final Map<Long, RueSegment> segments = new ConcurrentHashMap<>();
+    private final Map<Long, VilleGrid> grids = new ConcurrentHashMap<>();
+
+    public record Match(RueSegment segment, double distanceM, double latitude, double longitude) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        rueRepository.findAllSegments().forEach(this::put);
+    }
+
+    public void put(Rue rue) {
+        put(RueSegment.fromRue(rue));
+    }
+
+    public void put(RueSegment s) {
+        RueSegment old = segments.put(s.idRue(), s);
+        if (old != null) {
+            grid(old.idVille()).remove(old);
+        }
+        grid(s.idVille()).add(s);
+    }
+
+    public void remove(Long idRue) {
+        RueSegment old = segments.remove(idRue);
+        if (old != null) {
+            grid(old.idVille()).remove(old);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRueChanged(RueChangedEvent event) {
+        if (event.current() == null) {
+            remove(event.idRue());
+        } else {
+            put(event.current());
+        }
+    }
+
+    public int size() {
+        return segments.size();
+    }
+
+    /**
+     * Rue la plus proche à moins de snapDistanceM mètres, cherchée dans la ville
+     * du point si elle est connue ; null si aucune.
+     */
+    public Long snap(double lat, double lon, Long idVille) {
+        if (snapDistanceM <= 0) {
+            return null;
+        }
+        List<Match> matches = nearest(lat, lon, 1, idVille);
+        if (matches.isEmpty() || matches.get(0).distanceM() > snapDistanceM) {
+            return null;
+        }
+        return matches.get(0).segment().idRue();
+    }
+
+    /**
+     * Les k tronçons les plus proches du point, à moins de maxDistanceM mètres,
+     * triés par distance croissante. idVille restreint la recherche à une ville.
+     */
+    public List<Match> nearest(double lat, double lon, int k, Long idVille) {
+        if (!(lat >= -90 && lat <= 90 && lon >= -180 && lon <= 180)) {
+            return List.of();
+        }
+        double cosLat = Math.cos(Math.toRadians(lat));
+        PriorityQueue<Match> best = new PriorityQueue<>(Comparator.comparingDouble(Match::distanceM).reversed());
+        Set<Long> seen = new HashSet<>();
+
+        int row = cellOf(lat);
+        int col = cellOf(lon);
+        // Largeur d'une cellule en mètres, côté le plus étroit (longitude)
+        double cellMeters = cellSize * METERS_PER_DEGREE * Math.max(MIN_COS_LAT, Math.min(1.0, cosLat));
+        int maxRing = (int) Math.min(MAX_RING, Math.ceil(maxDistanceM / cellMeters) + 1);
+
+        for (int ring = 0; ring <= maxRing; ring++) {
+            if (best.size() == k && best.peek().distanceM() <= (ring - 1) * cellMeters) {
+                break;
+            }
+            for (Map.Entry<Long, VilleGrid> entry : grids.entrySet()) {
+                if (idVille != null && !idVille.equals(entry.getKey())) {
+                    continue;
+                }
+                for (RueSegment s : entry.getValue().ring(row, col, ring)) {
+                    if (!seen.add(s.idRue())) {
+                        continue;
+                    }
+                    Match m = project(s, lat, lon, cosLat);
+                    if (m.distanceM() > maxDistanceM) {
+                        continue;
+                    }
+                    if (best.size() < k) {
+                        best.add(m);
+                    } else if (m.distanceM() < best.peek().distanceM()) {
+                        best.poll();
+                        best.add(m);
+                    }
+                }
+            }
+        }
+
+        List<Match> result = new ArrayList<>(best);
+        result.sort(Comparator.comparingDouble(Match::distanceM));
+        return result;
+    }
+
+    // Projection orthogonale du point sur le tronçon, dans un plan local équirectangulaire
+    private static Match project(RueSegment s, double lat, double lon, double cosLat) {
+        double ax = (s.longitudeDebut() - lon) * cosLat;
+        double ay = s.latitudeDebut() - lat;
+        double bx = (s.longitudeFin() - lon) * cosLat;
+        double by = s.latitudeFin() - lat;
+        double dx = bx - ax;
+        double dy = by - ay;
+        double len2 = dx * dx + dy * dy;
+        double t = len2 == 0 ? 0 : Math.max(0, Math.min(1, -(ax * dx + ay * dy) / len2));
+        double px = ax + t * dx;
+        double py = ay + t * dy;
+        double distance = Math.sqrt(px * px + py * py) * METERS_PER_DEGREE;
+        return new Match(s, distance, lat + py, lon + (cosLat == 0 ? 0 : px / cosLat));
+    }
+
+    private VilleGrid grid(Long idVille) {
+        return grids.computeIfAbsent(idVille, id -> new VilleGrid());
+    }
+
+    private int cellOf(double coordinate) {
+        return (int) Math.floor(coordinate / cellSize);
+    }
+
+    private static long cellKey(int row, int col) {
+        return ((long) row << 32) | (col & 0xffffffffL);
+    }
+
+    private class VilleGrid {
+        private final Map<Long, Set<RueSegment>> cells = new ConcurrentHashMap<>();
+
+        void add(RueSegment s) {
+            forEachCell(s, key -> cells.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(s));
+        }
+
+        void remove(RueSegment s) {
+            forEachCell(s, key -> cells.computeIfPresent(key, (k, set) -> {
+                set.remove(s);
+                return set.isEmpty() ? null : set;
+            }));
+        }
+
+        // Tronçons des cellules situées exactement à la distance ring (en cellules) de (row, col)
+        List<RueSegment> ring(int row, int col, int ring) {
+            List<RueSegment> result = new ArrayList<>();
+            for (int r = row - ring; r <= row + ring; r++) {
+                boolean edgeRow = r == row - ring || r == row + ring;
+                int step = edgeRow ? 1 : Math.max(1, 2 * ring);
+                for (int c = col - ring; c <= col + ring; c += step) {
+                    Set<RueSegment> cell = cells.get(cellKey(r, c));
+                    if (cell != null) {
+                        result.addAll(cell);
+                    }
+                }
+            }
+            return result;
+        }
+
+        private void forEachCell(RueSegment s, LongConsumer action) {
+            int minRow = cellOf(Math.min(s.latitudeDebut(), s.latitudeFin()));
+            int maxRow = cellOf(Math.max(s.latitudeDebut(), s.latitudeFin()));
+            int minCol = cellOf(Math.min(s.longitudeDebut(), s.longitudeFin()));
+            int maxCol = cellOf(Math.max(s.longitudeDebut(), s.longitudeFin()));
+            for (int r = minRow; r <= maxRow; r++) {
+                for (int c = minCol; c <= maxCol; c++) {
+                    action.accept(cellKey(r, c));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.carte.index;
+
+import java.math.BigDecimal;
+
+public record SignalementAggregate(
+        String statut,
+        Long idEntreprise,
+        Long idVille,
+        Long count,
+        BigDecimal surfaceM2,
+        BigDecimal budget) {
+}
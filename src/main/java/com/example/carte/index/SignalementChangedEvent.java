@@ -0,0 +1,14 @@
+package com.example.carte.index;
+
+/**
+ * Publié par SignalementService à chaque écriture.
+ * previous est null pour une création, current est null pour une suppression.
+ * titre et description portent le nouveau texte ; null quand il n'a pas changé.
+ */
+public record SignalementChangedEvent(SignalementPoint previous, SignalementPoint current,
+                                      String titre, String description) {
+
+    public SignalementChangedEvent(SignalementPoint previous, SignalementPoint current) {
+        this(previous, current, null, null);
+    }
+}
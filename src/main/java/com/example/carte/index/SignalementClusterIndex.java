@@ -0,0 +1,182 @@
+package com.example.carte.index;
+
+import com.example.carte.dto.SignalementClusterResponse;
+import com.example.carte.repository.SignalementRepository;
+import com.example.carte.tile.TileMath;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Pyramide d'agrégats pré-calculés pour le clustering des signalements.
+ * Chaque niveau de zoom découpe la projection Web Mercator en une grille de
+ * cellules d'environ cluster-radius pixels ; chaque cellule cumule le nombre de
+ * points, leur centroïde, la répartition par statut et les sommes surface/budget.
+ * Une écriture met à jour une cellule par niveau, une requête ne lit que les
+ * cellules visibles au zoom demandé.
+ *
+ * Les agrégats sont additifs : un changement vu à la fois par le chargement et
+ * par son événement serait compté deux fois. Le chargement a donc lieu une fois
+ * tous les beans créés, avant le démarrage du serveur web et des écritures.
+ */
+@Component
+public class SignalementClusterIndex implements SmartInitializingSingleton {
+
+    private static final int TILE_SIZE = 256;
+
+    @Autowired
+    private SignalementRepository signalementRepository;
+
+    @Value("${signalement.cluster.max-zoom:18}")
+    private int maxZoom;
+
+    @Value("${signalement.cluster.radius-px:64}")
+    private int radiusPx;
+
+    private List<Map<Long, ClusterCell>> levels;
+
+    @PostConstruct
+    void init() {
+        levels = new ArrayList<>(maxZoom + 1);
+        for (int z = 0; z <= maxZoom; z++) {
+            levels.add(new ConcurrentHashMap<>());
+        }
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        load();
+    }
+
+    public void load() {
+        signalementRepository.findAllPoints().forEach(p -> apply(p, 1));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSignalementChanged(SignalementChangedEvent event) {
+        if (event.previous() != null) {
+            apply(event.previous(), -1);
+        }
+        if (event.current() != null) {
+            apply(event.current(), 1);
+        }
+    }
+
+    public List<SignalementClusterResponse> query(int zoom, double minLat, double minLon,
+                                                  double maxLat, double maxLon) {
+        int z = Math.max(0, Math.min(zoom, maxZoom));
+        long n = gridSize(z);
+        long minX = cellX(minLon, n);
+        long maxX = cellX(maxLon, n);
+        // L'axe Y de Mercator est inversé par rapport à la latitude
+        long minY = cellY(maxLat, n);
+        long maxY = cellY(minLat, n);
+
+        Map<Long, ClusterCell> level = levels.get(z);
+        List<SignalementClusterResponse> result = new ArrayList<>();
+        long cellCount = (maxX - minX + 1) * (maxY - minY + 1);
+
+        if (cellCount > level.size()) {
+            for (Map.Entry<Long, ClusterCell> entry : level.entrySet()) {
+                long x = entry.getKey() / n;
+                long y = entry.getKey() % n;
+                if (x >= minX && x <= maxX && y >= minY && y <= maxY) {
+                    addIfNotEmpty(entry.getValue(), result);
+                }
+            }
+        } else {
+            for (long x = minX; x <= maxX; x++) {
+                for (long y = minY; y <= maxY; y++) {
+                    ClusterCell cell = level.get(x * n + y);
+                    if (cell != null) {
+                        addIfNotEmpty(cell, result);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    private void addIfNotEmpty(ClusterCell cell, List<SignalementClusterResponse> result) {
+        SignalementClusterResponse r = cell.toResponse();
+        if (r != null) {
+            result.add(r);
+        }
+    }
+
+    private void apply(SignalementPoint p, int sign) {
+        for (int z = 0; z <= maxZoom; z++) {
+            long n = gridSize(z);
+            long key = cellX(p.longitude(), n) * n + cellY(p.latitude(), n);
+            levels.get(z).compute(key, (k, cell) -> {
+                if (cell == null) {
+                    cell = new ClusterCell();
+                }
+                return cell.add(p, sign) > 0 ? cell : null;
+            });
+        }
+    }
+
+    private long gridSize(int z) {
+        return (1L << z) * Math.max(1, TILE_SIZE / radiusPx);
+    }
+
+    private static long cellX(double lon, long n) {
+        return clamp((long) Math.floor(TileMath.tileX(lon, 0) * n), n);
+    }
+
+    private static long cellY(double lat, long n) {
+        return clamp((long) Math.floor(TileMath.tileY(lat, 0) * n), n);
+    }
+
+    private static long clamp(long v, long n) {
+        return Math.max(0, Math.min(n - 1, v));
+    }
+
+    private static class ClusterCell {
+        private long count;
+        private double sumLat;
+        private double sumLon;
+        private BigDecimal surfaceM2 = BigDecimal.ZERO;
+        private BigDecimal budget = BigDecimal.ZERO;
+        private final Map<String, Long> statuts = new HashMap<>();
+
+        synchronized long add(SignalementPoint p, int sign) {
+            count += sign;
+            sumLat += sign * p.latitude();
+            sumLon += sign * p.longitude();
+            if (p.surfaceM2() != null) {
+                surfaceM2 = sign > 0 ? surfaceM2.add(p.surfaceM2()) : surfaceM2.subtract(p.surfaceM2());
+            }
+            if (p.budget() != null) {
+                budget = sign > 0 ? budget.add(p.budget()) : budget.subtract(p.budget());
+            }
+            statuts.merge(p.statut(), (long) sign, (a, b) -> a + b == 0 ? null : a + b);
+            return count;
+        }
+
+        synchronized SignalementClusterResponse toResponse() {
+            if (count <= 0) {
+                return null;
+            }
+            SignalementClusterResponse r = new SignalementClusterResponse();
+            r.setLatitude(sumLat / count);
+            r.setLongitude(sumLon / count);
+            r.setCount(count);
+            r.setStatuts(new HashMap<>(statuts));
+            r.setSurfaceM2(surfaceM2);
+            r.setBudget(budget);
+            return r;
+        }
+    }
+}
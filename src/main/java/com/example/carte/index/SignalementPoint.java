@@ -0,0 +1,35 @@
+package com.example.carte.index;
+
+import com.example.carte.entity.Signalement;
+
+import java.math.BigDecimal;
+
+public record SignalementPoint(
+        Long idSignalement,
+        double latitude,
+        double longitude,
+        String statut,
+        BigDecimal surfaceM2,
+        BigDecimal budget,
+        Long idEntreprise,
+        Long idVille) {
+
+    // Constructeur utilisé par les projections JPQL (colonnes DECIMAL)
+    public SignalementPoint(Long idSignalement, BigDecimal latitude, BigDecimal longitude, String statut,
+                            BigDecimal surfaceM2, BigDecimal budget, Long idEntreprise, Long idVille) {
+        this(idSignalement, latitude.doubleValue(), longitude.doubleValue(), statut,
+                surfaceM2, budget, idEntreprise, idVille);
+    }
+
+    public static SignalementPoint fromSignalement(Signalement s) {
+        return new SignalementPoint(
+                s.getIdSignalement(),
+                s.getLatitude(),
+                s.getLongitude(),
+                s.getStatut(),
+                s.getSurfaceM2(),
+                s.getBudget(),
+                s.getEntreprise() != null ? s.getEntreprise().getIdEntreprise() : null,
+                s.getVille() != null ? s.getVille().getIdVille() : null);
+    }
+}
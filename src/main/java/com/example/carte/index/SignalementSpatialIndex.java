@@ -0,0 +1,137 @@
+package com.example.carte.index;
+
+import com.example.carte.repository.SignalementRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Index spatial en mémoire des signalements : une grille régulière en degrés,
+ * chaque cellule contenant les points qui y tombent. Une requête bbox ne parcourt
+ * que les cellules qui la recouvrent.
+ */
+@Component
+public class SignalementSpatialIndex {
+
+    @Autowired
+    private SignalementRepository signalementRepository;
+
+    @Value("${signalement.index.cell-size:0.01}")
+    private double cellSize;
+
+    private final Map<Long, SignalementPoint> points = new ConcurrentHashMap<>();
+    private final Map<Long, Map<Long, SignalementPoint>> cells = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        signalementRepository.findAllPoints().forEach(this::put);
+    }
+
+    // Mis à jour avant les caches qui en dérivent (tuiles), qui sont invalidés ensuite
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSignalementChanged(SignalementChangedEvent event) {
+        if (event.previous() != null) {
+            remove(event.previous().idSignalement());
+        }
+        if (event.current() != null) {
+            put(event.current());
+        }
+    }
+
+    public void put(SignalementPoint p) {
+        SignalementPoint old = points.put(p.idSignalement(), p);
+        if (old != null) {
+            removeFromCell(old);
+        }
+        cells.compute(cellKey(cellOf(p.latitude()), cellOf(p.longitude())), (k, cell) -> {
+            if (cell == null) {
+                cell = new ConcurrentHashMap<>();
+            }
+            cell.put(p.idSignalement(), p);
+            return cell;
+        });
+    }
+
+    public void remove(Long idSignalement) {
+        SignalementPoint old = points.remove(idSignalement);
+        if (old != null) {
+            removeFromCell(old);
+        }
+    }
+
+    public SignalementPoint get(Long idSignalement) {
+        return points.get(idSignalement);
+    }
+
+    public int size() {
+        return points.size();
+    }
+
+    public List<SignalementPoint> query(double minLat, double minLon, double maxLat, double maxLon, String statut) {
+        int minRow = cellOf(minLat);
+        int maxRow = cellOf(maxLat);
+        int minCol = cellOf(minLon);
+        int maxCol = cellOf(maxLon);
+
+        List<SignalementPoint> result = new ArrayList<>();
+        long cellCount = (long) (maxRow - minRow + 1) * (maxCol - minCol + 1);
+
+        if (cellCount > cells.size()) {
+            // Zoom très large : moins coûteux de parcourir les cellules non vides
+            for (Map.Entry<Long, Map<Long, SignalementPoint>> entry : cells.entrySet()) {
+                int row = (int) (entry.getKey() >> 32);
+                int col = (int) (long) entry.getKey();
+                if (row >= minRow && row <= maxRow && col >= minCol && col <= maxCol) {
+                    collect(entry.getValue(), minLat, minLon, maxLat, maxLon, statut, result);
+                }
+            }
+        } else {
+            for (int row = minRow; row <= maxRow; row++) {
+                for (int col = minCol; col <= maxCol; col++) {
+                    Map<Long, SignalementPoint> cell = cells.get(cellKey(row, col));
+                    if (cell != null) {
+                        collect(cell, minLat, minLon, maxLat, maxLon, statut, result);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    private void collect(Map<Long, SignalementPoint> cell, double minLat, double minLon,
+                         double maxLat, double maxLon, String statut, List<SignalementPoint> result) {
+        for (SignalementPoint p : cell.values()) {
+            if (p.latitude() >= minLat && p.latitude() <= maxLat
+                    && p.longitude() >= minLon && p.longitude() <= maxLon
+                    && (statut == null || statut.equals(p.statut()))) {
+                result.add(p);
+            }
+        }
+    }
+
+    private void removeFromCell(SignalementPoint p) {
+        cells.computeIfPresent(cellKey(cellOf(p.latitude()), cellOf(p.longitude())), (k, cell) -> {
+            cell.remove(p.idSignalement());
+            return cell.isEmpty() ? null : cell;
+        });
+    }
+
+    private int cellOf(double coordinate) {
+        return (int) Math.floor(coordinate / cellSize);
+    }
+
+    private static long cellKey(int row, int col) {
+        return ((long) row << 32) | (col & 0xffffffffL);
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.carte.index;
+
+import com.example.carte.dto.SignalementStatsResponse;
+import com.example.carte.repository.SignalementRepository;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Compteurs du tableau de bord, tenus en mémoire par statut, entreprise et ville,
+ * ainsi que par entreprise et statut pour la charge de travail des entreprises.
+ * Reconstruits au démarrage par une seule requête GROUP BY, puis mis à jour à
+ * chaque SignalementChangedEvent. Les montants sont cumulés en centimes dans des
+ * LongAdder pour supporter les écritures concurrentes sans verrou.
+ * Comme pour SignalementClusterIndex, le chargement a lieu avant le démarrage
+ * du serveur web : aucune écriture ne peut être comptée à la fois par la
+ * requête et par son événement.
+ */
+@Component
+public class SignalementStatistics implements SmartInitializingSingleton {
+
+    static final String NONE = "none";
+
+    @Autowired
+    private SignalementRepository signalementRepository;
+
+    private final Counter total = new Counter();
+    private final Map<String, Counter> parStatut = new ConcurrentHashMap<>();
+    private final Map<String, Counter> parEntreprise = new ConcurrentHashMap<>();
+    private final Map<String, Counter> parVille = new ConcurrentHashMap<>();
+    private final Map<Long, Map<String, Counter>> parEntrepriseStatut = new ConcurrentHashMap<>();
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        load();
+    }
+
+    public void load() {
+        for (SignalementAggregate row : signalementRepository.aggregateByStatutEntrepriseVille()) {
+            long count = row.count();
+            long surface = toCents(row.surfaceM2());
+            long budget = toCents(row.budget());
+            total.add(count, surface, budget);
+            counter(parStatut, row.statut()).add(count, surface, budget);
+            counter(parEntreprise, key(row.idEntreprise())).add(count, surface, budget);
+            counter(parVille, key(row.idVille())).add(count, surface, budget);
+            if (row.idEntreprise() != null) {
+                counter(entrepriseStatuts(row.idEntreprise()), row.statut()).add(count, surface, budget);
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSignalementChanged(SignalementChangedEvent event) {
+        if (event.previous() != null) {
+            apply(event.previous(), -1);
+        }
+        if (event.current() != null) {
+            apply(event.current(), 1);
+        }
+    }
+
+    public SignalementStatsResponse snapshot() {
+        SignalementStatsResponse r = new SignalementStatsResponse();
+        r.setTotal(total.toBucket());
+        r.setParStatut(toBuckets(parStatut));
+        r.setParEntreprise(toBuckets(parEntreprise));
+        r.setParVille(toBuckets(parVille));
+        return r;
+    }
+
+    /** Compteurs par statut des signalements attribués à une entreprise (vide si aucun). */
+    public Map<String, SignalementStatsResponse.Bucket> entrepriseParStatut(Long idEntreprise) {
+        Map<String, Counter> counters = parEntrepriseStatut.get(idEntreprise);
+        return counters == null ? Map.of() : toBuckets(counters);
+    }
+
+    private Map<String, Counter> entrepriseStatuts(Long idEntreprise) {
+        return parEntrepriseStatut.computeIfAbsent(idEntreprise, k -> new ConcurrentHashMap<>());
+    }
+
+    private void apply(SignalementPoint p, int sign) {
+        long surface = sign * toCents(p.surfaceM2());
+        long budget = sign * toCents(p.budget());
+        total.add(sign, surface, budget);
+        counter(parStatut, p.statut()).add(sign, surface, budget);
+        counter(parEntreprise, key(p.idEntreprise())).add(sign, surface, budget);
+        counter(parVille, key(p.idVille())).add(sign, surface, budget);
+        if (p.idEntreprise() != null) {
+            counter(entrepriseStatuts(p.idEntreprise()), p.statut()).add(sign, surface, budget);
+        }
+    }
+
+    private static Map<String, SignalementStatsResponse.Bucket> toBuckets(Map<String, Counter> counters) {
+        Map<String, SignalementStatsResponse.Bucket> result = new TreeMap<>();
+        counters.forEach((k, c) -> {
+            SignalementStatsResponse.Bucket b = c.toBucket();
+            if (b.getCount() > 0) {
+                result.put(k, b);
+            }
+        });
+        return result;
+    }
+
+    private static Counter counter(Map<String, Counter> counters, String key) {
+        return counters.computeIfAbsent(key, k -> new Counter());
+    }
+
+    private static String key(Long id) {
+        return id == null ? NONE : id.toString();
+    }
+
+    private static long toCents(BigDecimal amount) {
+        return amount == null ? 0 : amount.movePointRight(2).longValue();
+    }
+
+    private static class Counter {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder surfaceCents = new LongAdder();
+        private final LongAdder budgetCents = new LongAdder();
+
+        void add(long n, long surface, long budget) {
+            count.add(n);
+            surfaceCents.add(surface);
+            budgetCents.add(budget);
+        }
+
+        SignalementStatsResponse.Bucket toBucket() {
+            SignalementStatsResponse.Bucket b = new SignalementStatsResponse.Bucket();
+            b.setCount(count.sum());
+            b.setSurfaceM2(BigDecimal.valueOf(surfaceCents.sum(), 2));
+            b.setBudget(BigDecimal.valueOf(budgetCents.sum(), 2));
+            return b;
+        }
+    }
+}
@@ -0,0 +1,4 @@
+package com.example.carte.index;
+
+public record SignalementText(Long idSignalement, String titre, String description) {
+}
@@ -0,0 +1,188 @@
+package com.example.carte.index;
+
+import com.example.carte.repository.SignalementRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Index inversé en mémoire sur titre et description des signalements.
+ * Chaque terme pointe vers les signalements qui le contiennent, avec sa
+ * fréquence (les termes du titre comptent triple). Les requêtes exigent tous
+ * les termes et sont classées par BM25. Les filtres statut et bbox s'appuient
+ * sur SignalementSpatialIndex : on parcourt le plus petit des deux ensembles
+ * (liste du terme le plus rare, ou points de la bbox).
+ */
+@Component
+public class SignalementTextIndex {
+
+    private static final int TITLE_WEIGHT = 3;
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    @Autowired
+    private SignalementRepository signalementRepository;
+
+    @Autowired
+    private SignalementSpatialIndex signalementSpatialIndex;
+
+    private final Map<String, Map<Long, Integer>> postings = new ConcurrentHashMap<>();
+    private final Map<Long, Doc> docs = new ConcurrentHashMap<>();
+    private long totalLength;
+
+    private record Doc(String[] terms, int length) {
+    }
+
+    public record Hit(Long idSignalement, double score) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        signalementRepository.findAllTexts().forEach(t -> put(t.idSignalement(), t.titre(), t.description()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSignalementChanged(SignalementChangedEvent event) {
+        if (event.current() == null) {
+            if (event.previous() != null) {
+                remove(event.previous().idSignalement());
+            }
+        } else if (event.titre() != null) {
+            put(event.current().idSignalement(), event.titre(), event.description());
+        }
+    }
+
+    public synchronized void put(Long id, String titre, String description) {
+        remove(id);
+
+        Map<String, Integer> frequencies = new HashMap<>();
+        int length = 0;
+        for (String term : FrenchAnalyzer.tokenize(titre)) {
+            frequencies.merge(term, TITLE_WEIGHT, Integer::sum);
+            length += TITLE_WEIGHT;
+        }
+        for (String term : FrenchAnalyzer.tokenize(description)) {
+            frequencies.merge(term, 1, Integer::sum);
+            length++;
+        }
+
+        for (Map.Entry<String, Integer> e : frequencies.entrySet()) {
+            postings.computeIfAbsent(e.getKey(), k -> new ConcurrentHashMap<>()).put(id, e.getValue());
+        }
+        docs.put(id, new Doc(frequencies.keySet().toArray(new String[0]), length));
+        totalLength += length;
+    }
+
+    public synchronized void remove(Long id) {
+        Doc old = docs.remove(id);
+        if (old == null) {
+            return;
+        }
+        for (String term : old.terms()) {
+            postings.computeIfPresent(term, (k, ids) -> {
+                ids.remove(id);
+                return ids.isEmpty() ? null : ids;
+            });
+        }
+        totalLength -= old.length();
+    }
+
+    public int size() {
+        return docs.size();
+    }
+
+    /**
+     * Les limit meilleurs résultats contenant tous les termes de la requête.
+     * bbox (minLat, minLon, maxLat, maxLon) et statut sont optionnels.
+     */
+    public List<Hit> search(String query, double[] bbox, String statut, int limit) {
+        List<Map<Long, Integer>> lists = new ArrayList<>();
+        for (String term : new LinkedHashSet<>(FrenchAnalyzer.tokenize(query))) {
+            Map<Long, Integer> ids = postings.get(term);
+            if (ids == null) {
+                return List.of();
+            }
+            lists.add(ids);
+        }
+        if (lists.isEmpty()) {
+            return List.of();
+        }
+        lists.sort(Comparator.comparingInt(Map::size));
+
+        int n = Math.max(1, docs.size());
+        double avgLength = Math.max(1.0, (double) totalLength / n);
+        double[] idf = new double[lists.size()];
+        for (int t = 0; t < lists.size(); t++) {
+            int df = lists.get(t).size();
+            idf[t] = Math.log(1 + (n - df + 0.5) / (df + 0.5));
+        }
+
+        // À score égal, le signalement le plus récent passe devant
+        Comparator<Hit> ranking = Comparator.comparingDouble(Hit::score)
+                .thenComparing(Hit::idSignalement);
+        PriorityQueue<Hit> top = new PriorityQueue<>(ranking);
+        Iterable<Long> candidates = lists.get(0).keySet();
+        boolean filtered = false;
+        if (bbox != null) {
+            List<SignalementPoint> inBox = signalementSpatialIndex.query(bbox[0], bbox[1], bbox[2], bbox[3], statut);
+            if (inBox.size() < lists.get(0).size()) {
+                candidates = inBox.stream().map(SignalementPoint::idSignalement).toList();
+                filtered = true;
+            }
+        }
+
+        for (Long id : candidates) {
+            if (!filtered && !matchesFilters(id, bbox, statut)) {
+                continue;
+            }
+            Doc doc = docs.get(id);
+            if (doc == null) {
+                continue;
+            }
+            double score = 0;
+            boolean all = true;
+            for (int t = 0; t < lists.size() && all; t++) {
+                Integer tf = lists.get(t).get(id);
+                if (tf == null) {
+                    all = false;
+                } else {
+                    score += idf[t] * tf * (K1 + 1) / (tf + K1 * (1 - B + B * doc.length() / avgLength));
+                }
+            }
+            if (!all) {
+                continue;
+            }
+            top.add(new Hit(id, score));
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+
+        List<Hit> result = new ArrayList<>(top);
+        result.sort(ranking.reversed());
+        return result;
+    }
+
+    private boolean matchesFilters(Long id, double[] bbox, String statut) {
+        if (bbox == null && statut == null) {
+            return true;
+        }
+        SignalementPoint p = signalementSpatialIndex.get(id);
+        if (p == null || (statut != null && !statut.equals(p.statut()))) {
+            return false;
+        }
+        return bbox == null || (p.latitude() >= bbox[0] && p.latitude() <= bbox[2]
+                && p.longitude() >= bbox[1] && p.longitude() <= bbox[3]);
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.carte.index;
+
+import com.example.carte.entity.Ville;
+
+/**
+ * Publié par VilleService à chaque écriture ; VilleLocator l'applique après
+ * le commit. current est null pour une suppression.
+ */
+public record VilleChangedEvent(Long idVille, Ville current) {
+}
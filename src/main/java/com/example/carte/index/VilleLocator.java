@@ -0,0 +1,170 @@
+package com.example.carte.index;
+
+import com.example.carte.dto.VilleResponse;
+import com.example.carte.entity.Ville;
+import com.example.carte.repository.VilleRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Rattache un point à une ville. Une ville avec frontière contient le point si
+ * son polygone le contient ; sinon on retombe sur le cercle centre + rayonKm.
+ * Une frontière l'emporte toujours sur un cercle ; entre polygones imbriqués, le
+ * plus petit gagne ; entre cercles, le centre le plus proche.
+ *
+ * Les villes sont gardées en mémoire, avec une grille sur leurs rectangles
+ * englobants pour ne tester que les quelques candidates de la cellule du point.
+ * Tenu à jour après commit par les VilleChangedEvent de VilleService.
+ */
+@Component
+public class VilleLocator {
+
+    private static final double EARTH_RADIUS_KM = 6371.0;
+    private static final double KM_PER_DEGREE = 111.32;
+
+    @Autowired
+    private VilleRepository villeRepository;
+
+    @Value("${ville.index.cell-size:0.1}")
+    private double cellSize;
+
+    private final Map<Long, Entry> villes = new ConcurrentHashMap<>();
+    private final Map<Long, Set<Long>> cells = new ConcurrentHashMap<>();
+
+    private record Entry(VilleResponse ville, double latitude, double longitude, double rayonKm,
+                         PreparedPolygon frontiere,
+                         double minLat, double minLon, double maxLat, double maxLon) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        villeRepository.findAll().forEach(this::put);
+    }
+
+    public void put(Ville ville) {
+        Entry entry = toEntry(ville);
+        Entry old = entry == null ? villes.remove(ville.getIdVille()) : villes.put(ville.getIdVille(), entry);
+        if (old != null) {
+            unregister(ville.getIdVille(), old);
+        }
+        if (entry != null) {
+            register(ville.getIdVille(), entry);
+        }
+    }
+
+    public void remove(Long idVille) {
+        Entry old = villes.remove(idVille);
+        if (old != null) {
+            unregister(idVille, old);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onVilleChanged(VilleChangedEvent event) {
+        if (event.current() == null) {
+            remove(event.idVille());
+        } else {
+            put(event.current());
+        }
+    }
+
+    public Long locate(double latitude, double longitude) {
+        VilleResponse ville = locateVille(latitude, longitude);
+        return ville == null ? null : ville.getIdVille();
+    }
+
+    public VilleResponse locateVille(double latitude, double longitude) {
+        Set<Long> candidates = cells.get(cellKey(cellOf(latitude), cellOf(longitude)));
+        if (candidates == null) {
+            return null;
+        }
+
+        Entry bestPolygon = null;
+        Entry bestCircle = null;
+        double bestDistance = Double.MAX_VALUE;
+        for (Long id : candidates) {
+            Entry e = villes.get(id);
+            if (e == null || latitude < e.minLat() || latitude > e.maxLat()
+                    || longitude < e.minLon() || longitude > e.maxLon()) {
+                continue;
+            }
+            if (e.frontiere() != null) {
+                if (e.frontiere().contains(latitude, longitude)
+                        && (bestPolygon == null || e.frontiere().bboxArea() < bestPolygon.frontiere().bboxArea())) {
+                    bestPolygon = e;
+                }
+            } else if (bestPolygon == null) {
+                double d = distanceKm(latitude, longitude, e.latitude(), e.longitude());
+                if (d <= e.rayonKm() && d < bestDistance) {
+                    bestCircle = e;
+                    bestDistance = d;
+                }
+            }
+        }
+        Entry best = bestPolygon != null ? bestPolygon : bestCircle;
+        return best == null ? null : best.ville();
+    }
+
+    // null si la ville n'a ni frontière ni rayon : elle ne peut contenir aucun point
+    private static Entry toEntry(Ville v) {
+        double lat = v.getLatitude().doubleValue();
+        double lon = v.getLongitude().doubleValue();
+        if (v.getFrontiere() != null) {
+            PreparedPolygon p = new PreparedPolygon(PolygonCodec.decode(v.getFrontiere()));
+            return new Entry(VilleResponse.fromVille(v), lat, lon, 0, p,
+                    p.minLat(), p.minLon(), p.maxLat(), p.maxLon());
+        }
+        if (v.getRayonKm() == null) {
+            return null;
+        }
+        double rayon = v.getRayonKm().doubleValue();
+        double dLat = rayon / KM_PER_DEGREE;
+        double dLon = rayon / (KM_PER_DEGREE * Math.max(Math.cos(Math.toRadians(lat)), 1e-6));
+        return new Entry(VilleResponse.fromVille(v), lat, lon, rayon, null,
+                lat - dLat, lon - dLon, lat + dLat, lon + dLon);
+    }
+
+    private void register(Long idVille, Entry e) {
+        for (int r = cellOf(e.minLat()); r <= cellOf(e.maxLat()); r++) {
+            for (int c = cellOf(e.minLon()); c <= cellOf(e.maxLon()); c++) {
+                cells.computeIfAbsent(cellKey(r, c), k -> ConcurrentHashMap.newKeySet()).add(idVille);
+            }
+        }
+    }
+
+    private void unregister(Long idVille, Entry e) {
+        for (int r = cellOf(e.minLat()); r <= cellOf(e.maxLat()); r++) {
+            for (int c = cellOf(e.minLon()); c <= cellOf(e.maxLon()); c++) {
+                cells.computeIfPresent(cellKey(r, c), (k, set) -> {
+                    set.remove(idVille);
+                    return set.isEmpty() ? null : set;
+                });
+            }
+        }
+    }
+
+    private int cellOf(double coordinate) {
+        return (int) Math.floor(coordinate / cellSize);
+    }
+
+    private static long cellKey(int row, int col) {
+        return ((long) row << 32) | (col & 0xffffffffL);
+    }
+
+    static double distanceKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.sqrt(a));
+    }
+}
@@ -2,10 +2,18 @@ package com.example.carte.repository;
 
 import com.example.carte.entity.Entreprise;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface EntrepriseRepository extends JpaRepository<Entreprise, Long> {
 
     boolean existsByNom(String nom);
+
+    @Query("select e.idEntreprise from Entreprise e where e.idEntreprise in :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
 }
@@ -3,6 +3,9 @@ package com.example.carte.repository;
 import com.example.carte.entity.HistoriqueStatut;
 import com.example.carte.entity.Signalement;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -11,4 +14,9 @@ import java.util.List;
 public interface HistoriqueStatutRepository extends JpaRepository<HistoriqueStatut, Long> {
 
     List<HistoriqueStatut> findBySignalementOrderByDateChangementDesc(Signalement signalement);
+
+    // Historique d'un signalement supprimé (fk_hist_signalement sans cascade)
+    @Modifying
+    @Query("delete from HistoriqueStatut h where h.signalement.idSignalement = :idSignalement")
+    int deleteBySignalementId(@Param("idSignalement") Long idSignalement);
 }
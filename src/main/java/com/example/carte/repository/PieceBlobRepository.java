@@ -0,0 +1,37 @@
+package com.example.carte.repository;
+
+import com.example.carte.entity.PieceBlob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Les compteurs ne changent que par UPDATE atomique : la ligne reste verrouillée
+ * jusqu'au commit, ce qui ordonne entre eux les dépôts et suppressions d'un même
+ * contenu, quelle que soit l'instance.
+ */
+@Repository
+public interface PieceBlobRepository extends JpaRepository<PieceBlob, String> {
+
+    // 0 si le contenu n'est pas encore stocké
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE PieceBlob b SET b.refCount = b.refCount + 1 WHERE b.sha256 = :sha256")
+    int incrementRefCount(@Param("sha256") String sha256);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE PieceBlob b SET b.refCount = b.refCount - 1 WHERE b.sha256 = :sha256")
+    int decrementRefCount(@Param("sha256") String sha256);
+
+    // 1 si la dernière référence vient de disparaître
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM PieceBlob b WHERE b.sha256 = :sha256 AND b.refCount <= 0")
+    int deleteUnreferenced(@Param("sha256") String sha256);
+
+    // Insertion simple, sans fusion : échoue si la ligne existe déjà
+    @Modifying
+    @Query(value = "INSERT INTO piece_blob (sha256, taille, ref_count, date_creation) "
+            + "VALUES (:sha256, 0, 0, CURRENT_TIMESTAMP)", nativeQuery = true)
+    int insertEmpty(@Param("sha256") String sha256);
+}
@@ -3,6 +3,9 @@ package com.example.carte.repository;
 import com.example.carte.entity.PieceJointe;
 import com.example.carte.entity.Signalement;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -11,4 +14,9 @@ import java.util.List;
 public interface PieceJointeRepository extends JpaRepository<PieceJointe, Long> {
 
     List<PieceJointe> findBySignalement(Signalement signalement);
+
+    // Nombre de lignes supprimées : 0 si une autre requête l'a déjà fait
+    @Modifying
+    @Query("delete from PieceJointe p where p.idPiece = :idPiece")
+    int deleteByIdPiece(@Param("idPiece") Long idPiece);
 }
@@ -0,0 +1,26 @@
+package com.example.carte.repository;
+
+import com.example.carte.entity.ResolutionRollup;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface ResolutionRollupRepository extends JpaRepository<ResolutionRollup, Long> {
+
+    // Lignes dont la clé en a d'autres : deltas à regrouper
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM ResolutionRollup r WHERE EXISTS (SELECT o.idRollup FROM ResolutionRollup o "
+            + "WHERE o.mesure = r.mesure AND o.statut = r.statut AND o.dimension = r.dimension "
+            + "AND o.idDimension = r.idDimension AND o.mois = r.mois AND o.idRollup <> r.idRollup) "
+            + "ORDER BY r.idRollup")
+    List<ResolutionRollup> findFragmentedForUpdate();
+
+    List<ResolutionRollup> findByMesureAndDimensionAndMoisBetween(
+            String mesure, String dimension, LocalDate from, LocalDate to);
+}
@@ -2,7 +2,9 @@ package com.example.carte.repository;
 
 import com.example.carte.entity.Rue;
 import com.example.carte.entity.Ville;
+import com.example.carte.index.RueSegment;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -12,5 +14,11 @@ public interface RueRepository extends JpaRepository<Rue, Long> {
 
     List<Rue> findByVille(Ville ville);
 
-    List<Rue> findByNomContainingIgnoreCase(String nom);
+    @Query("select r from Rue r join fetch r.ville")
+    List<Rue> findAllWithVille();
+
+    @Query("select new com.example.carte.index.RueSegment(r.idRue, v.idVille, r.nom, r.typeRue, "
+            + "r.latitudeDebut, r.longitudeDebut, r.latitudeFin, r.longitudeFin) "
+            + "from Rue r join r.ville v")
+    List<RueSegment> findAllSegments();
 }
@@ -1,19 +1,62 @@
 package com.example.carte.repository;
 
+import com.example.carte.dto.SignalementResponse;
 import com.example.carte.entity.Entreprise;
 import com.example.carte.entity.Signalement;
 import com.example.carte.entity.User;
+import com.example.carte.index.SignalementAggregate;
+import com.example.carte.index.SignalementPoint;
+import com.example.carte.index.SignalementText;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface SignalementRepository extends JpaRepository<Signalement, Long> {
+public interface SignalementRepository extends JpaRepository<Signalement, Long>, SignalementRepositoryCustom {
+
+    // Lecture en une seule requête des seules colonnes exposées par SignalementResponse
+    String RESPONSE_PROJECTION = "select new com.example.carte.dto.SignalementResponse("
+            + "s.idSignalement, s.titre, s.description, s.latitude, s.longitude, s.statut, s.surfaceM2, s.budget, "
+            + "u.id, u.username, e.idEntreprise, e.nom, r.idRue, r.nom, s.syncState, s.dateSignalement, s.derniereMaj) "
+            + "from Signalement s join s.utilisateur u left join s.entreprise e left join s.rue r ";
 
     List<Signalement> findByUtilisateur(User utilisateur);
 
     List<Signalement> findByStatut(String statut);
 
     List<Signalement> findByEntreprise(Entreprise entreprise);
+
+    @Query(RESPONSE_PROJECTION + "where s.idSignalement = :id")
+    Optional<SignalementResponse> findResponseById(@Param("id") Long id);
+
+    @Query(RESPONSE_PROJECTION + "where s.idSignalement in :ids order by s.idSignalement")
+    List<SignalementResponse> findResponsesByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("select new com.example.carte.index.SignalementPoint(s.idSignalement, s.latitude, s.longitude, "
+            + "s.statut, s.surfaceM2, s.budget, e.idEntreprise, v.idVille) "
+            + "from Signalement s left join s.entreprise e left join s.ville v")
+    List<SignalementPoint> findAllPoints();
+
+    @Query("select new com.example.carte.index.SignalementText(s.idSignalement, s.titre, s.description) "
+            + "from Signalement s")
+    List<SignalementText> findAllTexts();
+
+    @Query("select new com.example.carte.index.SignalementAggregate(s.statut, e.idEntreprise, v.idVille, "
+            + "count(s), sum(s.surfaceM2), sum(s.budget)) "
+            + "from Signalement s left join s.entreprise e left join s.ville v "
+            + "group by s.statut, e.idEntreprise, v.idVille")
+    List<SignalementAggregate> aggregateByStatutEntrepriseVille();
+
+    // Détache les signalements d'une rue avant sa suppression (remis en attente dans le flux de changements)
+    @Modifying
+    @Query("update Signalement s set s.rue = null, s.derniereMaj = :now, s.numeroChangement = null "
+            + "where s.rue.idRue = :idRue")
+    int detachRue(@Param("idRue") Long idRue, @Param("now") LocalDateTime now);
 }
@@ -0,0 +1,16 @@
+package com.example.carte.repository;
+
+import com.example.carte.dto.SignalementResponse;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface SignalementRepositoryCustom {
+
+    /**
+     * Page de signalements par clé (id croissant après after), filtres optionnels
+     * ignorés quand ils sont null.
+     */
+    List<SignalementResponse> findPage(Long after, String statut, Long idEntreprise, Long idUtilisateur,
+                                       LocalDateTime since, int limit);
+}
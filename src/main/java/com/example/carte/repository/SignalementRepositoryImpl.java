@@ -0,0 +1,73 @@
+package com.example.carte.repository;
+
+import com.example.carte.dto.SignalementResponse;
+import com.example.carte.entity.Entreprise;
+import com.example.carte.entity.Rue;
+import com.example.carte.entity.Signalement;
+import com.example.carte.entity.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Requêtes à filtres optionnels : seuls les filtres renseignés entrent dans le
+ * WHERE, pour que le plan SQL suive les index des colonnes réellement filtrées
+ * au lieu d'une forme générique (:p is null or ...) commune à toutes les combinaisons.
+ */
+public class SignalementRepositoryImpl implements SignalementRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<SignalementResponse> findPage(Long after, String statut, Long idEntreprise, Long idUtilisateur,
+                                              LocalDateTime since, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<SignalementResponse> query = cb.createQuery(SignalementResponse.class);
+        Root<Signalement> s = query.from(Signalement.class);
+        Join<Signalement, User> u = s.join("utilisateur");
+        Join<Signalement, Entreprise> e = s.join("entreprise", JoinType.LEFT);
+        Join<Signalement, Rue> r = s.join("rue", JoinType.LEFT);
+
+        // Même colonnes et même ordre que SignalementRepository.RESPONSE_PROJECTION
+        query.select(cb.construct(SignalementResponse.class,
+                s.get("idSignalement"), s.get("titre"), s.get("description"), s.get("latitude"),
+                s.get("longitude"), s.get("statut"), s.get("surfaceM2"), s.get("budget"),
+                u.get("id"), u.get("username"), e.get("idEntreprise"), e.get("nom"), r.get("idRue"), r.get("nom"),
+                s.get("syncState"), s.get("dateSignalement"), s.get("derniereMaj")));
+
+        List<Predicate> predicates = new ArrayList<>();
+        if (after != null) {
+            predicates.add(cb.greaterThan(s.get("idSignalement"), after));
+        }
+        if (statut != null) {
+            predicates.add(cb.equal(s.get("statut"), statut));
+        }
+        // Filtres sur les clés étrangères de signalement, couvertes par (id_entreprise, id_signalement)
+        // et (id_utilisateur, id_signalement)
+        if (idEntreprise != null) {
+            predicates.add(cb.equal(s.get("entreprise").get("idEntreprise"), idEntreprise));
+        }
+        if (idUtilisateur != null) {
+            predicates.add(cb.equal(s.get("utilisateur").get("id"), idUtilisateur));
+        }
+        if (since != null) {
+            predicates.add(cb.greaterThanOrEqualTo(s.get("dateSignalement"), since));
+        }
+        query.where(predicates.toArray(new Predicate[0]));
+        query.orderBy(cb.asc(s.get("idSignalement")));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.carte.repository;
+
+import com.example.carte.entity.SignalementSuppression;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface SignalementSuppressionRepository extends JpaRepository<SignalementSuppression, Long> {
+}
@@ -1,9 +1,19 @@
 package com.example.carte.repository;
 
 import com.example.carte.entity.User;
+import com.example.carte.security.UserPrincipal;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -12,4 +22,34 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
     boolean existsByUsername(String username);
     boolean existsByEmail(String email);
+
+    @Query("select new com.example.carte.security.UserPrincipal(u.id, u.username, u.role, u.enabled, u.locked) "
+            + "from User u where u.username = :username")
+    Optional<UserPrincipal> findPrincipalByUsername(@Param("username") String username);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select u from User u where u.id = :id")
+    Optional<User> findForUpdate(@Param("id") Long id);
+
+    @Query("select u.id from User u where u.id in :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    // Transitions de blocage : une seule écriture, ignorée si l'état est déjà le bon
+    @Transactional
+    @Modifying
+    @Query("update User u set u.locked = true, u.lockTime = :now, u.failedLoginAttempts = :attempts, u.updatedAt = :now "
+            + "where u.username = :username and u.locked = false")
+    int lock(@Param("username") String username, @Param("attempts") int attempts, @Param("now") LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("update User u set u.locked = false, u.lockTime = null, u.failedLoginAttempts = 0, u.updatedAt = :now "
+            + "where u.username = :username and (u.locked = true or u.failedLoginAttempts > 0)")
+    int unlock(@Param("username") String username, @Param("now") LocalDateTime now);
+
+    // Remplace le hachage seulement s'il n'a pas changé entre-temps
+    @Transactional
+    @Modifying
+    @Query("update User u set u.password = :nouveau where u.id = :id and u.password = :ancien")
+    int rehash(@Param("id") Long id, @Param("ancien") String ancien, @Param("nouveau") String nouveau);
 }
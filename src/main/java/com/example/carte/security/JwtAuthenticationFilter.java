@@ -0,0 +1,59 @@
+package com.example.carte.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Authentifie la requête à partir de l'en-tête "Authorization: Bearer …", sans
+ * session. Seules la liste de révocation (filtre en mémoire) et l'état du compte
+ * (cache à durée de vie) sont consultés. Un jeton absent, invalide ou révoqué
+ * laisse la requête anonyme ; les règles d'accès décident.
+ */
+public class JwtAuthenticationFilter extends OncePerRequestFilter {
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final JwtTokenProvider jwtTokenProvider;
+    private final TokenDenylist tokenDenylist;
+    private final UserPrincipalCache userPrincipalCache;
+
+    public JwtAuthenticationFilter(JwtTokenProvider jwtTokenProvider, TokenDenylist tokenDenylist,
+                                   UserPrincipalCache userPrincipalCache) {
+        this.jwtTokenProvider = jwtTokenProvider;
+        this.tokenDenylist = tokenDenylist;
+        this.userPrincipalCache = userPrincipalCache;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header != null && header.regionMatches(true, 0, BEARER_PREFIX, 0, BEARER_PREFIX.length())) {
+            JwtTokenProvider.JwtPrincipal principal =
+                    jwtTokenProvider.authenticate(header.substring(BEARER_PREFIX.length()).trim());
+            // Compte supprimé ou désactivé depuis l'émission du jeton : requête anonyme. Le blocage
+            // après échecs de connexion ne coupe pas les sessions déjà ouvertes.
+            UserPrincipal user = principal == null || tokenDenylist.isRevoked(principal.tokenId())
+                    ? null : userPrincipalCache.get(principal.username());
+            if (user != null && user.enabled()) {
+                UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+                        user.username(), null,
+                        AuthorityUtils.createAuthorityList("ROLE_" + (user.role() == null ? "USER" : user.role())));
+                SecurityContext context = SecurityContextHolder.createEmptyContext();
+                context.setAuthentication(authentication);
+                SecurityContextHolder.setContext(context);
+            }
+        }
+        chain.doFilter(request, response);
+    }
+}
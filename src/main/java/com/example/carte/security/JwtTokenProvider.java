@@ -2,57 +2,142 @@ package com.example.carte.security;
 
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
 import java.util.Date;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Émission et vérification des jetons JWT. La clé HMAC et le parseur sont
+ * construits une seule fois (le parseur est sans état, partagé entre threads).
+ * Les jetons déjà vérifiés sont gardés dans un cache borné jusqu'à leur
+ * expiration : une requête authentifiée ne refait ni le décodage ni le calcul
+ * de signature.
+ */
 @Component
 public class JwtTokenProvider {
 
+    private static final String ROLE_CLAIM = "role";
+
     @Value("${jwt.secret}")
     private String jwtSecret;
 
     @Value("${jwt.expiration}")
     private long jwtExpirationMs;
 
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+    @Value("${jwt.cache.max-size:10000}")
+    private int cacheMaxSize;
+
+    private SecretKey signingKey;
+    private JwtParser parser;
+    private final Map<String, JwtPrincipal> verified = new ConcurrentHashMap<>();
+
+    public record JwtPrincipal(String tokenId, String username, String role, long expiresAt) {
+    }
+
+    public record IssuedToken(String token, String tokenId, long expiresAt) {
+    }
+
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        parser = Jwts.parser().verifyWith(signingKey).build();
     }
 
-    public String generateToken(String username) {
+    public String generateToken(String username, String role) {
+        return issueToken(username, role).token();
+    }
+
+    /**
+     * Jeton d'accès avec son identifiant (claim jti), qui permet de le révoquer.
+     */
+    public IssuedToken issueToken(String username, String role) {
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + jwtExpirationMs);
+        String tokenId = UUID.randomUUID().toString();
 
-        return Jwts.builder()
+        String token = Jwts.builder()
+                .id(tokenId)
                 .subject(username)
+                .claim(ROLE_CLAIM, role)
                 .issuedAt(now)
                 .expiration(expiryDate)
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
+        return new IssuedToken(token, tokenId, expiryDate.getTime());
     }
 
-    public String getUsernameFromToken(String token) {
-        Claims claims = Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+    /**
+     * Titulaire du jeton s'il est valide et non expiré, null sinon.
+     */
+    public JwtPrincipal authenticate(String token) {
+        if (token == null || token.isEmpty()) {
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        JwtPrincipal cached = verified.get(token);
+        if (cached != null) {
+            if (cached.expiresAt() > now) {
+                return cached;
+            }
+            verified.remove(token, cached);
+            return null;
+        }
 
-        return claims.getSubject();
+        Claims claims;
+        try {
+            claims = parser.parseSignedClaims(token).getPayload();
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
+        if (claims.getExpiration() == null) {
+            return null;
+        }
+        JwtPrincipal principal = new JwtPrincipal(claims.getId(), claims.getSubject(), claims.get(ROLE_CLAIM, String.class),
+                claims.getExpiration().getTime());
+        if (verified.size() >= cacheMaxSize) {
+            evict(now);
+        }
+        if (verified.size() < cacheMaxSize) {
+            verified.put(token, principal);
+        }
+        return principal;
+    }
+
+    public String getUsernameFromToken(String token) {
+        JwtPrincipal principal = authenticate(token);
+        if (principal == null) {
+            throw new JwtException("Invalid token");
+        }
+        return principal.username();
     }
 
     public boolean validateToken(String token) {
-        try {
-            Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .build()
-                    .parseSignedClaims(token);
-            return true;
-        } catch (JwtException | IllegalArgumentException e) {
-            return false;
+        return authenticate(token) != null;
+    }
+
+    int cacheSize() {
+        return verified.size();
+    }
+
+    // Cache plein : on retire les jetons expirés, puis au besoin un dixième des entrées
+    private void evict(long now) {
+        verified.values().removeIf(p -> p.expiresAt() <= now);
+        if (verified.size() < cacheMaxSize) {
+            return;
+        }
+        int toRemove = Math.max(1, cacheMaxSize / 10);
+        Iterator<String> it = verified.keySet().iterator();
+        while (toRemove-- > 0 && it.hasNext()) {
+            it.next();
+            it.remove();
         }
     }
 }
@@ -0,0 +1,100 @@
+package com.example.carte.security;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Suivi en mémoire des échecs de connexion, par utilisateur et par adresse
+ * cliente. Seul le passage à l'état bloqué (et le déblocage) est écrit en base :
+ * les tentatives refusées sont écartées avant toute requête SQL ou BCrypt.
+ */
+@Component
+public class LoginThrottle {
+
+    private static final int BUCKETS = 10;
+
+    @Value("${login.max-attempts:3}")
+    private int maxLoginAttempts;
+
+    @Value("${login.lock-duration:15}")
+    private int lockDurationMinutes;
+
+    @Value("${login.throttle.max-failures-per-ip:20}")
+    private int maxFailuresPerIp;
+
+    @Value("${login.throttle.max-keys:100000}")
+    private int maxKeys;
+
+    private SlidingWindowCounter userFailures;
+    private SlidingWindowCounter ipFailures;
+    private final Map<String, Long> lockedUntil = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void init() {
+        Duration window = Duration.ofMinutes(lockDurationMinutes);
+        userFailures = new SlidingWindowCounter(window, BUCKETS, maxKeys);
+        ipFailures = new SlidingWindowCounter(window, BUCKETS, maxKeys);
+    }
+
+    /**
+     * Motif du refus si la tentative doit être écartée d'emblée, null sinon.
+     */
+    public String check(String username, String clientIp, long now) {
+        if (clientIp != null && ipFailures.count(clientIp, now) >= maxFailuresPerIp) {
+            return "Too many failed attempts. Try again later.";
+        }
+        Long until = lockedUntil.get(username);
+        if (until != null) {
+            if (until > now) {
+                return "Account is locked. Try again later.";
+            }
+            lockedUntil.remove(username, until);
+        }
+        return null;
+    }
+
+    /**
+     * Enregistre un échec ; true si l'utilisateur atteint le seuil de blocage.
+     */
+    public boolean recordFailure(String username, String clientIp, long now) {
+        if (clientIp != null) {
+            ipFailures.increment(clientIp, now);
+        }
+        return userFailures.increment(username, now) >= maxLoginAttempts;
+    }
+
+    /**
+     * Échec sur un nom inconnu : compté pour l'adresse seulement, pour que des
+     * noms inventés ne remplissent pas le suivi par utilisateur.
+     */
+    public void recordUnknownUser(String clientIp, long now) {
+        if (clientIp != null) {
+            ipFailures.increment(clientIp, now);
+        }
+    }
+
+    public void recordSuccess(String username) {
+        userFailures.reset(username);
+    }
+
+    public void locked(String username, long until) {
+        if (until > System.currentTimeMillis()) {
+            lockedUntil.put(username, until);
+        }
+        userFailures.reset(username);
+    }
+
+    public void unlocked(String username) {
+        lockedUntil.remove(username);
+        userFailures.reset(username);
+    }
+
+    public long lockDurationMs() {
+        return Duration.ofMinutes(lockDurationMinutes).toMillis();
+    }
+}
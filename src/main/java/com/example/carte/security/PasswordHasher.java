@@ -0,0 +1,168 @@
+package com.example.carte.security;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Encodeur BCrypt exécuté sur un pool dédié, à nombre de threads et file
+ * bornés : un pic de connexions n'occupe au plus que threads + file requêtes
+ * HTTP, les suivantes sont refusées aussitôt ({@link BusyException}, 503).
+ * Le coût est calibré au démarrage pour qu'un hachage prenne environ
+ * password.hash.target-ms sur la machine ; un mot de passe stocké avec un
+ * coût inférieur est signalé par {@link #upgradeEncoding(String)}.
+ */
+@Component
+public class PasswordHasher implements PasswordEncoder {
+
+    private static final Pattern BCRYPT_COST = Pattern.compile("\\A\\$2[aby]?\\$(\\d\\d)\\$");
+    private static final String CALIBRATION_PASSWORD = "calibration-password";
+
+    @Value("${password.hash.cost:0}")
+    private int configuredCost;
+
+    @Value("${password.hash.target-ms:250}")
+    private long targetMs;
+
+    @Value("${password.hash.min-cost:10}")
+    private int minCost;
+
+    @Value("${password.hash.max-cost:16}")
+    private int maxCost;
+
+    @Value("${password.hash.threads:0}")
+    private int threads;
+
+    @Value("${password.hash.queue-capacity:64}")
+    private int queueCapacity;
+
+    @Value("${password.hash.timeout-ms:5000}")
+    private long timeoutMs;
+
+    private int cost;
+    private BCryptPasswordEncoder encoder;
+    private ThreadPoolExecutor executor;
+    private final AtomicLong rejected = new AtomicLong();
+
+    public static class BusyException extends RuntimeException {
+        public BusyException() {
+            super("Server busy. Try again later.");
+        }
+    }
+
+    @PostConstruct
+    void init() {
+        cost = configuredCost > 0 ? configuredCost : calibrate();
+        encoder = new BCryptPasswordEncoder(cost);
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger counter = new AtomicInteger();
+        executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "bcrypt-" + counter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // Chaque point de coût double le temps : on mesure le coût minimal puis on extrapole
+    private int calibrate() {
+        BCryptPasswordEncoder probe = new BCryptPasswordEncoder(minCost);
+        probe.encode(CALIBRATION_PASSWORD);
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < 3; i++) {
+            long start = System.nanoTime();
+            probe.encode(CALIBRATION_PASSWORD);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        long estimatedMs = Math.max(1, TimeUnit.NANOSECONDS.toMillis(best));
+        int calibrated = minCost;
+        while (calibrated < maxCost && estimatedMs * 2 <= targetMs) {
+            calibrated++;
+            estimatedMs *= 2;
+        }
+        return calibrated;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return call(() -> encoder.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        if (rawPassword == null || encodedPassword == null || encodedPassword.isEmpty()) {
+            return false;
+        }
+        return call(() -> encoder.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * true si le hachage stocké est un BCrypt d'un coût inférieur au coût courant :
+     * un hachage plus coûteux (autre machine, ancienne calibration) est conservé.
+     */
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        Matcher m = BCRYPT_COST.matcher(encodedPassword);
+        return m.find() && Integer.parseInt(m.group(1)) < cost;
+    }
+
+    public int getCost() {
+        return cost;
+    }
+
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    private <T> T call(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            rejected.incrementAndGet();
+            throw new BusyException();
+        }
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejected.incrementAndGet();
+            throw new BusyException();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new BusyException();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) {
+                throw re;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
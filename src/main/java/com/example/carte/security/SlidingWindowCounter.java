@@ -0,0 +1,134 @@
+package com.example.carte.security;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Compteur d'événements par clé sur une fenêtre glissante, sans verrou.
+ * La fenêtre est découpée en tranches ; chaque tranche tient dans un long
+ * (numéro de tranche sur les bits hauts, compte sur les 20 bits bas) mis à
+ * jour par compareAndSet, une tranche périmée étant recyclée au passage.
+ * Les clés sont réparties sur des segments de taille bornée.
+ */
+public class SlidingWindowCounter {
+
+    private static final int STRIPES = 16;
+    private static final int COUNT_BITS = 20;
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+
+    private final long bucketMs;
+    private final int buckets;
+    private final int maxKeysPerStripe;
+    private final Map<String, Window>[] stripes;
+
+    @SuppressWarnings("unchecked")
+    public SlidingWindowCounter(Duration window, int buckets, int maxKeys) {
+        if (buckets < 1 || window.toMillis() < buckets) {
+            throw new IllegalArgumentException("Invalid window");
+        }
+        this.buckets = buckets;
+        this.bucketMs = window.toMillis() / buckets;
+        this.maxKeysPerStripe = Math.max(1, maxKeys / STRIPES);
+        this.stripes = new Map[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ConcurrentHashMap<>();
+        }
+    }
+
+    /**
+     * Enregistre un événement pour la clé et renvoie le total sur la fenêtre.
+     */
+    public int increment(String key, long now) {
+        long epoch = now / bucketMs;
+        Map<String, Window> stripe = stripe(key);
+        Window window = stripe.get(key);
+        if (window == null) {
+            if (stripe.size() >= maxKeysPerStripe) {
+                evict(stripe, epoch);
+            }
+            window = stripe.computeIfAbsent(key, k -> new Window());
+        }
+        return window.add(epoch);
+    }
+
+    public int count(String key, long now) {
+        Window window = stripe(key).get(key);
+        return window == null ? 0 : window.sum(now / bucketMs);
+    }
+
+    public void reset(String key) {
+        stripe(key).remove(key);
+    }
+
+    int size() {
+        int size = 0;
+        for (Map<String, Window> stripe : stripes) {
+            size += stripe.size();
+        }
+        return size;
+    }
+
+    private Map<String, Window> stripe(String key) {
+        int h = key.hashCode();
+        return stripes[(h ^ (h >>> 16)) & (STRIPES - 1)];
+    }
+
+    // Segment plein : on retire les fenêtres vides, puis au besoin le dixième le plus ancien
+    private void evict(Map<String, Window> stripe, long epoch) {
+        stripe.values().removeIf(w -> w.sum(epoch) == 0);
+        if (stripe.size() < maxKeysPerStripe) {
+            return;
+        }
+        int toRemove = Math.max(1, maxKeysPerStripe / 10);
+        stripe.entrySet().stream()
+                .map(e -> Map.entry(e.getKey(), e.getValue().latest()))
+                .sorted(Map.Entry.comparingByValue())
+                .limit(toRemove)
+                .forEach(e -> stripe.remove(e.getKey()));
+    }
+
+    private final class Window {
+
+        private final AtomicLongArray slots = new AtomicLongArray(buckets);
+
+        int add(long epoch) {
+            int i = (int) (epoch % buckets);
+            while (true) {
+                long current = slots.get(i);
+                long next;
+                if (current >>> COUNT_BITS == epoch) {
+                    next = (current & COUNT_MASK) == COUNT_MASK ? current : current + 1;
+                } else {
+                    next = (epoch << COUNT_BITS) | 1;
+                }
+                if (current == next || slots.compareAndSet(i, current, next)) {
+                    break;
+                }
+            }
+            return sum(epoch);
+        }
+
+        // Tranche la plus récente ayant reçu un événement
+        long latest() {
+            long latest = 0;
+            for (int i = 0; i < buckets; i++) {
+                latest = Math.max(latest, slots.get(i) >>> COUNT_BITS);
+            }
+            return latest;
+        }
+
+        int sum(long epoch) {
+            int total = 0;
+            for (int i = 0; i < buckets; i++) {
+                long slot = slots.get(i);
+                long slotEpoch = slot >>> COUNT_BITS;
+                if (slotEpoch > epoch - buckets && slotEpoch <= epoch) {
+                    total += (int) (slot & COUNT_MASK);
+                }
+            }
+            return total;
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.example.carte.security;
+
+import com.example.carte.entity.RevokedToken;
+import com.example.carte.repository.RevokedTokenRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Liste des jetons d'accès révoqués, consultée à chaque requête authentifiée.
+ * La table revoked_token fait foi ; un filtre de Bloom en mémoire écarte sans
+ * accès à la base la quasi-totalité des jetons, qui ne sont pas révoqués. Le
+ * filtre est reconstruit périodiquement : les lignes expirées sont purgées,
+ * la taille suit le nombre de révocations actives et celles faites par une
+ * autre instance sont reprises (elle ne les voit donc qu'à sa reconstruction
+ * suivante). Une révocation n'entre dans le filtre qu'après le commit de sa
+ * ligne ; celles qui arrivent pendant une reconstruction sont reportées dans
+ * le nouveau filtre avant qu'il remplace l'ancien.
+ */
+@Component
+public class TokenDenylist {
+
+    @Autowired
+    private RevokedTokenRepository revokedTokenRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${jwt.denylist.expected-entries:100000}")
+    private long expectedEntries;
+
+    @Value("${jwt.denylist.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    @Value("${jwt.denylist.rebuild-interval-ms:300000}")
+    private long rebuildIntervalMs;
+
+    private volatile BloomFilter filter;
+    // Révocations arrivées pendant une reconstruction, protégées par swapLock
+    private Set<String> duringRebuild;
+    private final Object swapLock = new Object();
+    private ScheduledExecutorService scheduler;
+    private final LongAdder checks = new LongAdder();
+    private final LongAdder filterHits = new LongAdder();
+    private final LongAdder revokedHits = new LongAdder();
+    private final AtomicLong rebuildFailures = new AtomicLong();
+
+    @PostConstruct
+    void init() {
+        rebuild();
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "token-denylist");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                rebuild();
+            } catch (RuntimeException e) {
+                // Base indisponible : on garde le filtre courant
+                rebuildFailures.incrementAndGet();
+            }
+        }, rebuildIntervalMs, rebuildIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    public boolean isRevoked(String jti) {
+        if (jti == null) {
+            return false;
+        }
+        checks.increment();
+        if (!filter.mightContain(jti)) {
+            return false;
+        }
+        filterHits.increment();
+        boolean revoked = revokedTokenRepository.existsById(jti);
+        if (revoked) {
+            revokedHits.increment();
+        }
+        return revoked;
+    }
+
+    public record TokenRevokedEvent(String jti) {
+    }
+
+    /**
+     * Révoque le jeton jusqu'à son expiration (epoch en millisecondes). La ligne
+     * suit la transaction de l'appelant ; le filtre n'est mis à jour qu'au commit.
+     */
+    public void revoke(String jti, long expiresAt) {
+        if (jti == null || expiresAt <= System.currentTimeMillis()) {
+            return;
+        }
+        revokedTokenRepository.save(new RevokedToken(jti,
+                LocalDateTime.ofInstant(Instant.ofEpochMilli(expiresAt), ZoneId.systemDefault())));
+        eventPublisher.publishEvent(new TokenRevokedEvent(jti));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTokenRevoked(TokenRevokedEvent event) {
+        synchronized (swapLock) {
+            filter.add(event.jti());
+            if (duringRebuild != null) {
+                duringRebuild.add(event.jti());
+            }
+        }
+    }
+
+    synchronized void rebuild() {
+        synchronized (swapLock) {
+            duringRebuild = new HashSet<>();
+        }
+        BloomFilter next;
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            revokedTokenRepository.deleteExpired(now);
+            List<String> active = revokedTokenRepository.findActiveJtis(now);
+            next = new BloomFilter(Math.max(expectedEntries, active.size() * 2L), falsePositiveRate);
+            active.forEach(next::add);
+        } catch (RuntimeException e) {
+            synchronized (swapLock) {
+                duringRebuild = null;
+            }
+            throw e;
+        }
+        synchronized (swapLock) {
+            duringRebuild.forEach(next::add);
+            duringRebuild = null;
+            filter = next;
+        }
+    }
+
+    public long getChecks() {
+        return checks.sum();
+    }
+
+    // Passages en base : les faux positifs du filtre en plus des jetons révoqués
+    public long getFilterHits() {
+        return filterHits.sum();
+    }
+
+    public long getRevokedHits() {
+        return revokedHits.sum();
+    }
+
+    public long getRebuildFailures() {
+        return rebuildFailures.get();
+    }
+}
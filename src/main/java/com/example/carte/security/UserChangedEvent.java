@@ -0,0 +1,8 @@
+package com.example.carte.security;
+
+/**
+ * Publié par UserService à chaque écriture d'un utilisateur ;
+ * UserPrincipalCache retire l'entrée après le commit.
+ */
+public record UserChangedEvent(String username) {
+}
@@ -0,0 +1,7 @@
+package com.example.carte.security;
+
+/**
+ * Vue immuable d'un utilisateur pour l'authentification, sans le hachage du mot de passe.
+ */
+public record UserPrincipal(Long id, String username, String role, boolean enabled, boolean locked) {
+}
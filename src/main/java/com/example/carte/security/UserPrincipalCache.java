@@ -0,0 +1,106 @@
+package com.example.carte.security;
+
+import com.example.carte.dto.PrincipalCacheStatusResponse;
+import com.example.carte.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache borné, à durée de vie, des {@link UserPrincipal} par nom d'utilisateur.
+ * Les utilisateurs inconnus sont aussi retenus, pour qu'un jeton encore valide
+ * d'un compte supprimé ne coûte pas une requête à chaque appel. Toute
+ * modification d'un utilisateur publie un {@link UserChangedEvent}, traité
+ * après le commit : invalider avant laisserait une lecture concurrente remettre
+ * en cache l'ancienne ligne.
+ */
+@Component
+public class UserPrincipalCache {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Value("${users.principal-cache.ttl-ms:60000}")
+    private long ttlMs;
+
+    @Value("${users.principal-cache.max-size:10000}")
+    private int maxSize;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    // Incrémenté à chaque invalidation : un chargement commencé avant n'est pas mis en cache
+    private final AtomicLong generation = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    private record Entry(UserPrincipal principal, long expiresAt) {
+    }
+
+    /**
+     * Utilisateur correspondant, ou null s'il n'existe pas.
+     */
+    public UserPrincipal get(String username) {
+        if (username == null) {
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        Entry entry = entries.get(username);
+        if (entry != null && entry.expiresAt() > now) {
+            hits.increment();
+            return entry.principal();
+        }
+        misses.increment();
+        long before = generation.get();
+        UserPrincipal principal = userRepository.findPrincipalByUsername(username).orElse(null);
+        if (generation.get() == before) {
+            if (entries.size() >= maxSize) {
+                evict(now);
+            }
+            if (entries.size() < maxSize) {
+                entries.put(username, new Entry(principal, now + ttlMs));
+            }
+        }
+        return principal;
+    }
+
+    public void invalidate(String username) {
+        generation.incrementAndGet();
+        if (username != null) {
+            entries.remove(username);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        invalidate(event.username());
+    }
+
+    public PrincipalCacheStatusResponse getStatus() {
+        long h = hits.sum();
+        long m = misses.sum();
+        return new PrincipalCacheStatusResponse(entries.size(), maxSize, ttlMs, h, m, evictions.sum(),
+                h + m == 0 ? 0 : (double) h / (h + m));
+    }
+
+    // Cache plein : on retire les entrées expirées, puis au besoin un dixième des entrées
+    private void evict(long now) {
+        int before = entries.size();
+        entries.values().removeIf(e -> e.expiresAt() <= now);
+        if (entries.size() >= maxSize) {
+            int toRemove = Math.max(1, maxSize / 10);
+            Iterator<String> it = entries.keySet().iterator();
+            while (toRemove-- > 0 && it.hasNext()) {
+                it.next();
+                it.remove();
+            }
+        }
+        evictions.add(Math.max(0, before - entries.size()));
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.carte.service;
+
+import com.example.carte.tile.TileCache;
+import com.example.carte.tile.TileMath;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Lecture directe des tuiles du fond de carte dans le fichier MBTiles (SQLite),
+ * pour se passer du conteneur tileserver-gl. Les tuiles les plus demandées
+ * restent dans un cache borné en octets ; les tuiles absentes vont dans un
+ * petit cache séparé, pour qu'un parcours jusqu'au zoom 30 n'évince pas les
+ * vraies tuiles.
+ */
+@Service
+@ConditionalOnProperty(name = "basemap.mbtiles.enabled", havingValue = "true")
+public class BasemapService {
+
+    private static final String TILE_SQL =
+            "SELECT tile_data FROM tiles WHERE zoom_level = ? AND tile_column = ? AND tile_row = ?";
+
+    @Value("${basemap.mbtiles.path}")
+    private String mbtilesPath;
+
+    @Value("${basemap.mbtiles.pool-size:4}")
+    private int poolSize;
+
+    @Value("${basemap.cache-bytes:134217728}")
+    private long cacheBytes;
+
+    @Value("${basemap.missing-cache-bytes:1048576}")
+    private long missingCacheBytes;
+
+    private HikariDataSource dataSource;
+    private TileCache cache;
+    private TileCache missing;
+    private String format;
+    private String fileVersion;
+
+    @PostConstruct
+    void init() {
+        Path path = Path.of(mbtilesPath);
+        if (!Files.isReadable(path)) {
+            throw new IllegalStateException("MBTiles file not readable: " + path.toAbsolutePath());
+        }
+
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("mbtiles");
+        config.setJdbcUrl("jdbc:sqlite:" + path.toAbsolutePath());
+        config.addDataSourceProperty("open_mode", "1");
+        config.setReadOnly(true);
+        config.setMaximumPoolSize(poolSize);
+        config.setMinimumIdle(1);
+        dataSource = new HikariDataSource(config);
+        cache = new TileCache(cacheBytes);
+        missing = new TileCache(missingCacheBytes);
+
+        try {
+            // Le fichier est en lecture seule : date et taille suffisent à identifier son contenu
+            fileVersion = Long.toHexString(Files.getLastModifiedTime(path).toMillis()) + "-"
+                    + Long.toHexString(Files.size(path));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        format = readMetadata("format");
+        if (format == null) {
+            format = "pbf";
+        }
+    }
+
+    @PreDestroy
+    void close() {
+        dataSource.close();
+    }
+
+    public String getFormat() {
+        return format;
+    }
+
+    // Identifiant fort : le contenu d'une tuile ne change pas tant que le fichier ne change pas
+    public String etag(int z, int x, int y) {
+        return "\"" + fileVersion + "-" + z + "-" + x + "-" + y + "\"";
+    }
+
+    /**
+     * Renvoie la tuile telle que stockée (éventuellement gzippée pour le pbf),
+     * ou un tableau vide si elle n'existe pas.
+     */
+    public byte[] getTile(int z, int x, int y) {
+        if (!TileMath.isValid(z, x, y, 30)) {
+            throw new RuntimeException("Invalid tile coordinates");
+        }
+        String key = TileCache.key(z, x, y);
+        byte[] tile = cache.get(key);
+        if (tile == null) {
+            tile = missing.get(key);
+        }
+        if (tile != null) {
+            return tile;
+        }
+
+        // MBTiles utilise le schéma TMS : l'axe Y est inversé
+        int tmsY = (int) ((1L << z) - 1 - y);
+        try (Connection c = dataSource.getConnection();
+             PreparedStatement ps = c.prepareStatement(TILE_SQL)) {
+            ps.setInt(1, z);
+            ps.setInt(2, x);
+            ps.setInt(3, tmsY);
+            try (ResultSet rs = ps.executeQuery()) {
+                tile = rs.next() ? rs.getBytes(1) : new byte[0];
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Cannot read tile " + key + " from MBTiles", e);
+        }
+        (tile.length > 0 ? cache : missing).put(key, tile);
+        return tile;
+    }
+
+    private String readMetadata(String name) {
+        try (Connection c = dataSource.getConnection();
+             PreparedStatement ps = c.prepareStatement("SELECT value FROM metadata WHERE name = ?")) {
+            ps.setString(1, name);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getString(1) : null;
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Cannot read MBTiles metadata", e);
+        }
+    }
+}
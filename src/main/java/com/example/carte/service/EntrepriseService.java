@@ -2,9 +2,15 @@ package com.example.carte.service;
 
 import com.example.carte.dto.EntrepriseRequest;
 import com.example.carte.dto.EntrepriseResponse;
+import com.example.carte.dto.EntrepriseWorkloadResponse;
+import com.example.carte.dto.ReferenceCacheStatusResponse;
 import com.example.carte.entity.Entreprise;
+import com.example.carte.index.ReferenceDataCache;
+import com.example.carte.index.ReferenceDataChangedEvent;
+import com.example.carte.index.SignalementStatistics;
 import com.example.carte.repository.EntrepriseRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -17,6 +23,15 @@ public class EntrepriseService {
     @Autowired
     private EntrepriseRepository entrepriseRepository;
 
+    @Autowired
+    private SignalementStatistics signalementStatistics;
+
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     @Transactional
     public EntrepriseResponse create(EntrepriseRequest request) {
         Entreprise e = new Entreprise();
@@ -24,24 +39,47 @@ public class EntrepriseService {
         e.setContact(request.getContact());
         e.setEmail(request.getEmail());
 
-        return EntrepriseResponse.fromEntreprise(entrepriseRepository.save(e));
+        Entreprise saved = entrepriseRepository.save(e);
+        eventPublisher.publishEvent(new ReferenceDataChangedEvent(ReferenceDataCache.Type.ENTREPRISE));
+        return EntrepriseResponse.fromEntreprise(saved);
     }
 
     public EntrepriseResponse getById(Long id) {
-        Entreprise e = entrepriseRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Entreprise not found"));
-        return EntrepriseResponse.fromEntreprise(e);
+        EntrepriseResponse e = referenceDataCache.entreprise(id);
+        if (e == null) {
+            throw new RuntimeException("Entreprise not found");
+        }
+        return e;
     }
 
     public List<EntrepriseResponse> getAll() {
-        return entrepriseRepository.findAll()
+        return referenceDataCache.entreprises();
+    }
+
+    // Compteurs lus en mémoire (SignalementStatistics), sans requête sur signalement
+    public EntrepriseWorkloadResponse getWorkload(Long id) {
+        return toWorkload(getById(id));
+    }
+
+    public List<EntrepriseWorkloadResponse> getWorkloads() {
+        return referenceDataCache.entreprises()
                 .stream()
-                .map(EntrepriseResponse::fromEntreprise)
+                .map(this::toWorkload)
                 .collect(Collectors.toList());
     }
 
+    private EntrepriseWorkloadResponse toWorkload(EntrepriseResponse e) {
+        return EntrepriseWorkloadResponse.of(e.getIdEntreprise(), e.getNom(),
+                signalementStatistics.entrepriseParStatut(e.getIdEntreprise()));
+    }
+
+    public ReferenceCacheStatusResponse getCacheStatus() {
+        return referenceDataCache.getStatus(ReferenceDataCache.Type.ENTREPRISE);
+    }
+
     @Transactional
     public void delete(Long id) {
         entrepriseRepository.deleteById(id);
+        eventPublisher.publishEvent(new ReferenceDataChangedEvent(ReferenceDataCache.Type.ENTREPRISE));
     }
 }
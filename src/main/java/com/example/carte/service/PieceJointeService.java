@@ -2,15 +2,34 @@ package com.example.carte.service;
 
 import com.example.carte.dto.PieceJointeRequest;
 import com.example.carte.dto.PieceJointeResponse;
+import com.example.carte.entity.PieceBlob;
 import com.example.carte.entity.PieceJointe;
 import com.example.carte.entity.Signalement;
+import com.example.carte.repository.PieceBlobRepository;
 import com.example.carte.repository.PieceJointeRepository;
 import com.example.carte.repository.SignalementRepository;
+import com.example.carte.storage.PieceStorage;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.List;
+import java.util.Locale;
 import java.util.stream.Collectors;
 
 @Service
@@ -22,6 +41,32 @@ public class PieceJointeService {
     @Autowired
     private SignalementRepository signalementRepository;
 
+    @Autowired
+    private PieceStorage pieceStorage;
+
+    @Autowired
+    private PieceThumbnailService pieceThumbnailService;
+
+    @Autowired
+    private PieceBlobRepository pieceBlobRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    // Pour les écritures faites après le commit d'une autre transaction
+    private TransactionTemplate requiresNew;
+
+    private static final int UPLOAD_ATTEMPTS = 2;
+
+    public record Fichier(Path path, long taille, String typeMime, String etag) {
+    }
+
+    @PostConstruct
+    void init() {
+        requiresNew = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
     @Transactional
     public PieceJointeResponse create(PieceJointeRequest request) {
         Signalement s = signalementRepository.findById(request.getIdSignalement())
@@ -32,9 +77,138 @@ public class PieceJointeService {
         p.setTypeFichier(request.getTypeFichier());
         p.setChemin(request.getChemin());
 
+        // Chemin d'un fichier déjà stocké : la pièce le partage, il doit être compté
+        String sha256 = PieceStorage.sha256Of(request.getChemin());
+        if (sha256 != null) {
+            if (pieceBlobRepository.incrementRefCount(sha256) == 0) {
+                throw new RuntimeException("Fichier not found");
+            }
+            p.setTaille(pieceBlobRepository.findById(sha256).map(PieceBlob::getTaille).orElse(null));
+        }
+
         return PieceJointeResponse.fromPieceJointe(pieceJointeRepository.save(p));
     }
 
+    /**
+     * Dépôt d'un fichier : le contenu est reçu et haché hors transaction, puis
+     * rangé sous son SHA-256. Un contenu déjà stocké n'est pas réécrit, son
+     * compteur de références est seulement incrémenté avec l'insertion de la pièce.
+     * Le fichier est mis en place pendant que la ligne piece_blob est verrouillée
+     * par cette transaction : une suppression de la dernière référence attend.
+     */
+    public PieceJointeResponse upload(Long idSignalement, MultipartFile fichier, String typeFichier) {
+        if (!signalementRepository.existsById(idSignalement)) {
+            throw new RuntimeException("Signalement not found");
+        }
+        if (fichier == null || fichier.isEmpty()) {
+            throw new RuntimeException("Empty file");
+        }
+        if (typeFichier != null && typeFichier.length() > 20) {
+            throw new RuntimeException("typeFichier too long");
+        }
+
+        PieceStorage.Staged staged;
+        try (InputStream in = fichier.getInputStream()) {
+            staged = pieceStorage.stage(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        PieceJointe piece = new PieceJointe();
+        piece.setSignalement(signalementRepository.getReferenceById(idSignalement));
+        piece.setTypeFichier(typeFichier != null && !typeFichier.isBlank()
+                ? typeFichier : extension(fichier.getOriginalFilename()));
+        piece.setTypeMime(typeMime(fichier.getContentType()));
+        piece.setTaille(staged.taille());
+
+        String sha256 = staged.sha256();
+        PieceJointe p = null;
+        try {
+            for (int attempt = 1; p == null; attempt++) {
+                try {
+                    p = transactionTemplate.execute(status -> {
+                        if (pieceBlobRepository.incrementRefCount(sha256) == 0) {
+                            // Premier dépôt de ce contenu ; un dépôt concurrent identique échoue sur la clé
+                            pieceBlobRepository.saveAndFlush(new PieceBlob(sha256, staged.taille(), 1, null));
+                        }
+                        piece.setChemin(pieceStorage.commit(staged));
+                        return pieceJointeRepository.save(piece);
+                    });
+                } catch (DataIntegrityViolationException e) {
+                    // L'autre dépôt a créé la ligne : on recommence en l'incrémentant
+                    if (attempt >= UPLOAD_ATTEMPTS) {
+                        throw e;
+                    }
+                }
+            }
+        } finally {
+            // Sans effet si le fichier a été mis en place
+            pieceStorage.discard(staged);
+        }
+        if (isImage(p)) {
+            pieceThumbnailService.schedule(p.getChemin());
+        }
+        return PieceJointeResponse.fromPieceJointe(p);
+    }
+
+    public Fichier getFichier(Long id) {
+        PieceJointe p = pieceJointeRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Pièce jointe not found"));
+        Path path = pieceStorage.resolve(p.getChemin());
+        if (path == null) {
+            throw new RuntimeException("Fichier not found");
+        }
+        String sha256 = PieceStorage.sha256Of(p.getChemin());
+        // Contenu adressé par son empreinte : elle sert d'ETag, identique pour toutes les pièces qui le partagent
+        return sha256 != null
+                ? new Fichier(path, p.getTaille() != null ? p.getTaille() : size(path), p.getTypeMime(), "\"" + sha256 + "\"")
+                : fichier(p.getIdPiece(), path, p.getTypeMime());
+    }
+
+    /**
+     * Vignette JPEG d'une photo, d'au moins size pixels de côté ; null si elle
+     * est encore en cours de génération.
+     */
+    public Fichier getThumbnail(Long id, int size) {
+        PieceJointe p = pieceJointeRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Pièce jointe not found"));
+        if (!isImage(p)) {
+            throw new RuntimeException("Not an image");
+        }
+        Path path = pieceThumbnailService.getVariant(p.getChemin(), size);
+        return path == null ? null : fichier(p.getIdPiece(), path, MediaType.IMAGE_JPEG_VALUE);
+    }
+
+    private static long size(Path path) {
+        try {
+            return Files.size(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Fichier fichier(Long idPiece, Path path, String typeMime) {
+        try {
+            BasicFileAttributes attrs = Files.readAttributes(path, BasicFileAttributes.class);
+            String etag = "\"" + Long.toHexString(idPiece) + "-" + Long.toHexString(attrs.size()) + "-"
+                    + Long.toHexString(attrs.lastModifiedTime().toMillis()) + "\"";
+            return new Fichier(path, attrs.size(), typeMime, etag);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static boolean isImage(PieceJointe p) {
+        if (p.getTypeMime() != null) {
+            return p.getTypeMime().startsWith("image/");
+        }
+        String type = p.getTypeFichier() == null ? "" : p.getTypeFichier().toLowerCase(Locale.ROOT);
+        return switch (type) {
+            case "jpg", "jpeg", "png", "gif", "bmp", "photo", "image" -> true;
+            default -> false;
+        };
+    }
+
     public List<PieceJointeResponse> getBySignalement(Long idSignalement) {
         Signalement s = signalementRepository.findById(idSignalement)
                 .orElseThrow(() -> new RuntimeException("Signalement not found"));
@@ -51,10 +225,76 @@ public class PieceJointeService {
         return PieceJointeResponse.fromPieceJointe(p);
     }
 
-    @Transactional
+    /**
+     * Supprime la pièce et décrémente le compteur de son fichier ; le fichier et
+     * ses vignettes ne sont effacés qu'après le commit de la suppression de la
+     * dernière référence, jamais pour une transaction annulée. Un chemin saisi
+     * par un client ne désigne aucun fichier stocké : rien n'est effacé sur disque.
+     */
     public void delete(Long id) {
         PieceJointe p = pieceJointeRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Pièce jointe not found"));
-        pieceJointeRepository.delete(p);
+        String chemin = p.getChemin();
+        String sha256 = PieceStorage.sha256Of(chemin);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            // Une suppression concurrente de la même pièce ne doit décrémenter qu'une fois
+            if (pieceJointeRepository.deleteByIdPiece(id) == 0) {
+                throw new RuntimeException("Pièce jointe not found");
+            }
+            if (sha256 != null && pieceBlobRepository.decrementRefCount(sha256) > 0
+                    && pieceBlobRepository.deleteUnreferenced(sha256) > 0) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        deleteBlob(sha256, chemin);
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Efface le fichier d'un contenu qui n'est plus référencé. Une ligne
+     * piece_blob vide est insérée le temps de l'effacement : un dépôt concurrent
+     * du même contenu attend sur elle puis remet le fichier en place, et si un
+     * dépôt a déjà recréé la ligne, l'insertion échoue et le fichier est gardé.
+     */
+    private void deleteBlob(String sha256, String chemin) {
+        try {
+            requiresNew.executeWithoutResult(status -> {
+                pieceBlobRepository.insertEmpty(sha256);
+                pieceStorage.delete(chemin);
+                pieceBlobRepository.deleteUnreferenced(sha256);
+            });
+        } catch (DataIntegrityViolationException e) {
+            // Contenu déposé à nouveau entre-temps : le fichier reste
+        }
+    }
+
+    // Type annoncé par le client, gardé seulement s'il est valide : il sera renvoyé tel quel au téléchargement
+    private static String typeMime(String contentType) {
+        if (contentType == null || contentType.length() > 100) {
+            return null;
+        }
+        try {
+            return MediaType.parseMediaType(contentType).toString();
+        } catch (InvalidMediaTypeException e) {
+            return null;
+        }
+    }
+
+    // Extension du nom d'origine, si elle est courte et alphanumérique
+    private static String extension(String filename) {
+        if (filename == null) {
+            return null;
+        }
+        int dot = filename.lastIndexOf('.');
+        if (dot < 0 || dot == filename.length() - 1) {
+            return null;
+        }
+        String ext = filename.substring(dot + 1).toLowerCase(Locale.ROOT);
+        return ext.length() <= 10 && ext.chars().allMatch(c -> (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9'))
+                ? ext : null;
     }
 }
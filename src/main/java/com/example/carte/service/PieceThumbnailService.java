@@ -0,0 +1,204 @@
+package com.example.carte.service;
+
+import com.example.carte.dto.ThumbnailStatusResponse;
+import com.example.carte.storage.PieceStorage;
+import com.example.carte.storage.Thumbnails;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Génération des vignettes des photos en arrière-plan, sur un nombre fixe de
+ * threads et une file bornée. Quand la file est pleine, la demande est
+ * abandonnée plutôt que de bloquer l'envoi du fichier : la vignette sera
+ * redemandée au premier affichage. Un fichier déjà en file, ou dont les
+ * vignettes existent (contenu partagé avec une autre pièce), n'y est pas remis.
+ */
+@Service
+public class PieceThumbnailService {
+
+    @Autowired
+    private PieceStorage pieceStorage;
+
+    @Value("${pieces.thumbs.sizes:160,480,1024}")
+    private int[] sizes;
+
+    @Value("${pieces.thumbs.threads:2}")
+    private int threads;
+
+    @Value("${pieces.thumbs.queue-capacity:200}")
+    private int queueCapacity;
+
+    @Value("${pieces.thumbs.quality:0.8}")
+    private float quality;
+
+    private static final int MAX_UNREADABLE = 10_000;
+
+    private ThreadPoolExecutor executor;
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+    // Contenus qu'ImageIO ne sait pas décoder : inutile de les retenter à chaque affichage.
+    // Borné : au-delà, un fichier illisible est simplement retenté à l'affichage suivant
+    private final Set<String> unreadable = ConcurrentHashMap.newKeySet();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong lastDurationMs = new AtomicLong();
+
+    private class Job implements Runnable {
+        final String chemin;
+        final long enqueuedAt = System.currentTimeMillis();
+
+        Job(String chemin) {
+            this.chemin = chemin;
+        }
+
+        @Override
+        public void run() {
+            long start = System.currentTimeMillis();
+            try {
+                generate(chemin);
+            } finally {
+                pending.remove(chemin);
+                lastDurationMs.set(System.currentTimeMillis() - start);
+            }
+        }
+    }
+
+    @PostConstruct
+    void init() {
+        sizes = Arrays.stream(sizes).filter(s -> s > 0).sorted().distinct().toArray();
+        AtomicInteger counter = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "thumbs-" + counter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Met le fichier en file. false si la file est pleine ou si le fichier ne
+     * peut pas donner de vignette ; l'appelant n'attend jamais.
+     */
+    public boolean schedule(String chemin) {
+        if (unreadable.contains(chemin)) {
+            return false;
+        }
+        // Fichier partagé déjà traité pour une autre pièce
+        if (ready(chemin) || !pending.add(chemin)) {
+            return true;
+        }
+        try {
+            executor.execute(new Job(chemin));
+            return true;
+        } catch (RejectedExecutionException e) {
+            pending.remove(chemin);
+            rejected.incrementAndGet();
+            return false;
+        }
+    }
+
+    /**
+     * Vignette dont le plus grand côté est au moins requested pixels (la plus
+     * grande disponible sinon), ou null si elle n'est pas encore prête : elle est
+     * alors mise en file.
+     */
+    public Path getVariant(String chemin, int requested) {
+        if (unreadable.contains(chemin)) {
+            throw new RuntimeException("Thumbnail not available");
+        }
+        Path path = pieceStorage.variant(chemin, sizeFor(requested));
+        if (path == null) {
+            throw new RuntimeException("Fichier not found");
+        }
+        if (Files.isRegularFile(path)) {
+            return path;
+        }
+        schedule(chemin);
+        return null;
+    }
+
+    public ThumbnailStatusResponse getStatus() {
+        Runnable head = executor.getQueue().peek();
+        long oldestMs = head instanceof Job job ? System.currentTimeMillis() - job.enqueuedAt : 0;
+        ThumbnailStatusResponse r = new ThumbnailStatusResponse();
+        r.setQueued(executor.getQueue().size());
+        r.setActive(executor.getActiveCount());
+        r.setQueueCapacity(queueCapacity);
+        r.setOldestQueuedMs(oldestMs);
+        r.setLastDurationMs(lastDurationMs.get());
+        r.setCompleted(completed.get());
+        r.setFailed(failed.get());
+        r.setRejected(rejected.get());
+        return r;
+    }
+
+    private boolean ready(String chemin) {
+        for (int size : sizes) {
+            Path path = pieceStorage.variant(chemin, size);
+            if (path == null || !Files.isRegularFile(path)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    int sizeFor(int requested) {
+        for (int size : sizes) {
+            if (size >= requested) {
+                return size;
+            }
+        }
+        return sizes[sizes.length - 1];
+    }
+
+    // Une seule lecture de l'original, réduite pour la plus grande variante ; les suivantes en dérivent
+    private void generate(String chemin) {
+        Path original = pieceStorage.resolve(chemin);
+        if (original == null) {
+            return;
+        }
+        try {
+            BufferedImage image = Thumbnails.read(original, sizes[sizes.length - 1]);
+            if (image == null) {
+                if (unreadable.size() < MAX_UNREADABLE) {
+                    unreadable.add(chemin);
+                }
+                failed.incrementAndGet();
+                return;
+            }
+            for (int i = sizes.length - 1; i >= 0; i--) {
+                BufferedImage variant = Thumbnails.scale(image, sizes[i]);
+                pieceStorage.writeVariant(chemin, sizes[i], out -> Thumbnails.writeJpeg(variant, out, quality));
+                image = variant;
+            }
+            completed.incrementAndGet();
+        } catch (IOException | RuntimeException e) {
+            // Erreur passagère (disque, mémoire…) : la prochaine demande remet le fichier en file
+            failed.incrementAndGet();
+        }
+    }
+}
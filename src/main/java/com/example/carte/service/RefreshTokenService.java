@@ -0,0 +1,164 @@
+package com.example.carte.service;
+
+import com.example.carte.dto.AuthResponse;
+import com.example.carte.entity.RefreshToken;
+import com.example.carte.entity.User;
+import com.example.carte.repository.RefreshTokenRepository;
+import com.example.carte.security.JwtTokenProvider;
+import com.example.carte.security.TokenDenylist;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Émission, rotation et révocation des jetons de rafraîchissement. Le jeton
+ * remis au client est aléatoire ; seule son empreinte SHA-256 est stockée.
+ */
+@Service
+public class RefreshTokenService {
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+
+    @Autowired
+    private TokenDenylist tokenDenylist;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${jwt.refresh-expiration:1209600000}")
+    private long refreshExpirationMs;
+
+    private final SecureRandom random = new SecureRandom();
+
+    private record Rotation(AuthResponse response, String erreur) {
+    }
+
+    /**
+     * Jeton d'accès et jeton de rafraîchissement d'une nouvelle famille (connexion).
+     */
+    @Transactional
+    public AuthResponse issue(User user) {
+        refreshTokenRepository.deleteExpired(user.getId(), LocalDateTime.now());
+        return issue(user, UUID.randomUUID().toString());
+    }
+
+    /**
+     * Échange un jeton de rafraîchissement contre une nouvelle paire. Un jeton
+     * déjà échangé révoque toute sa famille : il a été volé ou rejoué.
+     */
+    public AuthResponse refresh(String rawToken) {
+        Rotation rotation = transactionTemplate.execute(status -> rotate(hash(rawToken)));
+        if (rotation.erreur() != null) {
+            throw new RuntimeException(rotation.erreur());
+        }
+        return rotation.response();
+    }
+
+    /**
+     * Révoque le jeton d'accès présenté et, si fourni, la famille du jeton de rafraîchissement.
+     */
+    @Transactional
+    public void logout(String accessToken, String rawRefreshToken) {
+        JwtTokenProvider.JwtPrincipal principal = jwtTokenProvider.authenticate(accessToken);
+        if (principal != null) {
+            tokenDenylist.revoke(principal.tokenId(), principal.expiresAt());
+        }
+        if (rawRefreshToken != null && !rawRefreshToken.isEmpty()) {
+            refreshTokenRepository.findByTokenHash(hash(rawRefreshToken))
+                    .ifPresent(t -> revokeFamily(t.getFamilyId()));
+        }
+    }
+
+    /**
+     * Révoque et supprime tous les jetons de l'utilisateur (suppression du compte).
+     */
+    @Transactional
+    public void revokeAll(Long userId) {
+        List<RefreshToken> tokens = refreshTokenRepository.findByUserId(userId);
+        tokens.forEach(this::revokeAccess);
+        refreshTokenRepository.deleteAll(tokens);
+    }
+
+    private Rotation rotate(String tokenHash) {
+        RefreshToken current = refreshTokenRepository.findForUpdate(tokenHash).orElse(null);
+        if (current == null || current.isRevoked()) {
+            return new Rotation(null, "Invalid refresh token");
+        }
+        if (current.getUsedAt() != null) {
+            revokeFamily(current.getFamilyId());
+            return new Rotation(null, "Refresh token reused");
+        }
+        if (!current.getExpiresAt().isAfter(LocalDateTime.now())) {
+            return new Rotation(null, "Refresh token expired");
+        }
+        User user = current.getUser();
+        if (!user.isEnabled() || user.isLocked()) {
+            return new Rotation(null, "Account is locked. Try again later.");
+        }
+        current.setUsedAt(LocalDateTime.now());
+        return new Rotation(issue(user, current.getFamilyId()), null);
+    }
+
+    private AuthResponse issue(User user, String familyId) {
+        JwtTokenProvider.IssuedToken access = jwtTokenProvider.issueToken(user.getUsername(), user.getRole());
+        byte[] bytes = new byte[32];
+        random.nextBytes(bytes);
+        String rawToken = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        RefreshToken token = new RefreshToken();
+        token.setTokenHash(hash(rawToken));
+        token.setFamilyId(familyId);
+        token.setUser(user);
+        token.setExpiresAt(LocalDateTime.now().plus(Duration.ofMillis(refreshExpirationMs)));
+        token.setAccessJti(access.tokenId());
+        token.setAccessExpiresAt(LocalDateTime.ofInstant(Instant.ofEpochMilli(access.expiresAt()), ZoneId.systemDefault()));
+        refreshTokenRepository.save(token);
+
+        AuthResponse response = new AuthResponse(access.token(), user.getId(), user.getUsername(),
+                user.getEmail(), user.getRole());
+        response.setRefreshToken(rawToken);
+        return response;
+    }
+
+    private void revokeFamily(String familyId) {
+        for (RefreshToken token : refreshTokenRepository.findByFamilyId(familyId)) {
+            token.setRevoked(true);
+            revokeAccess(token);
+        }
+    }
+
+    private void revokeAccess(RefreshToken token) {
+        if (token.getAccessJti() != null && token.getAccessExpiresAt() != null) {
+            tokenDenylist.revoke(token.getAccessJti(),
+                    token.getAccessExpiresAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+        }
+    }
+
+    private static String hash(String rawToken) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(rawToken.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,419 @@
+package com.example.carte.service;
+
+import com.example.carte.analytics.DurationHistogram;
+import com.example.carte.analytics.StatutTransition;
+import com.example.carte.dto.ResolutionAnalyticsStatusResponse;
+import com.example.carte.dto.ResolutionStatsResponse;
+import com.example.carte.entity.ResolutionRollup;
+import com.example.carte.repository.HistoriqueStatutRepository;
+import com.example.carte.repository.ResolutionRollupRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Temps de résolution et temps passé par statut, agrégés par mois et par
+ * dimension (global, entreprise, ville) dans resolution_rollup. Chaque
+ * changement de statut ajoute ses deltas en nouvelles lignes, dans la
+ * transaction qui écrit l'historique mais sous un point de sauvegarde : un
+ * échec ici n'annule pas le changement de statut (l'agrégat manquant est
+ * rétabli par rebuild()). Les lectures fusionnent les lignes d'une même clé ;
+ * un compactage périodique les regroupe. Les lectures ne touchent jamais
+ * historique_statut.
+ *
+ * L'ajout de deltas et rebuild() prennent le même verrou de ligne
+ * (compteur_changement « resolution_rollup »), gardé jusqu'au commit : un
+ * changement de statut est soit entièrement vu par rebuild() (historique
+ * relu, deltas effacés), soit entièrement ajouté après lui, jamais compté
+ * deux fois.
+ */
+@Service
+public class ResolutionAnalyticsService {
+
+    private static final Logger log = LoggerFactory.getLogger(ResolutionAnalyticsService.class);
+
+    public static final String MESURE_RESOLUTION = "RESOLUTION";
+    public static final String MESURE_DUREE_STATUT = "DUREE_STATUT";
+
+    private static final String DIMENSION_GLOBAL = "GLOBAL";
+    private static final String DIMENSION_ENTREPRISE = "ENTREPRISE";
+    private static final String DIMENSION_VILLE = "VILLE";
+    private static final long NONE = 0L;
+    private static final int DEFAULT_MONTHS = 12;
+
+    private static final String LOCK = "resolution_rollup";
+    private static final String LOCK_SQL = "SELECT valeur FROM compteur_changement WHERE nom = ? FOR UPDATE";
+    private static final String CREATE_LOCK_SQL = "INSERT INTO compteur_changement (nom, valeur) VALUES (?, 0)";
+
+    private static final String INSERT_SQL = "INSERT INTO resolution_rollup (mesure, statut, dimension, "
+            + "id_dimension, mois, nombre, total_heures, histogramme) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String HISTORY_SQL = "SELECT h.id_signalement, h.ancien_statut, h.nouveau_statut, "
+            + "h.date_changement, s.date_signalement, s.id_entreprise, s.id_ville "
+            + "FROM historique_statut h JOIN signalement s ON s.id_signalement = h.id_signalement "
+            + "ORDER BY h.id_signalement, h.date_changement, h.id_historique";
+
+    @Autowired
+    private ResolutionRollupRepository resolutionRollupRepository;
+
+    @Autowired
+    private HistoriqueStatutRepository historiqueStatutRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${analytics.resolution.statut:RESOLU}")
+    private String statutResolu;
+
+    @Value("${analytics.resolution.compaction-interval-ms:300000}")
+    private long compactionIntervalMs;
+
+    // Pour créer la ligne de verrou hors de la transaction appelante
+    private TransactionTemplate requiresNew;
+    private ScheduledExecutorService scheduler;
+    private final AtomicLong recordFailures = new AtomicLong();
+    private final AtomicLong compactionFailures = new AtomicLong();
+
+    private record Key(String mesure, String statut, String dimension, Long idDimension, LocalDate mois) {
+    }
+
+    private static class Delta {
+        private final DurationHistogram histogram = new DurationHistogram();
+        private long nombre;
+        private double totalHeures;
+    }
+
+    @PostConstruct
+    void init() {
+        requiresNew = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "analytics-compaction");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                compact();
+            } catch (RuntimeException e) {
+                // Base indisponible : les deltas restent, ils seront regroupés au passage suivant
+                compactionFailures.incrementAndGet();
+            }
+        }, compactionIntervalMs, compactionIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Ajoute des changements de statut aux agrégats. Appelé dans la transaction
+     * qui insère les lignes d'historique correspondantes. Un échec est journalisé
+     * et compté, sans lever ; seul un retour au point de sauvegarde impossible,
+     * qui laisse la transaction inutilisable, est propagé à l'appelant.
+     */
+    public void record(List<StatutTransition> transitions) {
+        List<Map.Entry<Key, Delta>> deltas = new ArrayList<>(accumulate(transitions, new HashMap<>()).entrySet());
+        if (deltas.isEmpty()) {
+            return;
+        }
+        // Point de sauvegarde sur la connexion de la transaction : un échec n'annule que les deltas
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.execute((ConnectionCallback<Void>) con -> {
+            Savepoint savepoint = con.setSavepoint();
+            try {
+                lockRollups(con);
+                try (PreparedStatement ps = con.prepareStatement(INSERT_SQL)) {
+                    for (Map.Entry<Key, Delta> e : deltas) {
+                        Key k = e.getKey();
+                        Delta d = e.getValue();
+                        ps.setString(1, k.mesure());
+                        ps.setString(2, k.statut());
+                        ps.setString(3, k.dimension());
+                        ps.setLong(4, k.idDimension());
+                        ps.setDate(5, Date.valueOf(k.mois()));
+                        ps.setLong(6, d.nombre);
+                        ps.setDouble(7, d.totalHeures);
+                        ps.setBytes(8, d.histogram.encode());
+                        ps.addBatch();
+                    }
+                    ps.executeBatch();
+                }
+                con.releaseSavepoint(savepoint);
+            } catch (SQLException | DataAccessException e) {
+                recordFailures.incrementAndGet();
+                log.warn("Resolution rollup deltas not recorded for {} transition(s), rebuild to restore them",
+                        transitions.size(), e);
+                con.rollback(savepoint);
+            }
+            return null;
+        }));
+    }
+
+    /**
+     * Regroupe en une seule ligne les deltas d'une même clé. Les lignes sont
+     * verrouillées : deux compactages concurrents ne fusionnent jamais la même.
+     */
+    public int compact() {
+        return transactionTemplate.execute(status -> {
+            Map<Key, List<ResolutionRollup>> groups = new HashMap<>();
+            for (ResolutionRollup r : resolutionRollupRepository.findFragmentedForUpdate()) {
+                groups.computeIfAbsent(new Key(r.getMesure(), r.getStatut(), r.getDimension(), r.getIdDimension(),
+                        r.getMois()), k -> new ArrayList<>()).add(r);
+            }
+            int merged = 0;
+            for (Map.Entry<Key, List<ResolutionRollup>> e : groups.entrySet()) {
+                if (e.getValue().size() < 2) {
+                    continue;
+                }
+                ResolutionRollup rollup = newRollup(e.getKey());
+                for (ResolutionRollup r : e.getValue()) {
+                    Delta d = new Delta();
+                    d.histogram.merge(DurationHistogram.decode(r.getHistogramme()));
+                    d.nombre = r.getNombre();
+                    d.totalHeures = r.getTotalHeures();
+                    apply(rollup, d);
+                }
+                resolutionRollupRepository.deleteAllInBatch(e.getValue());
+                resolutionRollupRepository.save(rollup);
+                merged += e.getValue().size();
+            }
+            return merged;
+        });
+    }
+
+    public long getRecordFailures() {
+        return recordFailures.get();
+    }
+
+    public long getCompactionFailures() {
+        return compactionFailures.get();
+    }
+
+    public ResolutionAnalyticsStatusResponse getStatus() {
+        return new ResolutionAnalyticsStatusResponse(recordFailures.get(), compactionFailures.get());
+    }
+
+    // Premier démarrage avec un historique existant : les agrégats sont calculés une fois
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        if (resolutionRollupRepository.count() == 0 && historiqueStatutRepository.count() > 0) {
+            rebuild();
+        }
+    }
+
+    /** Recalcule tous les agrégats en un seul parcours de l'historique. */
+    public long rebuild() {
+        return transactionTemplate.execute(status -> {
+            // Attend les changements de statut en cours et bloque les suivants jusqu'au commit
+            jdbcTemplate.execute((ConnectionCallback<Void>) con -> {
+                lockRollups(con);
+                return null;
+            });
+            resolutionRollupRepository.deleteAllInBatch();
+
+            Map<Key, Delta> deltas = new HashMap<>();
+            List<StatutTransition> buffer = new ArrayList<>();
+            long[] total = {0};
+            Object[] previous = {null, null};
+            RowCallbackHandler handler = rs -> {
+                Long id = rs.getLong("id_signalement");
+                LocalDateTime date = toLocalDateTime(rs.getTimestamp("date_changement"));
+                LocalDateTime creation = toLocalDateTime(rs.getTimestamp("date_signalement"));
+                // Le statut quitté a commencé au changement précédent du même signalement, sinon à sa création
+                LocalDateTime debut = id.equals(previous[0]) ? (LocalDateTime) previous[1] : creation;
+                buffer.add(new StatutTransition(id, rs.getString("ancien_statut"), rs.getString("nouveau_statut"),
+                        creation, debut, date, rs.getObject("id_entreprise", Long.class),
+                        rs.getObject("id_ville", Long.class)));
+                previous[0] = id;
+                previous[1] = date;
+                if (buffer.size() == 1000) {
+                    accumulate(buffer, deltas);
+                    total[0] += buffer.size();
+                    buffer.clear();
+                }
+            };
+            jdbcTemplate.query(con -> {
+                PreparedStatement ps = con.prepareStatement(HISTORY_SQL);
+                ps.setFetchSize(1000);
+                return ps;
+            }, handler);
+            accumulate(buffer, deltas);
+            total[0] += buffer.size();
+
+            List<ResolutionRollup> rollups = new ArrayList<>(deltas.size());
+            deltas.forEach((k, d) -> {
+                ResolutionRollup rollup = newRollup(k);
+                apply(rollup, d);
+                rollups.add(rollup);
+            });
+            resolutionRollupRepository.saveAll(rollups);
+            return total[0];
+        });
+    }
+
+    public List<ResolutionStatsResponse> getStats(String mesure, String groupBy, YearMonth from, YearMonth to,
+                                                  boolean parMois) {
+        String dimension = parseDimension(groupBy);
+        YearMonth end = to == null ? YearMonth.now() : to;
+        YearMonth start = from == null ? end.minusMonths(DEFAULT_MONTHS - 1) : from;
+        if (start.isAfter(end)) {
+            throw new RuntimeException("Invalid period");
+        }
+
+        Map<Key, Delta> merged = new HashMap<>();
+        for (ResolutionRollup r : resolutionRollupRepository.findByMesureAndDimensionAndMoisBetween(
+                mesure, dimension, start.atDay(1), end.atDay(1))) {
+            Key k = new Key(mesure, r.getStatut(), dimension, r.getIdDimension(), parMois ? r.getMois() : null);
+            Delta d = merged.computeIfAbsent(k, x -> new Delta());
+            d.histogram.merge(DurationHistogram.decode(r.getHistogramme()));
+            d.nombre += r.getNombre();
+            d.totalHeures += r.getTotalHeures();
+        }
+
+        List<ResolutionStatsResponse> result = new ArrayList<>(merged.size());
+        merged.forEach((k, d) -> result.add(new ResolutionStatsResponse(
+                k.statut(),
+                k.idDimension() == NONE ? null : k.idDimension(),
+                k.mois() == null ? null : YearMonth.from(k.mois()).toString(),
+                d.nombre,
+                d.nombre == 0 ? null : d.totalHeures / d.nombre / 24,
+                toDays(d.histogram.quantile(0.5)),
+                toDays(d.histogram.quantile(0.9)))));
+        result.sort(Comparator.comparing(ResolutionStatsResponse::getStatut)
+                .thenComparing(ResolutionStatsResponse::getIdDimension, Comparator.nullsFirst(Comparator.naturalOrder()))
+                .thenComparing(ResolutionStatsResponse::getMois, Comparator.nullsFirst(Comparator.naturalOrder())));
+        return result;
+    }
+
+    private void lockRollups(Connection con) throws SQLException {
+        if (!selectForUpdate(con)) {
+            // Ligne créée et committée à part : deux premiers appels concurrents ne s'y bloquent pas
+            try {
+                requiresNew.executeWithoutResult(status -> jdbcTemplate.update(CREATE_LOCK_SQL, LOCK));
+            } catch (DataIntegrityViolationException e) {
+                // Créée entre-temps par une autre transaction
+            }
+            selectForUpdate(con);
+        }
+    }
+
+    private static boolean selectForUpdate(Connection con) throws SQLException {
+        try (PreparedStatement ps = con.prepareStatement(LOCK_SQL)) {
+            ps.setString(1, LOCK);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    private Map<Key, Delta> accumulate(List<StatutTransition> transitions, Map<Key, Delta> deltas) {
+        for (StatutTransition t : transitions) {
+            LocalDate mois = t.dateChangement().toLocalDate().withDayOfMonth(1);
+            if (statutResolu.equals(t.nouveauStatut()) && t.dateSignalement() != null) {
+                add(deltas, MESURE_RESOLUTION, statutResolu, t, mois, hours(t.dateSignalement(), t.dateChangement()));
+            }
+            if (t.ancienStatut() != null && t.debutAncienStatut() != null) {
+                add(deltas, MESURE_DUREE_STATUT, t.ancienStatut(), t, mois,
+                        hours(t.debutAncienStatut(), t.dateChangement()));
+            }
+        }
+        return deltas;
+    }
+
+    private static void add(Map<Key, Delta> deltas, String mesure, String statut, StatutTransition t,
+                            LocalDate mois, double hours) {
+        Key[] keys = {
+                new Key(mesure, statut, DIMENSION_GLOBAL, NONE, mois),
+                new Key(mesure, statut, DIMENSION_ENTREPRISE, t.idEntreprise() == null ? NONE : t.idEntreprise(), mois),
+                new Key(mesure, statut, DIMENSION_VILLE, t.idVille() == null ? NONE : t.idVille(), mois)
+        };
+        for (Key k : keys) {
+            Delta d = deltas.computeIfAbsent(k, x -> new Delta());
+            d.histogram.add(hours);
+            d.nombre++;
+            d.totalHeures += hours;
+        }
+    }
+
+    private static ResolutionRollup newRollup(Key k) {
+        ResolutionRollup r = new ResolutionRollup();
+        r.setMesure(k.mesure());
+        r.setStatut(k.statut());
+        r.setDimension(k.dimension());
+        r.setIdDimension(k.idDimension());
+        r.setMois(k.mois());
+        r.setHistogramme(new DurationHistogram().encode());
+        return r;
+    }
+
+    private static void apply(ResolutionRollup rollup, Delta d) {
+        DurationHistogram h = DurationHistogram.decode(rollup.getHistogramme());
+        h.merge(d.histogram);
+        rollup.setHistogramme(h.encode());
+        rollup.setNombre(rollup.getNombre() + d.nombre);
+        rollup.setTotalHeures(rollup.getTotalHeures() + d.totalHeures);
+    }
+
+    private static String parseDimension(String groupBy) {
+        if (groupBy == null || groupBy.equalsIgnoreCase("global")) {
+            return DIMENSION_GLOBAL;
+        }
+        if (groupBy.equalsIgnoreCase("entreprise")) {
+            return DIMENSION_ENTREPRISE;
+        }
+        if (groupBy.equalsIgnoreCase("ville")) {
+            return DIMENSION_VILLE;
+        }
+        throw new RuntimeException("Invalid groupBy, expected global, entreprise or ville");
+    }
+
+    private static double hours(LocalDateTime from, LocalDateTime to) {
+        return Math.max(0, Duration.between(from, to).toMillis() / 3_600_000.0);
+    }
+
+    private static Double toDays(Double hours) {
+        return hours == null ? null : hours / 24;
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp ts) {
+        return ts == null ? null : ts.toLocalDateTime();
+    }
+}
@@ -1,15 +1,27 @@
 package com.example.carte.service;
 
+import com.example.carte.dto.ReferenceCacheStatusResponse;
+import com.example.carte.dto.RueNearestResponse;
 import com.example.carte.dto.RueRequest;
 import com.example.carte.dto.RueResponse;
+import com.example.carte.dto.RueSuggestionResponse;
 import com.example.carte.entity.Rue;
 import com.example.carte.entity.Ville;
+import com.example.carte.index.ReferenceDataCache;
+import com.example.carte.index.ReferenceDataChangedEvent;
+import com.example.carte.index.RueChangedEvent;
+import com.example.carte.index.RueNameIndex;
+import com.example.carte.index.RueSegment;
+import com.example.carte.index.RueSegmentIndex;
 import com.example.carte.repository.RueRepository;
+import com.example.carte.repository.SignalementRepository;
 import com.example.carte.repository.VilleRepository;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -22,6 +34,25 @@ public class RueService {
     @Autowired
     private VilleRepository villeRepository;
 
+    @Autowired
+    private SignalementRepository signalementRepository;
+
+    @Autowired
+    private RueSegmentIndex rueSegmentIndex;
+
+    @Autowired
+    private RueNameIndex rueNameIndex;
+
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private static final int MAX_NEAREST = 50;
+    private static final int DEFAULT_SUGGESTIONS = 10;
+    private static final int MAX_SUGGESTIONS = 100;
+
     @Transactional
     public RueResponse create(RueRequest request) {
         Ville ville = villeRepository.findById(request.getIdVille())
@@ -36,35 +67,61 @@ public class RueService {
         rue.setLongitudeFin(request.getLongitudeFin());
         rue.setVille(ville);
 
-        return RueResponse.fromRue(rueRepository.save(rue));
+        Rue saved = rueRepository.save(rue);
+        eventPublisher.publishEvent(new RueChangedEvent(saved.getIdRue(), RueSegment.fromRue(saved)));
+        eventPublisher.publishEvent(new ReferenceDataChangedEvent(ReferenceDataCache.Type.RUE));
+        return RueResponse.fromRue(saved);
+    }
+
+    public List<RueNearestResponse> getNearest(double lat, double lon, Integer k, Long idVille) {
+        if (!(lat >= -90 && lat <= 90 && lon >= -180 && lon <= 180)) {
+            throw new RuntimeException("Invalid coordinates");
+        }
+        int count = k == null ? 1 : Math.max(1, Math.min(k, MAX_NEAREST));
+        return rueSegmentIndex.nearest(lat, lon, count, idVille)
+                .stream()
+                .map(RueNearestResponse::fromMatch)
+                .collect(Collectors.toList());
     }
+
     public List<RueResponse> getAll() {
-        return rueRepository.findAll()
+        return referenceDataCache.rues();
+    }
+
+    public List<RueSuggestionResponse> suggest(String prefix, Long idVille, Integer limit) {
+        int count = limit == null ? DEFAULT_SUGGESTIONS : Math.max(1, Math.min(limit, MAX_SUGGESTIONS));
+        return rueNameIndex.suggest(prefix, idVille, count)
                 .stream()
-                .map(RueResponse::fromRue)
+                .map(RueSuggestionResponse::fromSegment)
                 .collect(Collectors.toList());
     }
 
     public RueResponse getById(Long id) {
-        Rue rue = rueRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Rue not found"));
-        return RueResponse.fromRue(rue);
+        RueResponse rue = referenceDataCache.rue(id);
+        if (rue == null) {
+            throw new RuntimeException("Rue not found");
+        }
+        return rue;
     }
 
     public List<RueResponse> getByVille(Long idVille) {
-        Ville ville = villeRepository.findById(idVille)
-                .orElseThrow(() -> new RuntimeException("Ville not found"));
+        if (referenceDataCache.ville(idVille) == null) {
+            throw new RuntimeException("Ville not found");
+        }
+        return referenceDataCache.ruesByVille(idVille);
+    }
 
-        return rueRepository.findByVille(ville)
-                .stream()
-                .map(RueResponse::fromRue)
-                .collect(Collectors.toList());
+    public ReferenceCacheStatusResponse getCacheStatus() {
+        return referenceDataCache.getStatus(ReferenceDataCache.Type.RUE);
     }
 
     @Transactional
     public void delete(Long id) {
         Rue rue = rueRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Rue not found"));
+        signalementRepository.detachRue(id, LocalDateTime.now());
         rueRepository.delete(rue);
+        eventPublisher.publishEvent(new RueChangedEvent(id, null));
+        eventPublisher.publishEvent(new ReferenceDataChangedEvent(ReferenceDataCache.Type.RUE));
     }
 }
@@ -0,0 +1,148 @@
+package com.example.carte.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Flux de changements des signalements, paginé par numéro de changement.
+ * Une écriture remet numero_changement à null ; la numérotation, sur un thread
+ * dédié, donne ensuite des numéros croissants aux lignes committées en attente
+ * en gardant le compteur verrouillé jusqu'à son propre commit. Un numéro n'est
+ * donc lisible qu'avec tous les numéros inférieurs : un client qui reprend
+ * après le dernier numéro lu ne saute aucune ligne, quel que soit l'ordre de
+ * commit des écritures.
+ */
+@Service
+public class SignalementChangeLog {
+
+    private static final String COMPTEUR = "signalement";
+    private static final int BATCH_SIZE = 1000;
+
+    private static final String LOCK_SQL = "SELECT valeur FROM compteur_changement WHERE nom = ? FOR UPDATE";
+    private static final String CREATE_SQL = "INSERT INTO compteur_changement (nom, valeur) VALUES (?, 0)";
+    private static final String SAVE_SQL = "UPDATE compteur_changement SET valeur = ? WHERE nom = ?";
+
+    private static final String PENDING_SIGNALEMENTS_SQL = "SELECT id_signalement FROM signalement "
+            + "WHERE numero_changement IS NULL ORDER BY id_signalement LIMIT ?";
+    private static final String PENDING_SUPPRESSIONS_SQL = "SELECT id_signalement FROM signalement_suppression "
+            + "WHERE numero_changement IS NULL ORDER BY id_signalement LIMIT ?";
+    // La condition IS NULL est réévaluée après l'attente d'une écriture concurrente sur la ligne
+    private static final String NUMBER_SIGNALEMENT_SQL = "UPDATE signalement SET numero_changement = ? "
+            + "WHERE id_signalement = ? AND numero_changement IS NULL";
+    private static final String NUMBER_SUPPRESSION_SQL = "UPDATE signalement_suppression SET numero_changement = ? "
+            + "WHERE id_signalement = ? AND numero_changement IS NULL";
+
+    private static final String READ_SQL = "SELECT numero_changement, id_signalement, FALSE AS supprime "
+            + "FROM signalement WHERE numero_changement > ? "
+            + "UNION ALL SELECT numero_changement, id_signalement, TRUE AS supprime "
+            + "FROM signalement_suppression WHERE numero_changement > ? "
+            + "ORDER BY numero_changement LIMIT ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${signalement.changes.number-interval-ms:1000}")
+    private long numberIntervalMs;
+
+    private ScheduledExecutorService scheduler;
+    private final AtomicLong numberFailures = new AtomicLong();
+
+    // Un changement du flux : signalement créé ou modifié, ou supprimé
+    public record Change(long numero, Long idSignalement, boolean supprime) {
+    }
+
+    @PostConstruct
+    void init() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "signalement-changes");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                number();
+            } catch (RuntimeException e) {
+                // Les lignes restent en attente et seront numérotées au passage suivant
+                numberFailures.incrementAndGet();
+            }
+        }, numberIntervalMs, numberIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Numérote les changements committés en attente, par lots ; renvoie leur nombre.
+     */
+    public long number() {
+        long total = 0;
+        int numbered;
+        do {
+            numbered = transactionTemplate.execute(status -> numberBatch());
+            total += numbered;
+        } while (numbered >= BATCH_SIZE);
+        return total;
+    }
+
+    /**
+     * Changements numérotés après le numéro donné, dans l'ordre du flux.
+     */
+    public List<Change> read(long after, int limit) {
+        return jdbcTemplate.query(READ_SQL,
+                (rs, i) -> new Change(rs.getLong(1), rs.getLong(2), rs.getBoolean(3)),
+                after, after, limit);
+    }
+
+    public long getNumberFailures() {
+        return numberFailures.get();
+    }
+
+    private int numberBatch() {
+        long valeur = lockCompteur();
+        List<Long> signalements = jdbcTemplate.queryForList(PENDING_SIGNALEMENTS_SQL, Long.class, BATCH_SIZE);
+        List<Long> suppressions = jdbcTemplate.queryForList(PENDING_SUPPRESSIONS_SQL, Long.class, BATCH_SIZE);
+        if (signalements.isEmpty() && suppressions.isEmpty()) {
+            return 0;
+        }
+        valeur = assign(NUMBER_SIGNALEMENT_SQL, signalements, valeur);
+        valeur = assign(NUMBER_SUPPRESSION_SQL, suppressions, valeur);
+        jdbcTemplate.update(SAVE_SQL, valeur, COMPTEUR);
+        return Math.max(signalements.size(), suppressions.size());
+    }
+
+    // Verrou tenu jusqu'au commit : deux numérotations ne se chevauchent jamais
+    private long lockCompteur() {
+        List<Long> valeurs = jdbcTemplate.queryForList(LOCK_SQL, Long.class, COMPTEUR);
+        if (valeurs.isEmpty()) {
+            jdbcTemplate.update(CREATE_SQL, COMPTEUR);
+            valeurs = jdbcTemplate.queryForList(LOCK_SQL, Long.class, COMPTEUR);
+        }
+        return valeurs.get(0);
+    }
+
+    private long assign(String sql, List<Long> ids, long valeur) {
+        List<Object[]> args = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            args.add(new Object[]{++valeur, id});
+        }
+        jdbcTemplate.batchUpdate(sql, args);
+        return valeur;
+    }
+}
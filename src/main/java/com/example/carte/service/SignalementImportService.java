@@ -0,0 +1,257 @@
+package com.example.carte.service;
+
+import com.example.carte.dto.SignalementImportResponse;
+import com.example.carte.dto.SignalementImportResult;
+import com.example.carte.dto.SignalementRequest;
+import com.example.carte.index.SignalementChangedEvent;
+import com.example.carte.index.SignalementPoint;
+import com.example.carte.index.RueSegmentIndex;
+import com.example.carte.index.VilleLocator;
+import com.example.carte.repository.EntrepriseRepository;
+import com.example.carte.repository.UserRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.ObjectReader;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Import en masse de signalements (synchronisation Firebase).
+ * Les lignes sont traitées par lots : utilisateurs et entreprises vérifiés en une
+ * requête par lot, identifiants réservés d'un coup sur la séquence de la table,
+ * puis INSERT en batch JDBC. Chaque lot est une transaction.
+ */
+@Service
+public class SignalementImportService {
+
+    private static final String INSERT_SQL = "INSERT INTO signalement (id_signalement, titre, description, "
+            + "latitude, longitude, date_signalement, statut, surface_m2, budget, id_utilisateur, id_entreprise, "
+            + "id_ville, id_rue, sync_state, derniere_maj) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String NEXT_IDS_SQL = "SELECT nextval(pg_get_serial_sequence('signalement', 'id_signalement')) "
+            + "FROM generate_series(1, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntrepriseRepository entrepriseRepository;
+
+    @Autowired
+    private VilleLocator villeLocator;
+
+    @Autowired
+    private RueSegmentIndex rueSegmentIndex;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${signalement.bulk.batch-size:1000}")
+    private int batchSize;
+
+    public SignalementImportResponse importAll(List<SignalementRequest> requests) {
+        List<SignalementImportResult> results = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i += batchSize) {
+            int end = Math.min(i + batchSize, requests.size());
+            results.addAll(importBatch(requests.subList(i, end), IntStream.range(i, end).boxed().toList()));
+        }
+        return toResponse(results);
+    }
+
+    /**
+     * NDJSON : un objet JSON par ligne, lu au fil de l'eau sans charger tout le
+     * corps. Une ligne illisible donne un résultat en erreur à son index (lignes
+     * vides non comptées) et la lecture continue : les lots déjà validés gardent
+     * leurs résultats.
+     */
+    public SignalementImportResponse importNdjson(InputStream in) throws IOException {
+        List<SignalementImportResult> results = new ArrayList<>();
+        List<SignalementRequest> batch = new ArrayList<>(batchSize);
+        List<Integer> indexes = new ArrayList<>(batchSize);
+        ObjectReader reader = objectMapper.readerFor(SignalementRequest.class);
+        int index = 0;
+
+        BufferedReader lines = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        for (String line = lines.readLine(); line != null; line = lines.readLine()) {
+            if (line.isBlank()) {
+                continue;
+            }
+            SignalementRequest request = null;
+            String error = null;
+            try {
+                request = reader.readValue(line);
+            } catch (JacksonException e) {
+                error = "Invalid JSON: " + e.getOriginalMessage();
+            }
+            if (request == null) {
+                results.add(new SignalementImportResult(index++, null, false,
+                        error == null ? "Invalid JSON: expected an object" : error));
+                continue;
+            }
+            batch.add(request);
+            indexes.add(index++);
+            if (batch.size() == batchSize) {
+                results.addAll(importBatch(batch, indexes));
+                batch = new ArrayList<>(batchSize);
+                indexes = new ArrayList<>(batchSize);
+            }
+        }
+        if (!batch.isEmpty()) {
+            results.addAll(importBatch(batch, indexes));
+        }
+        results.sort(Comparator.comparingInt(SignalementImportResult::getIndex));
+        return toResponse(results);
+    }
+
+    // indexes : position de chaque ligne du lot dans l'envoi
+    private List<SignalementImportResult> importBatch(List<SignalementRequest> batch, List<Integer> indexes) {
+        SignalementImportResult[] results = new SignalementImportResult[batch.size()];
+
+        Set<Long> userIds = new HashSet<>();
+        Set<Long> entrepriseIds = new HashSet<>();
+        for (SignalementRequest r : batch) {
+            if (r.getIdUtilisateur() != null) {
+                userIds.add(r.getIdUtilisateur());
+            }
+            if (r.getIdEntreprise() != null) {
+                entrepriseIds.add(r.getIdEntreprise());
+            }
+        }
+        Set<Long> existingUsers = userIds.isEmpty() ? Set.of() : new HashSet<>(userRepository.findExistingIds(userIds));
+        Set<Long> existingEntreprises = entrepriseIds.isEmpty() ? Set.of()
+                : new HashSet<>(entrepriseRepository.findExistingIds(entrepriseIds));
+
+        List<Integer> valid = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            String error = validate(batch.get(i), existingUsers, existingEntreprises);
+            if (error != null) {
+                results[i] = new SignalementImportResult(indexes.get(i), null, false, error);
+            } else {
+                valid.add(i);
+            }
+        }
+
+        if (!valid.isEmpty()) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> insert(batch, valid, results, indexes));
+            } catch (RuntimeException e) {
+                for (int i : valid) {
+                    results[i] = new SignalementImportResult(indexes.get(i), null, false, e.getMessage());
+                }
+            }
+        }
+        return List.of(results);
+    }
+
+    private void insert(List<SignalementRequest> batch, List<Integer> valid,
+                        SignalementImportResult[] results, List<Integer> indexes) {
+        List<Long> ids = jdbcTemplate.queryForList(NEXT_IDS_SQL, Long.class, valid.size());
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        List<SignalementPoint> points = new ArrayList<>(valid.size());
+        List<Long> rues = new ArrayList<>(valid.size());
+        for (int k = 0; k < valid.size(); k++) {
+            SignalementRequest r = batch.get(valid.get(k));
+            double lat = r.getLatitude().doubleValue();
+            double lon = r.getLongitude().doubleValue();
+            Long idVille = villeLocator.locate(lat, lon);
+            points.add(new SignalementPoint(ids.get(k), r.getLatitude(), r.getLongitude(), r.getStatut(),
+                    r.getSurfaceM2(), r.getBudget(), r.getIdEntreprise(), idVille));
+            rues.add(rueSegmentIndex.snap(lat, lon, idVille));
+        }
+
+        List<Integer> rows = IntStream.range(0, valid.size()).boxed().collect(Collectors.toList());
+        jdbcTemplate.batchUpdate(INSERT_SQL, rows, batchSize, (ps, k) -> {
+            SignalementRequest r = batch.get(valid.get(k));
+            SignalementPoint p = points.get(k);
+            ps.setLong(1, p.idSignalement());
+            ps.setString(2, r.getTitre());
+            ps.setString(3, r.getDescription());
+            ps.setBigDecimal(4, r.getLatitude());
+            ps.setBigDecimal(5, r.getLongitude());
+            ps.setTimestamp(6, now);
+            ps.setString(7, r.getStatut());
+            ps.setBigDecimal(8, r.getSurfaceM2());
+            ps.setBigDecimal(9, r.getBudget());
+            ps.setLong(10, r.getIdUtilisateur());
+            setNullableLong(ps, 11, p.idEntreprise());
+            setNullableLong(ps, 12, p.idVille());
+            setNullableLong(ps, 13, rues.get(k));
+            ps.setString(14, "local");
+            ps.setTimestamp(15, now);
+        });
+
+        for (int k = 0; k < valid.size(); k++) {
+            results[valid.get(k)] = new SignalementImportResult(indexes.get(valid.get(k)), ids.get(k), true, null);
+            SignalementRequest r = batch.get(valid.get(k));
+            eventPublisher.publishEvent(new SignalementChangedEvent(null, points.get(k),
+                    r.getTitre(), r.getDescription()));
+        }
+    }
+
+    private String validate(SignalementRequest r, Set<Long> existingUsers, Set<Long> existingEntreprises) {
+        Set<ConstraintViolation<SignalementRequest>> violations = validator.validate(r);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(v -> v.getPropertyPath() + " " + v.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining(", "));
+        }
+        if (!existingUsers.contains(r.getIdUtilisateur())) {
+            return "User not found";
+        }
+        if (r.getIdEntreprise() != null && !existingEntreprises.contains(r.getIdEntreprise())) {
+            return "Entreprise not found";
+        }
+        return null;
+    }
+
+    private static void setNullableLong(PreparedStatement ps, int index, Long value) throws SQLException {
+        if (value == null) {
+            ps.setNull(index, Types.BIGINT);
+        } else {
+            ps.setLong(index, value);
+        }
+    }
+
+    private static SignalementImportResponse toResponse(List<SignalementImportResult> results) {
+        int success = (int) results.stream().filter(SignalementImportResult::isSuccess).count();
+        return new SignalementImportResponse(success, results.size() - success, results);
+    }
+}
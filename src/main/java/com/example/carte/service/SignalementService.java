@@ -1,18 +1,42 @@
 package com.example.carte.service;
 
+import com.example.carte.dto.SignalementChangesResponse;
+import com.example.carte.dto.SignalementClusterResponse;
+import com.example.carte.dto.SignalementPageResponse;
 import com.example.carte.dto.SignalementRequest;
 import com.example.carte.dto.SignalementResponse;
+import com.example.carte.dto.SignalementStatsResponse;
 import com.example.carte.entity.Entreprise;
 import com.example.carte.entity.Signalement;
+import com.example.carte.entity.SignalementSuppression;
 import com.example.carte.entity.User;
+import com.example.carte.index.RueSegmentIndex;
+import com.example.carte.index.SignalementChangedEvent;
+import com.example.carte.index.SignalementClusterIndex;
+import com.example.carte.index.SignalementPoint;
+import com.example.carte.index.SignalementSpatialIndex;
+import com.example.carte.index.SignalementStatistics;
+import com.example.carte.index.SignalementTextIndex;
+import com.example.carte.index.VilleLocator;
 import com.example.carte.repository.EntrepriseRepository;
+import com.example.carte.repository.HistoriqueStatutRepository;
+import com.example.carte.repository.RueRepository;
 import com.example.carte.repository.SignalementRepository;
+import com.example.carte.repository.SignalementSuppressionRepository;
 import com.example.carte.repository.UserRepository;
+import com.example.carte.repository.VilleRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 @Service
@@ -27,6 +51,48 @@ public class SignalementService {
     @Autowired
     private EntrepriseRepository entrepriseRepository;
 
+    @Autowired
+    private VilleRepository villeRepository;
+
+    @Autowired
+    private RueRepository rueRepository;
+
+    @Autowired
+    private SignalementSuppressionRepository signalementSuppressionRepository;
+
+    @Autowired
+    private HistoriqueStatutRepository historiqueStatutRepository;
+
+    @Autowired
+    private SignalementChangeLog signalementChangeLog;
+
+    @Autowired
+    private SignalementSpatialIndex signalementSpatialIndex;
+
+    @Autowired
+    private SignalementClusterIndex signalementClusterIndex;
+
+    @Autowired
+    private SignalementStatistics signalementStatistics;
+
+    @Autowired
+    private SignalementTextIndex signalementTextIndex;
+
+    @Autowired
+    private VilleLocator villeLocator;
+
+    @Autowired
+    private RueSegmentIndex rueSegmentIndex;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private static final int FETCH_BATCH_SIZE = 1000;
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final int DEFAULT_SEARCH_SIZE = 50;
+    private static final int MAX_SEARCH_SIZE = 500;
+
     @Transactional
     public SignalementResponse create(SignalementRequest request) {
         User user = userRepository.findById(request.getIdUtilisateur())
@@ -49,24 +115,168 @@ public class SignalementService {
         s.setUtilisateur(user);
         s.setEntreprise(entreprise);
 
-        return SignalementResponse.fromSignalement(signalementRepository.save(s));
+        double lat = request.getLatitude().doubleValue();
+        double lon = request.getLongitude().doubleValue();
+        Long idVille = villeLocator.locate(lat, lon);
+        if (idVille != null) {
+            s.setVille(villeRepository.getReferenceById(idVille));
+        }
+        Long idRue = rueSegmentIndex.snap(lat, lon, idVille);
+        if (idRue != null) {
+            s.setRue(rueRepository.getReferenceById(idRue));
+        }
+
+        Signalement saved = signalementRepository.save(s);
+        eventPublisher.publishEvent(new SignalementChangedEvent(null, SignalementPoint.fromSignalement(saved),
+                saved.getTitre(), saved.getDescription()));
+        return SignalementResponse.fromSignalement(saved);
     }
 
     public SignalementResponse getById(Long id) {
-        Signalement s = signalementRepository.findById(id)
+        return signalementRepository.findResponseById(id)
                 .orElseThrow(() -> new RuntimeException("Signalement not found"));
-        return SignalementResponse.fromSignalement(s);
     }
 
-    public List<SignalementResponse> getAll() {
-        return signalementRepository.findAll()
+    public SignalementPageResponse getPage(Long after, Integer limit, String statut,
+                                           Long idEntreprise, Long idUtilisateur, LocalDateTime since) {
+        int size = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+
+        // Pagination par clé (seek) : une ligne de plus pour savoir s'il reste une page, sans COUNT
+        List<SignalementResponse> rows = signalementRepository.findPage(after, statut, idEntreprise, idUtilisateur,
+                since, size + 1);
+
+        boolean hasMore = rows.size() > size;
+        List<SignalementResponse> items = hasMore ? rows.subList(0, size) : rows;
+        Long nextCursor = hasMore ? items.get(items.size() - 1).getIdSignalement() : null;
+
+        return new SignalementPageResponse(items, nextCursor, hasMore);
+    }
+
+    public SignalementChangesResponse getChanges(String since, Integer limit) {
+        int size = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        long after = since == null || since.isBlank() ? 0L : decodeCursor(since);
+
+        List<SignalementChangeLog.Change> changes = signalementChangeLog.read(after, size + 1);
+        boolean hasMore = changes.size() > size;
+        if (hasMore) {
+            changes = changes.subList(0, size);
+        }
+
+        List<Long> updatedIds = new ArrayList<>();
+        List<Long> deletedIds = new ArrayList<>();
+        for (SignalementChangeLog.Change c : changes) {
+            (c.supprime() ? deletedIds : updatedIds).add(c.idSignalement());
+            after = c.numero();
+        }
+        // État courant des lignes : une modification plus récente reviendra aussi sous un numéro suivant
+        List<SignalementResponse> updatedItems = fetchResponses(updatedIds);
+
+        return new SignalementChangesResponse(updatedItems, deletedIds, encodeCursor(after), hasMore);
+    }
+
+    private static String encodeCursor(long numero) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(
+                Long.toString(numero).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static long decodeCursor(String cursor) {
+        try {
+            long numero = Long.parseLong(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+            if (numero < 0) {
+                throw new RuntimeException("Invalid cursor");
+            }
+            return numero;
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Invalid cursor");
+        }
+    }
+
+    public List<SignalementResponse> getInBoundingBox(double minLat, double minLon,
+                                                      double maxLat, double maxLon, String statut) {
+        if (minLat > maxLat || minLon > maxLon) {
+            throw new RuntimeException("Invalid bounding box");
+        }
+
+        List<Long> ids = signalementSpatialIndex.query(minLat, minLon, maxLat, maxLon, statut)
+                .stream()
+                .map(SignalementPoint::idSignalement)
+                .sorted()
+                .collect(Collectors.toList());
+
+        return fetchResponses(ids);
+    }
+
+    public List<SignalementResponse> search(String q, String bbox, String statut, Integer limit) {
+        if (q == null || q.isBlank()) {
+            throw new RuntimeException("Empty query");
+        }
+        int size = limit == null ? DEFAULT_SEARCH_SIZE : Math.max(1, Math.min(limit, MAX_SEARCH_SIZE));
+        double[] box = null;
+        if (bbox != null) {
+            double[] b = parseBbox(bbox);
+            box = new double[]{b[1], b[0], b[3], b[2]};
+        }
+
+        List<Long> ids = signalementTextIndex.search(q, box, statut, size)
                 .stream()
-                .map(SignalementResponse::fromSignalement)
+                .map(SignalementTextIndex.Hit::idSignalement)
+                .collect(Collectors.toList());
+
+        // La requête SQL ne garde pas l'ordre du classement : on le rétablit
+        Map<Long, SignalementResponse> byId = fetchResponses(ids).stream()
+                .collect(Collectors.toMap(SignalementResponse::getIdSignalement, r -> r));
+        return ids.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
                 .collect(Collectors.toList());
     }
 
+    // Chargement par lots pour rester sous la limite de paramètres JDBC
+    private List<SignalementResponse> fetchResponses(List<Long> ids) {
+        List<SignalementResponse> result = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i += FETCH_BATCH_SIZE) {
+            result.addAll(signalementRepository.findResponsesByIdIn(
+                    ids.subList(i, Math.min(i + FETCH_BATCH_SIZE, ids.size()))));
+        }
+        return result;
+    }
+
+    public List<SignalementClusterResponse> getClusters(int zoom, String bbox) {
+        double[] b = parseBbox(bbox);
+        return signalementClusterIndex.query(zoom, b[1], b[0], b[3], b[2]);
+    }
+
+    public SignalementStatsResponse getStats() {
+        return signalementStatistics.snapshot();
+    }
+
+    // bbox au format minLon,minLat,maxLon,maxLat
+    private double[] parseBbox(String bbox) {
+        String[] parts = bbox.split(",");
+        if (parts.length != 4) {
+            throw new RuntimeException("Invalid bbox, expected minLon,minLat,maxLon,maxLat");
+        }
+        double[] b = new double[4];
+        try {
+            for (int i = 0; i < 4; i++) {
+                b[i] = Double.parseDouble(parts[i].trim());
+            }
+        } catch (NumberFormatException e) {
+            throw new RuntimeException("Invalid bbox, expected minLon,minLat,maxLon,maxLat");
+        }
+        if (b[0] > b[2] || b[1] > b[3]) {
+            throw new RuntimeException("Invalid bounding box");
+        }
+        return b;
+    }
+
     @Transactional
     public void delete(Long id) {
-        signalementRepository.deleteById(id);
+        signalementRepository.findById(id).ifPresent(s -> {
+            historiqueStatutRepository.deleteBySignalementId(id);
+            signalementRepository.delete(s);
+            signalementSuppressionRepository.save(new SignalementSuppression(id, LocalDateTime.now(), null));
+            eventPublisher.publishEvent(new SignalementChangedEvent(SignalementPoint.fromSignalement(s), null));
+        });
     }
 }
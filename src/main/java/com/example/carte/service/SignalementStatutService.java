@@ -0,0 +1,184 @@
+package com.example.carte.service;
+
+import com.example.carte.analytics.StatutTransition;
+import com.example.carte.dto.BulkStatutUpdateRequest;
+import com.example.carte.dto.EntrepriseWorkloadResponse;
+import com.example.carte.dto.SignalementResponse;
+import com.example.carte.dto.StatutUpdateRequest;
+import com.example.carte.dto.StatutUpdateResponse;
+import com.example.carte.index.SignalementChangedEvent;
+import com.example.carte.index.SignalementPoint;
+import com.example.carte.repository.SignalementRepository;
+import com.example.carte.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Changement de statut des signalements, unitaire ou en masse.
+ * Tout se fait dans une transaction : lecture verrouillée des lignes, un UPDATE
+ * ... WHERE id IN (...) par tranche d'identifiants, puis l'historique en INSERT batch
+ * et la mise à jour des agrégats de ResolutionAnalyticsService.
+ */
+@Service
+public class SignalementStatutService {
+
+    private static final int ID_CHUNK_SIZE = 1000;
+
+    public static final Set<String> STATUTS = Set.of(EntrepriseWorkloadResponse.EN_ATTENTE,
+            EntrepriseWorkloadResponse.EN_COURS, EntrepriseWorkloadResponse.RESOLU);
+
+    // ORDER BY : deux mises à jour en masse concurrentes verrouillent dans le même ordre
+    private static final String SELECT_SQL = "SELECT id_signalement, latitude, longitude, statut, surface_m2, budget, "
+            + "id_entreprise, id_ville, date_signalement FROM signalement WHERE id_signalement IN (:ids) "
+            + "ORDER BY id_signalement FOR UPDATE";
+
+    private static final String LAST_CHANGE_SQL = "SELECT id_signalement, MAX(date_changement) AS dernier "
+            + "FROM historique_statut WHERE id_signalement IN (:ids) GROUP BY id_signalement";
+
+    private static final String UPDATE_SQL = "UPDATE signalement SET statut = :statut, derniere_maj = :now, "
+            + "numero_changement = NULL WHERE id_signalement IN (:ids)";
+
+    private static final String INSERT_HISTORY_SQL = "INSERT INTO historique_statut (id_signalement, ancien_statut, "
+            + "nouveau_statut, date_changement, id_manager) VALUES (?, ?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Autowired
+    private SignalementRepository signalementRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ResolutionAnalyticsService resolutionAnalyticsService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private record Row(SignalementPoint point, LocalDateTime dateSignalement) {
+    }
+
+    @Transactional
+    public SignalementResponse updateStatut(Long id, StatutUpdateRequest request) {
+        StatutUpdateResponse result = apply(List.of(id), request.getStatut(), request.getIdManager());
+        if (!result.getNotFound().isEmpty()) {
+            throw new RuntimeException("Signalement not found");
+        }
+        return signalementRepository.findResponseById(id)
+                .orElseThrow(() -> new RuntimeException("Signalement not found"));
+    }
+
+    @Transactional
+    public StatutUpdateResponse updateStatuts(BulkStatutUpdateRequest request) {
+        return apply(request.getIds(), request.getStatut(), request.getIdManager());
+    }
+
+    private StatutUpdateResponse apply(List<Long> requestedIds, String statut, Long idManager) {
+        // Refusé avant tout verrou sur les lignes
+        if (!STATUTS.contains(statut)) {
+            throw new RuntimeException("Invalid statut");
+        }
+        if (!userRepository.existsById(idManager)) {
+            throw new RuntimeException("Manager not found");
+        }
+        List<Long> ids = new ArrayList<>(new LinkedHashSet<>(requestedIds));
+
+        List<Row> rows = new ArrayList<>(ids.size());
+        for (List<Long> chunk : chunks(ids)) {
+            rows.addAll(namedParameterJdbcTemplate.query(SELECT_SQL, new MapSqlParameterSource("ids", chunk),
+                    (rs, i) -> new Row(new SignalementPoint(rs.getLong("id_signalement"),
+                            rs.getBigDecimal("latitude"), rs.getBigDecimal("longitude"), rs.getString("statut"),
+                            rs.getBigDecimal("surface_m2"), rs.getBigDecimal("budget"),
+                            rs.getObject("id_entreprise", Long.class), rs.getObject("id_ville", Long.class)),
+                            toLocalDateTime(rs.getTimestamp("date_signalement")))));
+        }
+
+        Set<Long> found = new HashSet<>();
+        List<Row> changedRows = new ArrayList<>(rows.size());
+        for (Row r : rows) {
+            found.add(r.point().idSignalement());
+            if (!statut.equals(r.point().statut())) {
+                changedRows.add(r);
+            }
+        }
+        List<Long> notFound = ids.stream().filter(id -> !found.contains(id)).toList();
+        List<SignalementPoint> changed = changedRows.stream().map(Row::point).toList();
+
+        if (!changed.isEmpty()) {
+            LocalDateTime date = LocalDateTime.now();
+            Timestamp now = Timestamp.valueOf(date);
+            List<Long> changedIds = changed.stream().map(SignalementPoint::idSignalement).toList();
+
+            // Début du statut quitté : dernier changement connu, à défaut la création
+            Map<Long, LocalDateTime> lastChange = new HashMap<>();
+            for (List<Long> chunk : chunks(changedIds)) {
+                namedParameterJdbcTemplate.query(LAST_CHANGE_SQL, new MapSqlParameterSource("ids", chunk),
+                        rs -> {
+                            lastChange.put(rs.getLong("id_signalement"), toLocalDateTime(rs.getTimestamp("dernier")));
+                        });
+            }
+
+            for (List<Long> chunk : chunks(changedIds)) {
+                namedParameterJdbcTemplate.update(UPDATE_SQL, new MapSqlParameterSource("ids", chunk)
+                        .addValue("statut", statut)
+                        .addValue("now", now));
+            }
+
+            jdbcTemplate.batchUpdate(INSERT_HISTORY_SQL, changed, ID_CHUNK_SIZE, (ps, p) -> {
+                ps.setLong(1, p.idSignalement());
+                ps.setString(2, p.statut());
+                ps.setString(3, statut);
+                ps.setTimestamp(4, now);
+                ps.setLong(5, idManager);
+            });
+
+            List<StatutTransition> transitions = new ArrayList<>(changedRows.size());
+            for (Row r : changedRows) {
+                SignalementPoint p = r.point();
+                transitions.add(new StatutTransition(p.idSignalement(), p.statut(), statut, r.dateSignalement(),
+                        lastChange.getOrDefault(p.idSignalement(), r.dateSignalement()), date,
+                        p.idEntreprise(), p.idVille()));
+            }
+            resolutionAnalyticsService.record(transitions);
+
+            for (SignalementPoint p : changed) {
+                SignalementPoint current = new SignalementPoint(p.idSignalement(), p.latitude(), p.longitude(),
+                        statut, p.surfaceM2(), p.budget(), p.idEntreprise(), p.idVille());
+                eventPublisher.publishEvent(new SignalementChangedEvent(p, current));
+            }
+        }
+
+        return new StatutUpdateResponse(statut, changed.size(), found.size() - changed.size(), notFound);
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp ts) {
+        return ts == null ? null : ts.toLocalDateTime();
+    }
+
+    private static List<List<Long>> chunks(List<Long> ids) {
+        List<List<Long>> chunks = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i += ID_CHUNK_SIZE) {
+            chunks.add(ids.subList(i, Math.min(i + ID_CHUNK_SIZE, ids.size())));
+        }
+        return chunks;
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.carte.service;
+
+import com.example.carte.index.SignalementChangedEvent;
+import com.example.carte.index.SignalementPoint;
+import com.example.carte.index.SignalementSpatialIndex;
+import com.example.carte.tile.MvtEncoder;
+import com.example.carte.tile.TileCache;
+import com.example.carte.tile.TileMath;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tuiles vectorielles (MVT) des signalements, générées depuis l'index spatial et
+ * gardées dans un cache borné. Une écriture n'invalide que les tuiles qui
+ * contiennent l'ancienne ou la nouvelle position du signalement, à chaque zoom.
+ */
+@Service
+public class SignalementTileService {
+
+    public static final String LAYER_NAME = "signalements";
+
+    @Autowired
+    private SignalementSpatialIndex signalementSpatialIndex;
+
+    @Value("${signalement.tiles.max-zoom:22}")
+    private int maxZoom;
+
+    @Value("${signalement.tiles.cache-bytes:67108864}")
+    private long cacheBytes;
+
+    private TileCache cache;
+
+    // Incrémenté à chaque invalidation : une tuile calculée pendant une écriture n'est pas mise en cache
+    private final AtomicLong version = new AtomicLong();
+
+    @PostConstruct
+    void init() {
+        cache = new TileCache(cacheBytes);
+    }
+
+    public byte[] getTile(int z, int x, int y) {
+        if (!TileMath.isValid(z, x, y, maxZoom)) {
+            throw new RuntimeException("Invalid tile coordinates");
+        }
+        String key = TileCache.key(z, x, y);
+        byte[] tile = cache.get(key);
+        if (tile != null) {
+            return tile;
+        }
+
+        long v = version.get();
+        tile = render(z, x, y);
+        if (version.get() == v) {
+            cache.put(key, tile);
+        }
+        return tile;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSignalementChanged(SignalementChangedEvent event) {
+        version.incrementAndGet();
+        if (event.previous() != null) {
+            invalidate(event.previous());
+        }
+        if (event.current() != null) {
+            invalidate(event.current());
+        }
+    }
+
+    private void invalidate(SignalementPoint p) {
+        for (int z = 0; z <= maxZoom; z++) {
+            cache.evict(TileCache.key(z, tileIndex(TileMath.tileX(p.longitude(), z), z),
+                    tileIndex(TileMath.tileY(p.latitude(), z), z)));
+        }
+    }
+
+    private byte[] render(int z, int x, int y) {
+        double minLon = TileMath.lon(x, z);
+        double maxLon = TileMath.lon(x + 1, z);
+        double maxLat = TileMath.lat(y, z);
+        double minLat = TileMath.lat(y + 1, z);
+
+        MvtEncoder encoder = new MvtEncoder(LAYER_NAME);
+        for (SignalementPoint p : signalementSpatialIndex.query(minLat, minLon, maxLat, maxLon, null)) {
+            int px = toExtent(TileMath.tileX(p.longitude(), z) - x);
+            int py = toExtent(TileMath.tileY(p.latitude(), z) - y);
+
+            Map<String, Object> attributes = new LinkedHashMap<>();
+            attributes.put("statut", p.statut());
+            attributes.put("surfaceM2", p.surfaceM2() != null ? p.surfaceM2().doubleValue() : null);
+            encoder.addPoint(p.idSignalement(), px, py, attributes);
+        }
+        return encoder.encode();
+    }
+
+    private static int toExtent(double offset) {
+        return (int) Math.max(0, Math.min(MvtEncoder.EXTENT - 1, Math.floor(offset * MvtEncoder.EXTENT)));
+    }
+
+    private static int tileIndex(double tileCoordinate, int z) {
+        return (int) Math.max(0, Math.min((1L << z) - 1, (long) Math.floor(tileCoordinate)));
+    }
+}
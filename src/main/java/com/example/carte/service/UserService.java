@@ -3,14 +3,19 @@ package com.example.carte.service;
 import com.example.carte.dto.*;
 import com.example.carte.entity.User;
 import com.example.carte.repository.UserRepository;
-import com.example.carte.security.JwtTokenProvider;
+import com.example.carte.security.LoginThrottle;
+import com.example.carte.security.PasswordHasher;
+import com.example.carte.security.UserChangedEvent;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -24,15 +29,21 @@ public class UserService {
     private PasswordEncoder passwordEncoder;
 
     @Autowired
-    private JwtTokenProvider jwtTokenProvider;
+    private RefreshTokenService refreshTokenService;
 
     @Value("${login.max-attempts:3}")
     private int maxLoginAttempts;
 
-    @Value("${login.lock-duration:15}")
-    private int lockDurationMinutes;
+    @Autowired
+    private LoginThrottle loginThrottle;
 
-    @Transactional
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    // Sans transaction englobante : aucune connexion n'est retenue pendant le hachage
     public AuthResponse registerUser(RegisterRequest request) {
         // Vérifier si l'utilisateur existe déjà
         if (userRepository.existsByUsername(request.getUsername())) {
@@ -53,98 +64,119 @@ public class UserService {
         user.setEnabled(true);
 
         User savedUser = userRepository.save(user);
+        eventPublisher.publishEvent(new UserChangedEvent(savedUser.getUsername()));
 
-        // Générer le token JWT
-        String token = jwtTokenProvider.generateToken(savedUser.getUsername());
-
-        return new AuthResponse(token, savedUser.getId(), savedUser.getUsername(), 
-                              savedUser.getEmail(), savedUser.getRole());
+        // Générer le token JWT et le jeton de rafraîchissement
+        return refreshTokenService.issue(savedUser);
     }
 
-    @Transactional
-    public AuthResponse authenticateUser(LoginRequest request) {
-        User user = userRepository.findByUsername(request.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found"));
+    /**
+     * Connexion sans transaction : les échecs sont comptés en mémoire par
+     * {@link LoginThrottle}, seule la bascule bloqué/débloqué est écrite en base.
+     */
+    public AuthResponse authenticateUser(LoginRequest request, String clientIp) {
+        String username = request.getUsername();
+        long now = System.currentTimeMillis();
+        String refus = loginThrottle.check(username, clientIp, now);
+        if (refus != null) {
+            throw new RuntimeException(refus);
+        }
+
+        User user = userRepository.findByUsername(username).orElse(null);
+        if (user == null) {
+            loginThrottle.recordUnknownUser(clientIp, now);
+            throw new RuntimeException("User not found");
+        }
 
         if (user.isLocked()) {
-            if (user.getLockTime() != null && 
-                LocalDateTime.now().isAfter(user.getLockTime().plusMinutes(lockDurationMinutes))) {
-                unlockUser(user);
-            } else {
+            // Sans date de blocage, le compte reste bloqué jusqu'au déblocage manuel
+            long until = user.getLockTime() == null ? Long.MAX_VALUE : user.getLockTime()
+                    .atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() + loginThrottle.lockDurationMs();
+            if (until > now) {
+                loginThrottle.locked(username, until);
                 throw new RuntimeException("Account is locked. Try again later.");
             }
+            unlockUser(username);
         }
 
         if (!passwordEncoder.matches(request.getPassword(), user.getPassword())) {
-            handleFailedLogin(user);
+            if (loginThrottle.recordFailure(username, clientIp, now)) {
+                userRepository.lock(username, maxLoginAttempts, LocalDateTime.now());
+                eventPublisher.publishEvent(new UserChangedEvent(username));
+                loginThrottle.locked(username, now + loginThrottle.lockDurationMs());
+            }
             throw new RuntimeException("Invalid password");
         }
 
-        if (user.getFailedLoginAttempts() > 0) {
-            user.setFailedLoginAttempts(0);
-            user.setLockTime(null);
-            userRepository.save(user);
-        }
-
-        String token = jwtTokenProvider.generateToken(user.getUsername());
-
-        return new AuthResponse(token, user.getId(), user.getUsername(), 
-                              user.getEmail(), user.getRole());
+        loginThrottle.recordSuccess(username);
+        rehashIfNeeded(user, request.getPassword());
+        return refreshTokenService.issue(user);
     }
 
-    @Transactional
-    protected void handleFailedLogin(User user) {
-        int attempts = user.getFailedLoginAttempts() + 1;
-        user.setFailedLoginAttempts(attempts);
-
-        if (attempts >= maxLoginAttempts) {
-            user.setLocked(true);
-            user.setLockTime(LocalDateTime.now());
+    // Mot de passe haché avec un ancien coût : on profite du mot de passe en clair pour le mettre à jour
+    private void rehashIfNeeded(User user, String password) {
+        if (!passwordEncoder.upgradeEncoding(user.getPassword())) {
+            return;
+        }
+        try {
+            userRepository.rehash(user.getId(), user.getPassword(), passwordEncoder.encode(password));
+        } catch (PasswordHasher.BusyException e) {
+            // Pool saturé : ce sera fait à la prochaine connexion
         }
-
-        userRepository.save(user);
     }
 
-    @Transactional
-    public void unlockUser(User user) {
-        user.setLocked(false);
-        user.setFailedLoginAttempts(0);
-        user.setLockTime(null);
-        userRepository.save(user);
+    public void unlockUser(String username) {
+        userRepository.unlock(username, LocalDateTime.now());
+        eventPublisher.publishEvent(new UserChangedEvent(username));
+        loginThrottle.unlocked(username);
     }
 
-    @Transactional
     public void unlockUserByUsername(String username) {
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        unlockUser(user);
+        if (!userRepository.existsByUsername(username)) {
+            throw new RuntimeException("User not found");
+        }
+        unlockUser(username);
     }
 
-    @Transactional
+    /**
+     * Le hachage, lent, est fait hors transaction ; les champs sont ensuite
+     * appliqués sur la ligne relue et verrouillée, pour ne pas réécrire un état
+     * de blocage changé pendant le hachage.
+     */
     public UserResponse updateUser(Long userId, UpdateUserRequest request) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
-        if (request.getEmail() != null && !request.getEmail().equals(user.getEmail())) {
-            if (userRepository.existsByEmail(request.getEmail())) {
-                throw new RuntimeException("Email already exists");
-            }
-            user.setEmail(request.getEmail());
+        if (!userRepository.existsById(userId)) {
+            throw new RuntimeException("User not found");
         }
+        String password = request.getPassword() != null && !request.getPassword().isEmpty()
+                ? passwordEncoder.encode(request.getPassword())
+                : null;
+
+        User updatedUser = transactionTemplate.execute(status -> {
+            User user = userRepository.findForUpdate(userId)
+                    .orElseThrow(() -> new RuntimeException("User not found"));
+
+            if (request.getEmail() != null && !request.getEmail().equals(user.getEmail())) {
+                if (userRepository.existsByEmail(request.getEmail())) {
+                    throw new RuntimeException("Email already exists");
+                }
+                user.setEmail(request.getEmail());
+            }
 
-        if (request.getFirstName() != null) {
-            user.setFirstName(request.getFirstName());
-        }
+            if (request.getFirstName() != null) {
+                user.setFirstName(request.getFirstName());
+            }
 
-        if (request.getLastName() != null) {
-            user.setLastName(request.getLastName());
-        }
+            if (request.getLastName() != null) {
+                user.setLastName(request.getLastName());
+            }
 
-        if (request.getPassword() != null && !request.getPassword().isEmpty()) {
-            user.setPassword(passwordEncoder.encode(request.getPassword()));
-        }
+            if (password != null) {
+                user.setPassword(password);
+            }
 
-        User updatedUser = userRepository.save(user);
+            return userRepository.save(user);
+        });
+        eventPublisher.publishEvent(new UserChangedEvent(updatedUser.getUsername()));
         return UserResponse.fromUser(updatedUser);
     }
 
@@ -170,6 +202,8 @@ public class UserService {
     public void deleteUser(Long userId) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
+        refreshTokenService.revokeAll(userId);
         userRepository.delete(user);
+        eventPublisher.publishEvent(new UserChangedEvent(user.getUsername()));
     }
 }
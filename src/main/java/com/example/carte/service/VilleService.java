@@ -1,15 +1,21 @@
 package com.example.carte.service;
 
+import com.example.carte.dto.ReferenceCacheStatusResponse;
 import com.example.carte.dto.VilleRequest;
 import com.example.carte.dto.VilleResponse;
 import com.example.carte.entity.Ville;
+import com.example.carte.index.PolygonCodec;
+import com.example.carte.index.ReferenceDataCache;
+import com.example.carte.index.ReferenceDataChangedEvent;
+import com.example.carte.index.VilleChangedEvent;
+import com.example.carte.index.VilleLocator;
 import com.example.carte.repository.VilleRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 public class VilleService {
@@ -17,6 +23,15 @@ public class VilleService {
     @Autowired
     private VilleRepository villeRepository;
 
+    @Autowired
+    private VilleLocator villeLocator;
+
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     @Transactional
     public VilleResponse create(VilleRequest request) {
         if (villeRepository.existsByNom(request.getNom())) {
@@ -28,21 +43,24 @@ public class VilleService {
         ville.setLatitude(request.getLatitude());
         ville.setLongitude(request.getLongitude());
         ville.setRayonKm(request.getRayonKm());
+        ville.setFrontiere(encodeFrontiere(request.getFrontiere()));
 
-        return VilleResponse.fromVille(villeRepository.save(ville));
+        Ville saved = villeRepository.save(ville);
+        eventPublisher.publishEvent(new VilleChangedEvent(saved.getIdVille(), saved));
+        eventPublisher.publishEvent(new ReferenceDataChangedEvent(ReferenceDataCache.Type.VILLE));
+        return VilleResponse.fromVille(saved);
     }
 
     public VilleResponse getById(Long id) {
-        Ville ville = villeRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Ville not found"));
-        return VilleResponse.fromVille(ville);
+        VilleResponse ville = referenceDataCache.ville(id);
+        if (ville == null) {
+            throw new RuntimeException("Ville not found");
+        }
+        return ville;
     }
 
     public List<VilleResponse> getAll() {
-        return villeRepository.findAll()
-                .stream()
-                .map(VilleResponse::fromVille)
-                .collect(Collectors.toList());
+        return referenceDataCache.villes();
     }
 
     @Transactional
@@ -54,8 +72,24 @@ public class VilleService {
         ville.setLatitude(request.getLatitude());
         ville.setLongitude(request.getLongitude());
         ville.setRayonKm(request.getRayonKm());
+        ville.setFrontiere(encodeFrontiere(request.getFrontiere()));
 
-        return VilleResponse.fromVille(villeRepository.save(ville));
+        Ville saved = villeRepository.save(ville);
+        eventPublisher.publishEvent(new VilleChangedEvent(saved.getIdVille(), saved));
+        eventPublisher.publishEvent(new ReferenceDataChangedEvent(ReferenceDataCache.Type.VILLE));
+        return VilleResponse.fromVille(saved);
+    }
+
+    public VilleResponse locate(double lat, double lon) {
+        VilleResponse ville = villeLocator.locateVille(lat, lon);
+        if (ville == null) {
+            throw new RuntimeException("Ville not found");
+        }
+        return ville;
+    }
+
+    public ReferenceCacheStatusResponse getCacheStatus() {
+        return referenceDataCache.getStatus(ReferenceDataCache.Type.VILLE);
     }
 
     @Transactional
@@ -63,5 +97,36 @@ public class VilleService {
         Ville ville = villeRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Ville not found"));
         villeRepository.delete(ville);
+        eventPublisher.publishEvent(new VilleChangedEvent(id, null));
+        eventPublisher.publishEvent(new ReferenceDataChangedEvent(ReferenceDataCache.Type.VILLE));
+    }
+
+    private static byte[] encodeFrontiere(List<List<List<Double>>> frontiere) {
+        if (frontiere == null || frontiere.isEmpty()) {
+            return null;
+        }
+        double[][] rings = new double[frontiere.size()][];
+        for (int r = 0; r < frontiere.size(); r++) {
+            List<List<Double>> ring = frontiere.get(r);
+            // Le point de fermeture GeoJSON (identique au premier) est implicite
+            int n = ring.size();
+            if (n > 1 && ring.get(0).equals(ring.get(n - 1))) {
+                n--;
+            }
+            if (n < 3) {
+                throw new RuntimeException("Invalid frontiere: a ring needs at least 3 points");
+            }
+            double[] flat = new double[n * 2];
+            for (int i = 0; i < n; i++) {
+                List<Double> point = ring.get(i);
+                if (point == null || point.size() < 2 || point.get(0) == null || point.get(1) == null) {
+                    throw new RuntimeException("Invalid frontiere: points are [lon, lat]");
+                }
+                flat[2 * i] = point.get(0);
+                flat[2 * i + 1] = point.get(1);
+            }
+            rings[r] = flat;
+        }
+        return PolygonCodec.encode(rings);
     }
 }
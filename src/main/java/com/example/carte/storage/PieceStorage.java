@@ -0,0 +1,220 @@
+package com.example.carte.storage;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * Fichiers des pièces jointes sur disque, adressés par leur contenu : chaque
+ * fichier est rangé sous son SHA-256, réparti en sous-répertoires selon les
+ * premiers caractères (ab/cd/abcd…), et les envois identiques partagent le même
+ * fichier. Le contenu est recopié par blocs de taille fixe dans un fichier
+ * temporaire, haché au passage, puis mis en place d'un seul coup : un fichier
+ * n'est jamais entièrement chargé en mémoire, et un envoi interrompu ne laisse
+ * pas de fichier tronqué.
+ *
+ * Les chemins stockés en base sont relatifs à la racine ; tout chemin qui en
+ * sortirait est refusé. Les vignettes sont rangées à côté de l'original :
+ * ab/cd/abcd… a pour variantes ab/cd/abcd….160.jpg, ….480.jpg…
+ */
+@Component
+public class PieceStorage {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String TMP_DIR = "tmp";
+    private static final Pattern SHA256_CHEMIN = Pattern.compile("[0-9a-f]{2}/[0-9a-f]{2}/[0-9a-f]{64}");
+
+    @Value("${pieces.storage.dir:uploads/pieces}")
+    private String storageDir;
+
+    private Path root;
+
+    // Fichier reçu, encore dans le répertoire temporaire
+    public record Staged(Path tmp, String sha256, long taille) {
+    }
+
+    @FunctionalInterface
+    public interface Writer {
+        void write(OutputStream out) throws IOException;
+    }
+
+    @PostConstruct
+    void init() {
+        root = Path.of(storageDir).toAbsolutePath().normalize();
+        try {
+            Files.createDirectories(root.resolve(TMP_DIR));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Recopie le flux dans un fichier temporaire en calculant son SHA-256
+    public Staged stage(InputStream in) {
+        Path tmp = root.resolve(TMP_DIR).resolve(UUID.randomUUID() + ".part");
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            long taille = copy(in, tmp, digest);
+            return new Staged(tmp, HexFormat.of().formatHex(digest.digest()), taille);
+        } catch (IOException e) {
+            deleteQuietly(tmp);
+            throw new UncheckedIOException(e);
+        } catch (NoSuchAlgorithmException e) {
+            deleteQuietly(tmp);
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Met le fichier reçu à sa place et renvoie son chemin. Si ce contenu est
+     * déjà stocké, le fichier reçu est simplement supprimé : rien n'est réécrit.
+     */
+    public String commit(Staged staged) {
+        String chemin = chemin(staged.sha256());
+        Path target = root.resolve(chemin);
+        try {
+            if (Files.isRegularFile(target)) {
+                deleteQuietly(staged.tmp());
+            } else {
+                Files.createDirectories(target.getParent());
+                // Deux envois simultanés du même contenu : le second remplace le premier par les mêmes octets
+                Files.move(staged.tmp(), target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            }
+            return chemin;
+        } catch (IOException e) {
+            deleteQuietly(staged.tmp());
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void discard(Staged staged) {
+        deleteQuietly(staged.tmp());
+    }
+
+    public static String chemin(String sha256) {
+        return sha256.substring(0, 2) + "/" + sha256.substring(2, 4) + "/" + sha256;
+    }
+
+    // SHA-256 d'un chemin produit par commit, null pour tout autre chemin
+    public static String sha256Of(String chemin) {
+        if (chemin == null || !SHA256_CHEMIN.matcher(chemin).matches()) {
+            return null;
+        }
+        String sha256 = chemin.substring(6);
+        return chemin.equals(chemin(sha256)) ? sha256 : null;
+    }
+
+    /**
+     * Fichier correspondant à un chemin enregistré, ou null s'il n'existe pas
+     * ou n'est pas sous la racine (anciens chemins saisis par les clients).
+     */
+    public Path resolve(String chemin) {
+        if (chemin == null || chemin.isBlank()) {
+            return null;
+        }
+        Path path;
+        try {
+            path = root.resolve(chemin).normalize();
+        } catch (RuntimeException e) {
+            return null;
+        }
+        if (!path.startsWith(root) || path.startsWith(root.resolve(TMP_DIR)) || !Files.isRegularFile(path)) {
+            return null;
+        }
+        return path;
+    }
+
+    /**
+     * Emplacement de la variante de taille size d'un fichier stocké, qu'elle
+     * existe ou non ; null si le chemin n'est pas sous la racine.
+     */
+    public Path variant(String chemin, int size) {
+        Path original = resolve(chemin);
+        return original == null ? null : original.resolveSibling(baseName(original) + "." + size + ".jpg");
+    }
+
+    // Écrit la variante dans un fichier temporaire puis la met en place d'un coup
+    public void writeVariant(String chemin, int size, Writer writer) throws IOException {
+        Path target = variant(chemin, size);
+        if (target == null) {
+            throw new IOException("File not found: " + chemin);
+        }
+        Path tmp = root.resolve(TMP_DIR).resolve(UUID.randomUUID() + ".part");
+        try {
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(tmp, StandardOpenOption.CREATE_NEW),
+                    BUFFER_SIZE)) {
+                writer.write(out);
+            }
+            Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            deleteQuietly(tmp);
+        }
+    }
+
+    // Supprime le fichier et ses variantes
+    public void delete(String chemin) {
+        Path path = resolve(chemin);
+        if (path == null) {
+            return;
+        }
+        try (DirectoryStream<Path> variants = Files.newDirectoryStream(path.getParent(), baseName(path) + ".*.jpg")) {
+            for (Path v : variants) {
+                if (!v.equals(path)) {
+                    deleteQuietly(v);
+                }
+            }
+        } catch (IOException ignored) {
+            // Les variantes orphelines n'empêchent pas la suppression de l'original
+        }
+        deleteQuietly(path);
+    }
+
+    private static String baseName(Path path) {
+        String name = path.getFileName().toString();
+        int dot = name.indexOf('.');
+        return dot < 0 ? name : name.substring(0, dot);
+    }
+
+    private static long copy(InputStream in, Path target, MessageDigest digest) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        long total = 0;
+        try (FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            int n;
+            while ((n = in.read(buffer.array(), 0, buffer.capacity())) != -1) {
+                digest.update(buffer.array(), 0, n);
+                buffer.position(0).limit(n);
+                while (buffer.hasRemaining()) {
+                    out.write(buffer);
+                }
+                total += n;
+            }
+            out.force(false);
+        }
+        return total;
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ignored) {
+            // Un fichier orphelin sur disque ne doit pas faire échouer l'opération
+        }
+    }
+}
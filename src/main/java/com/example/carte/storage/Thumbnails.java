@@ -0,0 +1,111 @@
+package com.example.carte.storage;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.Iterator;
+
+/**
+ * Réduction d'images pour les vignettes des pièces jointes (ImageIO, sans
+ * dépendance externe).
+ */
+public final class Thumbnails {
+
+    private Thumbnails() {
+    }
+
+    /**
+     * Décode l'image en la sous-échantillonnant dès la lecture, de sorte qu'il
+     * reste au moins 2 × maxSize pixels sur le plus grand côté : une photo de
+     * 12 Mpx n'est jamais décodée en pleine résolution. null si le format n'est
+     * pas lisible.
+     */
+    public static BufferedImage read(Path source, int maxSize) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(source.toFile())) {
+            if (in == null) {
+                return null;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int longest = Math.max(reader.getWidth(0), reader.getHeight(0));
+                int factor = Math.max(1, longest / (2 * maxSize));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(factor, factor, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Image dont le plus grand côté fait au plus size pixels, sur fond blanc
+     * (le JPEG n'a pas de transparence). Réduction par moitiés successives puis
+     * bilinéaire : proche d'un filtre de qualité pour un coût bien moindre.
+     */
+    public static BufferedImage scale(BufferedImage source, int size) {
+        int longest = Math.max(source.getWidth(), source.getHeight());
+        double ratio = Math.min(1.0, (double) size / longest);
+        int targetW = Math.max(1, (int) Math.round(source.getWidth() * ratio));
+        int targetH = Math.max(1, (int) Math.round(source.getHeight() * ratio));
+
+        BufferedImage current = source;
+        int w = source.getWidth();
+        int h = source.getHeight();
+        do {
+            w = Math.max(targetW, w / 2);
+            h = Math.max(targetH, h / 2);
+            if (w < targetW * 2 || h < targetH * 2) {
+                w = targetW;
+                h = targetH;
+            }
+            current = draw(current, w, h);
+        } while (w != targetW || h != targetH);
+        return current;
+    }
+
+    public static void writeJpeg(BufferedImage image, OutputStream out, float quality) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (ImageOutputStream ios = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(ios);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(quality);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    private static BufferedImage draw(BufferedImage source, int w, int h) {
+        BufferedImage target = new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = target.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, w, h);
+            g.drawImage(source, 0, 0, w, h, null);
+        } finally {
+            g.dispose();
+        }
+        return target;
+    }
+}
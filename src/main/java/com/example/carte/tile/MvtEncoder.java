@@ -0,0 +1,136 @@
+package com.example.carte.tile;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Encodeur minimal de tuiles Mapbox Vector Tile (spécification 2.1) pour une
+ * couche de points. Le protobuf est écrit à la main : on n'a besoin que des
+ * messages Tile, Layer, Feature et Value.
+ */
+public class MvtEncoder {
+
+    public static final int EXTENT = 4096;
+
+    private static final int GEOM_POINT = 1;
+    private static final int CMD_MOVE_TO = 1;
+
+    private final String layerName;
+    private final ByteArrayOutputStream features = new ByteArrayOutputStream();
+    private final Map<String, Integer> keys = new LinkedHashMap<>();
+    private final Map<Object, Integer> values = new LinkedHashMap<>();
+    private int featureCount;
+
+    public MvtEncoder(String layerName) {
+        this.layerName = layerName;
+    }
+
+    /**
+     * Ajoute un point, en coordonnées de tuile (0..EXTENT).
+     * Les attributs null sont ignorés ; les valeurs sont String, Long ou Double.
+     */
+    public void addPoint(long id, int x, int y, Map<String, Object> attributes) {
+        List<Integer> tags = new ArrayList<>();
+        for (Map.Entry<String, Object> a : attributes.entrySet()) {
+            if (a.getValue() == null) {
+                continue;
+            }
+            tags.add(keys.computeIfAbsent(a.getKey(), k -> keys.size()));
+            tags.add(values.computeIfAbsent(a.getValue(), v -> values.size()));
+        }
+
+        ByteArrayOutputStream f = new ByteArrayOutputStream();
+        writeTag(f, 1, 0);
+        writeVarint(f, id);
+
+        ByteArrayOutputStream packedTags = new ByteArrayOutputStream();
+        for (int t : tags) {
+            writeVarint(packedTags, t);
+        }
+        writeBytes(f, 2, packedTags.toByteArray());
+
+        writeTag(f, 3, 0);
+        writeVarint(f, GEOM_POINT);
+
+        ByteArrayOutputStream geometry = new ByteArrayOutputStream();
+        writeVarint(geometry, (CMD_MOVE_TO & 0x7) | (1 << 3));
+        writeVarint(geometry, zigZag(x));
+        writeVarint(geometry, zigZag(y));
+        writeBytes(f, 4, geometry.toByteArray());
+
+        writeBytes(features, 2, f.toByteArray());
+        featureCount++;
+    }
+
+    public boolean isEmpty() {
+        return featureCount == 0;
+    }
+
+    public byte[] encode() {
+        if (featureCount == 0) {
+            return new byte[0];
+        }
+        ByteArrayOutputStream layer = new ByteArrayOutputStream();
+        writeTag(layer, 15, 0);
+        writeVarint(layer, 2);
+        writeBytes(layer, 1, layerName.getBytes(StandardCharsets.UTF_8));
+        layer.writeBytes(features.toByteArray());
+        for (String k : keys.keySet()) {
+            writeBytes(layer, 3, k.getBytes(StandardCharsets.UTF_8));
+        }
+        for (Object v : values.keySet()) {
+            writeBytes(layer, 4, encodeValue(v));
+        }
+        writeTag(layer, 5, 0);
+        writeVarint(layer, EXTENT);
+
+        ByteArrayOutputStream tile = new ByteArrayOutputStream();
+        writeBytes(tile, 3, layer.toByteArray());
+        return tile.toByteArray();
+    }
+
+    private static byte[] encodeValue(Object v) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        if (v instanceof String s) {
+            writeBytes(out, 1, s.getBytes(StandardCharsets.UTF_8));
+        } else if (v instanceof Double d) {
+            writeTag(out, 3, 1);
+            long bits = Double.doubleToLongBits(d);
+            for (int i = 0; i < 8; i++) {
+                out.write((int) (bits >>> (8 * i)) & 0xff);
+            }
+        } else if (v instanceof Long l) {
+            writeTag(out, 6, 0);
+            writeVarint(out, zigZag(l));
+        } else {
+            throw new IllegalArgumentException("Unsupported MVT value type: " + v.getClass());
+        }
+        return out.toByteArray();
+    }
+
+    private static void writeTag(ByteArrayOutputStream out, int field, int wireType) {
+        writeVarint(out, ((long) field << 3) | wireType);
+    }
+
+    private static void writeBytes(ByteArrayOutputStream out, int field, byte[] data) {
+        writeTag(out, field, 2);
+        writeVarint(out, data.length);
+        out.writeBytes(data);
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long zigZag(long n) {
+        return (n << 1) ^ (n >> 63);
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.carte.tile;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Cache LRU de tuiles, borné par la taille cumulée des octets stockés.
+ * Chaque entrée est comptée avec un surcoût fixe (clé, entrée de la map) :
+ * même des tuiles vides ne peuvent pas faire grossir le cache sans limite.
+ */
+public class TileCache {
+
+    static final int ENTRY_OVERHEAD = 128;
+
+    private final long maxBytes;
+    private final LinkedHashMap<String, byte[]> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private long currentBytes;
+
+    public TileCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    public static String key(int z, int x, int y) {
+        return z + "/" + x + "/" + y;
+    }
+
+    public synchronized byte[] get(String key) {
+        return entries.get(key);
+    }
+
+    public synchronized void put(String key, byte[] data) {
+        if (cost(data) > maxBytes) {
+            return;
+        }
+        byte[] old = entries.put(key, data);
+        if (old != null) {
+            currentBytes -= cost(old);
+        }
+        currentBytes += cost(data);
+
+        Iterator<Map.Entry<String, byte[]>> it = entries.entrySet().iterator();
+        while (currentBytes > maxBytes && it.hasNext()) {
+            currentBytes -= cost(it.next().getValue());
+            it.remove();
+        }
+    }
+
+    public synchronized void evict(String key) {
+        byte[] old = entries.remove(key);
+        if (old != null) {
+            currentBytes -= cost(old);
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long sizeInBytes() {
+        return currentBytes;
+    }
+
+    private static long cost(byte[] data) {
+        return (long) data.length + ENTRY_OVERHEAD;
+    }
+}
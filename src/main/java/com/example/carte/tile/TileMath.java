@@ -0,0 +1,39 @@
+package com.example.carte.tile;
+
+/**
+ * Conversions entre coordonnées WGS84 et tuiles Web Mercator (schéma XYZ).
+ */
+public final class TileMath {
+
+    public static final double MAX_LATITUDE = 85.05112878;
+
+    private TileMath() {
+    }
+
+    // Position en unités de tuiles (partie entière = numéro de tuile) au zoom z
+    public static double tileX(double lon, int z) {
+        return (lon + 180.0) / 360.0 * (1L << z);
+    }
+
+    public static double tileY(double lat, int z) {
+        double rad = Math.toRadians(Math.max(-MAX_LATITUDE, Math.min(MAX_LATITUDE, lat)));
+        return (1.0 - Math.log(Math.tan(rad) + 1.0 / Math.cos(rad)) / Math.PI) / 2.0 * (1L << z);
+    }
+
+    public static double lon(double tileX, int z) {
+        return tileX / (1L << z) * 360.0 - 180.0;
+    }
+
+    public static double lat(double tileY, int z) {
+        double n = Math.PI * (1.0 - 2.0 * tileY / (1L << z));
+        return Math.toDegrees(Math.atan(Math.sinh(n)));
+    }
+
+    public static boolean isValid(int z, int x, int y, int maxZoom) {
+        if (z < 0 || z > maxZoom) {
+            return false;
+        }
+        long n = 1L << z;
+        return x >= 0 && x < n && y >= 0 && y < n;
+    }
+}
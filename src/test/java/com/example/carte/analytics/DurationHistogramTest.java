@@ -0,0 +1,46 @@
+package com.example.carte.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class DurationHistogramTest {
+
+    @Test
+    void medianIsInterpolatedWithinDailyBuckets() {
+        DurationHistogram h = new DurationHistogram();
+        // 1 à 30 jours, un point par jour au milieu de la journée
+        for (int day = 0; day < 30; day++) {
+            h.add(day * 24 + 12);
+        }
+
+        assertThat(h.count()).isEqualTo(30);
+        assertThat(h.quantile(0.5) / 24).isCloseTo(15.0, within(1.0));
+        assertThat(h.quantile(0.9) / 24).isCloseTo(27.0, within(1.0));
+    }
+
+    @Test
+    void encodedHistogramsMergeLikeTheRawData() {
+        DurationHistogram a = new DurationHistogram();
+        DurationHistogram b = new DurationHistogram();
+        DurationHistogram all = new DurationHistogram();
+        for (int i = 0; i < 1000; i++) {
+            double hours = i * 7.3;
+            (i % 2 == 0 ? a : b).add(hours);
+            all.add(hours);
+        }
+
+        DurationHistogram merged = DurationHistogram.decode(a.encode());
+        merged.merge(DurationHistogram.decode(b.encode()));
+
+        assertThat(merged.encode()).isEqualTo(all.encode());
+        assertThat(merged.quantile(0.5)).isEqualTo(all.quantile(0.5));
+    }
+
+    @Test
+    void emptyHistogramHasNoQuantile() {
+        assertThat(new DurationHistogram().quantile(0.5)).isNull();
+        assertThat(DurationHistogram.decode(null).count()).isZero();
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.carte.controller;
+
+import com.example.carte.service.BasemapService;
+import com.example.carte.tile.TileCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class BasemapControllerTest {
+
+    private static final byte[] TILE = {1, 2, 3, 4};
+
+    @TempDir
+    Path dir;
+
+    private BasemapService service;
+    private MockMvc mvc;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Path mbtiles = dir.resolve("basemap.mbtiles");
+        try (Connection c = DriverManager.getConnection("jdbc:sqlite:" + mbtiles);
+             Statement st = c.createStatement()) {
+            st.execute("CREATE TABLE metadata (name TEXT, value TEXT)");
+            st.execute("CREATE TABLE tiles (zoom_level INTEGER, tile_column INTEGER, tile_row INTEGER, tile_data BLOB)");
+            st.execute("INSERT INTO metadata VALUES ('format', 'png')");
+            // Tuile 1/0/0 en XYZ, soit la ligne TMS 1
+            try (PreparedStatement ps = c.prepareStatement("INSERT INTO tiles VALUES (1, 0, 1, ?)")) {
+                ps.setBytes(1, TILE);
+                ps.executeUpdate();
+            }
+        }
+
+        service = new BasemapService();
+        ReflectionTestUtils.setField(service, "mbtilesPath", mbtiles.toString());
+        ReflectionTestUtils.setField(service, "poolSize", 1);
+        ReflectionTestUtils.setField(service, "cacheBytes", 1024L);
+        ReflectionTestUtils.setField(service, "missingCacheBytes", 4096L);
+        ReflectionTestUtils.invokeMethod(service, "init");
+
+        BasemapController controller = new BasemapController();
+        ReflectionTestUtils.setField(controller, "basemapService", service);
+        ReflectionTestUtils.setField(controller, "cacheMaxAgeSeconds", 60L);
+        mvc = MockMvcBuilders.standaloneSetup(controller).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.invokeMethod(service, "close");
+    }
+
+    @Test
+    void servesTileWithEtag() throws Exception {
+        mvc.perform(get("/api/basemap/1/0/0"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, service.etag(1, 0, 0)))
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "image/png"))
+                .andExpect(content().bytes(TILE));
+    }
+
+    @Test
+    void matchingEtagReturns304() throws Exception {
+        String etag = service.etag(1, 0, 0);
+
+        mvc.perform(get("/api/basemap/1/0/0").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag));
+        mvc.perform(get("/api/basemap/1/0/0").header(HttpHeaders.IF_NONE_MATCH, "W/" + etag))
+                .andExpect(status().isNotModified());
+        mvc.perform(get("/api/basemap/1/0/0").header(HttpHeaders.IF_NONE_MATCH, "*"))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void otherEtagServesTile() throws Exception {
+        mvc.perform(get("/api/basemap/1/0/0").header(HttpHeaders.IF_NONE_MATCH, service.etag(1, 1, 0)))
+                .andExpect(status().isOk())
+                .andExpect(content().bytes(TILE));
+    }
+
+    @Test
+    void wildcardDoesNotHideMissingOrInvalidTiles() throws Exception {
+        mvc.perform(get("/api/basemap/1/1/1").header(HttpHeaders.IF_NONE_MATCH, "*"))
+                .andExpect(status().isNoContent());
+        mvc.perform(get("/api/basemap/1/5/0").header(HttpHeaders.IF_NONE_MATCH, "*"))
+                .andExpect(status().isBadRequest());
+        mvc.perform(get("/api/basemap/1/1/1").header(HttpHeaders.IF_NONE_MATCH, service.etag(1, 1, 1)))
+                .andExpect(status().isNoContent());
+    }
+
+    @Test
+    void missingTilesDoNotEvictRealTiles() throws Exception {
+        mvc.perform(get("/api/basemap/1/0/0")).andExpect(status().isOk());
+
+        for (int x = 0; x < 1000; x++) {
+            mvc.perform(get("/api/basemap/30/" + x + "/0")).andExpect(status().isNoContent());
+        }
+
+        TileCache cache = (TileCache) ReflectionTestUtils.getField(service, "cache");
+        TileCache missing = (TileCache) ReflectionTestUtils.getField(service, "missing");
+        assertThat(cache.get(TileCache.key(1, 0, 0))).isEqualTo(TILE);
+        assertThat(cache.size()).isEqualTo(1);
+        assertThat(missing.sizeInBytes()).isLessThanOrEqualTo(4096);
+        assertThat(missing.get(TileCache.key(30, 999, 0))).isEmpty();
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.carte.controller;
+
+import com.example.carte.service.PieceJointeService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class PieceJointeControllerTest {
+
+    private static final String CONTENU = "0123456789abcdefghij";
+    private static final String ETAG = "\"abc123\"";
+
+    @TempDir
+    Path dir;
+
+    private MockMvc mvc;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Path path = Files.writeString(dir.resolve("fichier.txt"), CONTENU, StandardCharsets.UTF_8);
+        PieceJointeService.Fichier fichier = new PieceJointeService.Fichier(path, CONTENU.length(), "text/plain", ETAG);
+        PieceJointeService service = new PieceJointeService() {
+            @Override
+            public Fichier getFichier(Long id) {
+                if (id != 1L) {
+                    throw new RuntimeException("Pièce jointe not found");
+                }
+                return fichier;
+            }
+        };
+
+        PieceJointeController controller = new PieceJointeController();
+        ReflectionTestUtils.setField(controller, "pieceJointeService", service);
+        ReflectionTestUtils.setField(controller, "cacheMaxAgeSeconds", 60L);
+        mvc = MockMvcBuilders.standaloneSetup(controller).build();
+    }
+
+    @Test
+    void servesWholeFileWithEtag() throws Exception {
+        MvcResult started = mvc.perform(get("/api/pieces/1/fichier"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, ETAG))
+                .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, CONTENU.length()))
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_RANGE))
+                .andExpect(content().string(CONTENU));
+    }
+
+    @Test
+    void rangeReturnsPartialContent() throws Exception {
+        MvcResult started = mvc.perform(get("/api/pieces/1/fichier").header(HttpHeaders.RANGE, "bytes=5-9"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mvc.perform(asyncDispatch(started))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 5-9/20"))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, 5))
+                .andExpect(content().string("56789"));
+    }
+
+    @Test
+    void suffixRangeReturnsLastBytes() throws Exception {
+        MvcResult started = mvc.perform(get("/api/pieces/1/fichier").header(HttpHeaders.RANGE, "bytes=-4"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mvc.perform(asyncDispatch(started))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 16-19/20"))
+                .andExpect(content().string("ghij"));
+    }
+
+    @Test
+    void staleIfRangeReturnsWholeFile() throws Exception {
+        MvcResult started = mvc.perform(get("/api/pieces/1/fichier")
+                        .header(HttpHeaders.RANGE, "bytes=5-9")
+                        .header(HttpHeaders.IF_RANGE, "\"autre\""))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_RANGE))
+                .andExpect(content().string(CONTENU));
+    }
+
+    @Test
+    void unsatisfiableRangeReturns416() throws Exception {
+        mvc.perform(get("/api/pieces/1/fichier").header(HttpHeaders.RANGE, "bytes=20-30"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */20"));
+    }
+
+    @Test
+    void matchingIfNoneMatchReturns304() throws Exception {
+        mvc.perform(get("/api/pieces/1/fichier").header(HttpHeaders.IF_NONE_MATCH, "\"autre\", " + ETAG))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, ETAG))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void otherIfNoneMatchServesFile() throws Exception {
+        MvcResult started = mvc.perform(get("/api/pieces/1/fichier").header(HttpHeaders.IF_NONE_MATCH, "\"autre\""))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().string(CONTENU));
+    }
+
+    @Test
+    void unknownPieceReturns404() throws Exception {
+        mvc.perform(get("/api/pieces/2/fichier").header(HttpHeaders.IF_NONE_MATCH, "*"))
+                .andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.carte.controller;
+
+import com.example.carte.index.SignalementChangedEvent;
+import com.example.carte.index.SignalementClusterIndex;
+import com.example.carte.index.SignalementPoint;
+import com.example.carte.service.SignalementService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.math.BigDecimal;
+
+import static org.hamcrest.Matchers.closeTo;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class SignalementControllerTest {
+
+    private SignalementClusterIndex clusterIndex;
+    private MockMvc mvc;
+
+    @BeforeEach
+    void setUp() {
+        clusterIndex = new SignalementClusterIndex();
+        ReflectionTestUtils.setField(clusterIndex, "maxZoom", 18);
+        ReflectionTestUtils.setField(clusterIndex, "radiusPx", 64);
+        ReflectionTestUtils.invokeMethod(clusterIndex, "init");
+
+        SignalementService service = new SignalementService();
+        ReflectionTestUtils.setField(service, "signalementClusterIndex", clusterIndex);
+
+        SignalementController controller = new SignalementController();
+        ReflectionTestUtils.setField(controller, "signalementService", service);
+        mvc = MockMvcBuilders.standaloneSetup(controller).build();
+    }
+
+    private void add(long id, double lat, double lon, String statut, String surface) {
+        clusterIndex.onSignalementChanged(new SignalementChangedEvent(null,
+                new SignalementPoint(id, lat, lon, statut, new BigDecimal(surface), null, null, null)));
+    }
+
+    @Test
+    void clustersAreReturnedForVisibleCells() throws Exception {
+        add(1, -18.9100, 47.5200, "EN_ATTENTE", "10");
+        add(2, -18.9120, 47.5220, "RESOLU", "4");
+        add(3, -18.1500, 49.4000, "EN_ATTENTE", "1");
+
+        mvc.perform(get("/api/signalements/clusters")
+                        .param("zoom", "8")
+                        .param("bbox", "47.0,-19.5,48.0,-18.5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].count").value(2))
+                .andExpect(jsonPath("$[0].statuts.EN_ATTENTE").value(1))
+                .andExpect(jsonPath("$[0].statuts.RESOLU").value(1))
+                .andExpect(jsonPath("$[0].surfaceM2").value(14))
+                .andExpect(jsonPath("$[0].latitude").value(closeTo(-18.911, 1e-9)))
+                .andExpect(jsonPath("$[0].longitude").value(closeTo(47.521, 1e-9)));
+
+        mvc.perform(get("/api/signalements/clusters")
+                        .param("zoom", "2")
+                        .param("bbox", "-180,-85,180,85"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].count").value(3));
+    }
+
+    @Test
+    void invalidBboxIsRejected() throws Exception {
+        mvc.perform(get("/api/signalements/clusters").param("zoom", "8").param("bbox", "47.0,-19.5,48.0"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Invalid bbox, expected minLon,minLat,maxLon,maxLat"));
+        mvc.perform(get("/api/signalements/clusters").param("zoom", "8").param("bbox", "48.0,-19.5,47.0,-18.5"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Invalid bounding box"));
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.carte.index;
+
+import com.example.carte.entity.Entreprise;
+import com.example.carte.entity.Rue;
+import com.example.carte.entity.Ville;
+import com.example.carte.repository.EntrepriseRepository;
+import com.example.carte.repository.RueRepository;
+import com.example.carte.repository.VilleRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Import(ReferenceDataCache.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ReferenceDataCacheTest {
+
+    @Autowired
+    private ReferenceDataCache cache;
+
+    @Autowired
+    private VilleRepository villeRepository;
+
+    @Autowired
+    private RueRepository rueRepository;
+
+    @Autowired
+    private EntrepriseRepository entrepriseRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Ville ville;
+
+    @BeforeEach
+    void setUp() {
+        rueRepository.deleteAll();
+        villeRepository.deleteAll();
+        entrepriseRepository.deleteAll();
+        for (ReferenceDataCache.Type type : ReferenceDataCache.Type.values()) {
+            cache.onReferenceDataChanged(new ReferenceDataChangedEvent(type));
+        }
+
+        ville = new Ville();
+        ville.setNom("Antananarivo");
+        ville.setLatitude(new BigDecimal("-18.9100000"));
+        ville.setLongitude(new BigDecimal("47.5200000"));
+        ville = villeRepository.save(ville);
+        rue("Avenue de l'Indépendance");
+        rue("Rue Ratsimilaho");
+    }
+
+    private void rue(String nom) {
+        Rue rue = new Rue();
+        rue.setNom(nom);
+        rue.setLatitudeDebut(new BigDecimal("-18.9100000"));
+        rue.setLongitudeDebut(new BigDecimal("47.5200000"));
+        rue.setLatitudeFin(new BigDecimal("-18.9110000"));
+        rue.setLongitudeFin(new BigDecimal("47.5210000"));
+        rue.setVille(ville);
+        rueRepository.save(rue);
+    }
+
+    @Test
+    void listsAreServedFromMemoryAfterFirstLoad() {
+        long rueLoads = cache.getStatus(ReferenceDataCache.Type.RUE).getLoads();
+        long rueHits = cache.getStatus(ReferenceDataCache.Type.RUE).getHits();
+        assertThat(cache.rues()).hasSize(2);
+        assertThat(cache.ruesByVille(ville.getIdVille())).hasSize(2)
+                .allSatisfy(r -> assertThat(r.getNomVille()).isEqualTo("Antananarivo"));
+        assertThat(cache.ruesByVille(-1L)).isEmpty();
+        assertThat(cache.ville(ville.getIdVille()).getNom()).isEqualTo("Antananarivo");
+
+        assertThat(cache.getStatus(ReferenceDataCache.Type.RUE))
+                .satisfies(s -> {
+                    assertThat(s.getLoads() - rueLoads).isEqualTo(1);
+                    assertThat(s.getHits() - rueHits).isEqualTo(2);
+                    assertThat(s.getSize()).isEqualTo(2);
+                });
+    }
+
+    @Test
+    void invalidationWaitsForCommitAndVilleChangesReloadRues() {
+        assertThat(cache.entreprises()).isEmpty();
+        long invalidations = cache.getStatus(ReferenceDataCache.Type.ENTREPRISE).getInvalidations();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Entreprise e = new Entreprise();
+            e.setNom("Colas");
+            entrepriseRepository.save(e);
+            eventPublisher.publishEvent(new ReferenceDataChangedEvent(ReferenceDataCache.Type.ENTREPRISE));
+            assertThat(cache.getStatus(ReferenceDataCache.Type.ENTREPRISE).getInvalidations()).isEqualTo(invalidations);
+            assertThat(cache.entreprises()).isEmpty();
+        });
+        assertThat(cache.entreprises()).extracting("nom").containsExactly("Colas");
+
+        long rueLoads = cache.getStatus(ReferenceDataCache.Type.RUE).getLoads();
+        cache.rues();
+        ville.setNom("Tana");
+        villeRepository.save(ville);
+        eventPublisher.publishEvent(new ReferenceDataChangedEvent(ReferenceDataCache.Type.VILLE));
+
+        assertThat(cache.rues()).allSatisfy(r -> assertThat(r.getNomVille()).isEqualTo("Tana"));
+        assertThat(cache.getStatus(ReferenceDataCache.Type.RUE).getLoads() - rueLoads).isEqualTo(2);
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.carte.index;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RueNameIndexTest {
+
+    private RueNameIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new RueNameIndex();
+    }
+
+    private static RueSegment rue(long id, long idVille, String typeRue, String nom) {
+        return new RueSegment(id, idVille, nom, typeRue, 0, 0, 0, 0);
+    }
+
+    private static List<Long> ids(List<RueSegment> rues) {
+        return rues.stream().map(RueSegment::idRue).toList();
+    }
+
+    @Test
+    void prefixMatchesAnyWordIgnoringAccents() {
+        index.put(rue(1, 1, "Avenue", "de l'Indépendance"));
+        index.put(rue(2, 1, "Rue", "Indira Gandhi"));
+        index.put(rue(3, 1, "Rue", "Rainandriamampandry"));
+
+        assertThat(ids(index.suggest("INDE", null, 10))).containsExactly(1L);
+        assertThat(ids(index.suggest("ind", null, 10))).containsExactly(1L, 2L);
+        assertThat(ids(index.suggest("rue", null, 10))).containsExactly(2L, 3L);
+    }
+
+    @Test
+    void extraWordsNarrowTheMatch() {
+        index.put(rue(1, 1, "Avenue", "de l'Indépendance"));
+        index.put(rue(2, 1, "Rue", "de l'Indépendance"));
+
+        assertThat(ids(index.suggest("indep rue", null, 10))).containsExactly(2L);
+    }
+
+    @Test
+    void suggestionsAreScopedPerVilleAndLimited() {
+        for (long id = 1; id <= 20; id++) {
+            index.put(rue(id, id % 2, "Rue", "Andrianampoinimerina " + id));
+        }
+
+        assertThat(index.suggest("andria", 0L, 100)).hasSize(10).allMatch(r -> r.idVille() == 0L);
+        assertThat(index.suggest("andria", null, 5)).hasSize(5);
+        assertThat(index.suggest("andria", 42L, 5)).isEmpty();
+    }
+
+    @Test
+    void removeAndReplaceKeepIndexInSync() {
+        index.put(rue(1, 1, "Rue", "Ratsimilaho"));
+        index.put(rue(1, 2, "Rue", "Rabezavana"));
+
+        assertThat(index.suggest("ratsi", null, 10)).isEmpty();
+        assertThat(ids(index.suggest("rabe", 2L, 10))).containsExactly(1L);
+
+        index.remove(1L);
+        assertThat(index.suggest("rabe", null, 10)).isEmpty();
+    }
+
+    @Test
+    void rareLaterWordIsFoundPastCommonFirstWord() {
+        for (long id = 1; id <= 12_000; id++) {
+            index.put(rue(id, 1, "Rue", "Andrianampoinimerina " + id));
+        }
+        index.put(rue(20_000, 1, "Rue", "Ratsimilaho"));
+        index.put(rue(20_001, 1, "Lalana", "Ratsimilaho"));
+
+        assertThat(ids(index.suggest("rue ratsi", null, 10))).containsExactly(20_000L);
+        assertThat(ids(index.suggest("ratsi", null, 10))).containsExactly(20_001L, 20_000L);
+        assertThat(ids(index.suggest("rue andria 11999", null, 10))).containsExactly(11_999L);
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.carte.index;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class RueSegmentIndexTest {
+
+    private RueSegmentIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new RueSegmentIndex();
+        ReflectionTestUtils.setField(index, "cellSize", 0.002);
+        ReflectionTestUtils.setField(index, "maxDistanceM", 2000.0);
+        ReflectionTestUtils.setField(index, "snapDistanceM", 50.0);
+    }
+
+    private static RueSegment rue(long id, long idVille, double lat1, double lon1, double lat2, double lon2) {
+        return new RueSegment(id, idVille, "Rue " + id, "rue", lat1, lon1, lat2, lon2);
+    }
+
+    @Test
+    void nearestProjectsOntoSegment() {
+        // Rue est-ouest ; le point est à 0.0001° au nord de son milieu (~11 m)
+        index.put(rue(1, 1, -18.91, 47.52, -18.91, 47.53));
+
+        List<RueSegmentIndex.Match> result = index.nearest(-18.9099, 47.525, 1, null);
+
+        assertThat(result).hasSize(1);
+        assertThat(result.get(0).distanceM()).isCloseTo(11.1, within(0.5));
+        assertThat(result.get(0).latitude()).isCloseTo(-18.91, within(1e-9));
+        assertThat(result.get(0).longitude()).isCloseTo(47.525, within(1e-9));
+    }
+
+    @Test
+    void nearestMatchesBruteForce() {
+        Random random = new Random(42);
+        List<RueSegment> all = new ArrayList<>();
+        for (long id = 1; id <= 2000; id++) {
+            double lat = -18.95 + random.nextDouble() * 0.1;
+            double lon = 47.48 + random.nextDouble() * 0.1;
+            RueSegment s = rue(id, id % 3, lat, lon,
+                    lat + (random.nextDouble() - 0.5) * 0.01, lon + (random.nextDouble() - 0.5) * 0.01);
+            all.add(s);
+            index.put(s);
+        }
+
+        for (int i = 0; i < 50; i++) {
+            double lat = -18.95 + random.nextDouble() * 0.1;
+            double lon = 47.48 + random.nextDouble() * 0.1;
+            List<RueSegmentIndex.Match> result = index.nearest(lat, lon, 5, null);
+
+            RueSegmentIndex full = new RueSegmentIndex();
+            ReflectionTestUtils.setField(full, "cellSize", 10.0);
+            ReflectionTestUtils.setField(full, "maxDistanceM", 2000.0);
+            all.forEach(full::put);
+            List<RueSegmentIndex.Match> expected = full.nearest(lat, lon, 5, null);
+
+            assertThat(result).extracting(m -> m.segment().idRue())
+                    .containsExactlyElementsOf(expected.stream().map(m -> m.segment().idRue()).toList());
+        }
+    }
+
+    @Test
+    void nearestCanBeRestrictedToOneVille() {
+        index.put(rue(1, 1, -18.91, 47.52, -18.91, 47.53));
+        index.put(rue(2, 2, -18.912, 47.52, -18.912, 47.53));
+
+        assertThat(index.nearest(-18.9101, 47.525, 1, 2L))
+                .extracting(m -> m.segment().idRue()).containsExactly(2L);
+    }
+
+    @Test
+    void snapIgnoresStreetsBeyondSnapDistance() {
+        index.put(rue(1, 1, -18.91, 47.52, -18.91, 47.53));
+
+        assertThat(index.snap(-18.9101, 47.525, null)).isEqualTo(1L);
+        assertThat(index.snap(-18.905, 47.525, null)).isNull();
+    }
+
+    @Test
+    void removeDropsSegmentFromAllCells() {
+        index.put(rue(1, 1, -18.91, 47.52, -18.91, 47.53));
+        index.remove(1L);
+
+        assertThat(index.nearest(-18.91, 47.525, 1, null)).isEmpty();
+        assertThat(index.size()).isZero();
+    }
+
+    @Test
+    void polarAndOutOfRangePointsStayBounded() {
+        index.put(rue(1, 1, 89.999, 10.0, 89.999, 10.001));
+
+        long start = System.nanoTime();
+        assertThat(index.nearest(90, 0, 1, null)).hasSizeLessThanOrEqualTo(1);
+        assertThat(index.nearest(-90, 0, 1, null)).isEmpty();
+        assertThat(System.nanoTime() - start).isLessThan(2_000_000_000L);
+        assertThat(index.nearest(91, 0, 1, null)).isEmpty();
+        assertThat(index.nearest(0, Double.NaN, 1, null)).isEmpty();
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.carte.index;
+
+import com.example.carte.dto.SignalementClusterResponse;
+import com.example.carte.entity.Signalement;
+import com.example.carte.entity.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jpa.test.autoconfigure.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "signalement.cluster.max-zoom=16",
+        "signalement.cluster.radius-px=64"
+})
+@Import(SignalementClusterIndex.class)
+class SignalementClusterIndexTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private SignalementClusterIndex index;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        // Le bean est partagé entre les tests : on repart d'une pyramide vide
+        ReflectionTestUtils.invokeMethod(index, "init");
+
+        user = new User();
+        user.setUsername("agent");
+        user.setEmail("agent@example.com");
+        user.setPassword("secret-password");
+        entityManager.persist(user);
+    }
+
+    private void persist(double lat, double lon, String statut, String surface, String budget) {
+        Signalement s = new Signalement();
+        s.setTitre("Nid de poule");
+        s.setLatitude(BigDecimal.valueOf(lat));
+        s.setLongitude(BigDecimal.valueOf(lon));
+        s.setStatut(statut);
+        s.setSurfaceM2(surface != null ? new BigDecimal(surface) : null);
+        s.setBudget(budget != null ? new BigDecimal(budget) : null);
+        s.setUtilisateur(user);
+        entityManager.persist(s);
+    }
+
+    private static SignalementPoint point(long id, double lat, double lon, String statut) {
+        return new SignalementPoint(id, lat, lon, statut, null, null, null, null);
+    }
+
+    private List<SignalementClusterResponse> world(int zoom) {
+        return index.query(zoom, -85, -180, 85, 180);
+    }
+
+    @Test
+    void loadAggregatesRowsReadFromRepository() {
+        // Deux points proches à Antananarivo, un à Toamasina
+        persist(-18.9100, 47.5200, "EN_ATTENTE", "10.00", "1000.00");
+        persist(-18.9110, 47.5210, "RESOLU", "5.50", null);
+        persist(-18.1500, 49.4000, "EN_ATTENTE", null, "250.00");
+        entityManager.flush();
+
+        index.load();
+
+        List<SignalementClusterResponse> all = world(0);
+        assertThat(all).hasSize(1);
+        SignalementClusterResponse c = all.get(0);
+        assertThat(c.getCount()).isEqualTo(3);
+        assertThat(c.getStatuts()).isEqualTo(Map.of("EN_ATTENTE", 2L, "RESOLU", 1L));
+        assertThat(c.getSurfaceM2()).isEqualByComparingTo("15.50");
+        assertThat(c.getBudget()).isEqualByComparingTo("1250.00");
+        assertThat(c.getLatitude()).isCloseTo((-18.91 - 18.911 - 18.15) / 3, within(1e-9));
+        assertThat(c.getLongitude()).isCloseTo((47.52 + 47.521 + 49.40) / 3, within(1e-9));
+
+        List<SignalementClusterResponse> split = world(10);
+        assertThat(split).extracting(SignalementClusterResponse::getCount).containsExactlyInAnyOrder(2L, 1L);
+
+        // Au zoom maximal les deux points d'Antananarivo sont séparés
+        assertThat(world(16)).hasSize(3);
+    }
+
+    @Test
+    void queryKeepsOnlyCellsInsideBoundingBox() {
+        index.onSignalementChanged(new SignalementChangedEvent(null, point(1, -18.91, 47.52, "EN_ATTENTE")));
+        index.onSignalementChanged(new SignalementChangedEvent(null, point(2, -18.15, 49.40, "EN_ATTENTE")));
+
+        List<SignalementClusterResponse> result = index.query(10, -19.0, 47.4, -18.8, 47.6);
+
+        assertThat(result).hasSize(1);
+        assertThat(result.get(0).getLongitude()).isCloseTo(47.52, within(1e-9));
+        // Grille entière ou cellules visibles : même résultat
+        assertThat(index.query(3, -19.0, 47.4, -18.8, 47.6)).hasSize(1);
+    }
+
+    @Test
+    void eventsMoveAndRemovePointsAtEveryZoom() {
+        SignalementPoint a = point(1, -18.91, 47.52, "EN_ATTENTE");
+        SignalementPoint b = point(2, -18.15, 49.40, "EN_ATTENTE");
+        index.onSignalementChanged(new SignalementChangedEvent(null, a));
+        index.onSignalementChanged(new SignalementChangedEvent(null, b));
+
+        SignalementPoint resolved = point(1, -18.15, 49.40, "RESOLU");
+        index.onSignalementChanged(new SignalementChangedEvent(a, resolved));
+
+        List<SignalementClusterResponse> moved = world(12);
+        assertThat(moved).hasSize(1);
+        assertThat(moved.get(0).getCount()).isEqualTo(2);
+        assertThat(moved.get(0).getStatuts()).isEqualTo(Map.of("EN_ATTENTE", 1L, "RESOLU", 1L));
+
+        index.onSignalementChanged(new SignalementChangedEvent(b, null));
+        index.onSignalementChanged(new SignalementChangedEvent(resolved, null));
+
+        for (int z = 0; z <= 16; z++) {
+            assertThat(world(z)).isEmpty();
+        }
+    }
+
+    @Test
+    void zoomIsClampedToConfiguredRange() {
+        index.onSignalementChanged(new SignalementChangedEvent(null, point(1, -18.9100, 47.5200, "EN_ATTENTE")));
+        index.onSignalementChanged(new SignalementChangedEvent(null, point(2, -18.9110, 47.5210, "EN_ATTENTE")));
+
+        assertThat(world(-3)).extracting(SignalementClusterResponse::getCount).containsExactly(2L);
+        assertThat(world(40)).extracting(SignalementClusterResponse::getCount).containsExactly(1L, 1L);
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.carte.index;
+
+import com.example.carte.entity.Signalement;
+import com.example.carte.entity.User;
+import com.example.carte.repository.SignalementRepository;
+import com.example.carte.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Le serveur web démarre avant ContextRefreshedEvent : les index additifs
+ * doivent déjà être chargés à ce moment-là.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Import({SignalementClusterIndex.class, SignalementStatistics.class, SignalementIndexStartupTest.Config.class})
+class SignalementIndexStartupTest {
+
+    @TestConfiguration
+    static class Config {
+
+        @Bean
+        Seed seed(UserRepository userRepository, SignalementRepository signalementRepository) {
+            return new Seed(userRepository, signalementRepository);
+        }
+
+        @Bean
+        Observer observer(SignalementClusterIndex clusterIndex, SignalementStatistics statistics) {
+            return new Observer(clusterIndex, statistics);
+        }
+    }
+
+    // Données déjà en base au démarrage de l'application
+    static class Seed {
+        private final UserRepository userRepository;
+        private final SignalementRepository signalementRepository;
+
+        Seed(UserRepository userRepository, SignalementRepository signalementRepository) {
+            this.userRepository = userRepository;
+            this.signalementRepository = signalementRepository;
+        }
+
+        @PostConstruct
+        void insert() {
+            User user = new User();
+            user.setUsername("agent");
+            user.setEmail("agent@example.com");
+            user.setPassword("secret-password");
+            user = userRepository.save(user);
+            for (int i = 0; i < 3; i++) {
+                Signalement s = new Signalement();
+                s.setTitre("Nid de poule " + i);
+                s.setLatitude(new BigDecimal("-18.9100000"));
+                s.setLongitude(new BigDecimal("47.5200000"));
+                s.setStatut("EN_ATTENTE");
+                s.setUtilisateur(user);
+                signalementRepository.save(s);
+            }
+        }
+    }
+
+    static class Observer {
+        private final SignalementClusterIndex clusterIndex;
+        private final SignalementStatistics statistics;
+        private long clustered = -1;
+        private long counted = -1;
+
+        Observer(SignalementClusterIndex clusterIndex, SignalementStatistics statistics) {
+            this.clusterIndex = clusterIndex;
+            this.statistics = statistics;
+        }
+
+        @EventListener(ContextRefreshedEvent.class)
+        void onRefreshed() {
+            clustered = clusterIndex.query(0, -85, -180, 85, 180).stream()
+                    .mapToLong(c -> c.getCount()).sum();
+            counted = statistics.snapshot().getTotal().getCount();
+        }
+    }
+
+    @Autowired
+    private Observer observer;
+
+    @Test
+    void indexesAreLoadedBeforeTheContextIsRefreshed() {
+        assertThat(observer.clustered).isEqualTo(3);
+        assertThat(observer.counted).isEqualTo(3);
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.carte.index;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SignalementSpatialIndexTest {
+
+    private SignalementSpatialIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new SignalementSpatialIndex();
+        ReflectionTestUtils.setField(index, "cellSize", 0.01);
+    }
+
+    private static SignalementPoint point(long id, double lat, double lon, String statut) {
+        return new SignalementPoint(id, lat, lon, statut, null, null, null, null);
+    }
+
+    @Test
+    void queryReturnsOnlyPointsInsideBoundingBox() {
+        index.put(point(1, -18.91, 47.52, "EN_ATTENTE"));
+        index.put(point(2, -18.95, 47.55, "RESOLU"));
+        index.put(point(3, -19.50, 47.00, "EN_ATTENTE"));
+
+        List<SignalementPoint> result = index.query(-18.96, 47.50, -18.90, 47.56, null);
+
+        assertThat(result).extracting(SignalementPoint::idSignalement).containsExactlyInAnyOrder(1L, 2L);
+    }
+
+    @Test
+    void queryFiltersByStatut() {
+        index.put(point(1, -18.91, 47.52, "EN_ATTENTE"));
+        index.put(point(2, -18.95, 47.55, "RESOLU"));
+
+        assertThat(index.query(-19, 47, -18, 48, "RESOLU"))
+                .extracting(SignalementPoint::idSignalement).containsExactly(2L);
+    }
+
+    @Test
+    void updateMovesPointAndRemoveDropsIt() {
+        index.put(point(1, -18.91, 47.52, "EN_ATTENTE"));
+        index.put(point(1, -19.50, 47.00, "EN_ATTENTE"));
+
+        assertThat(index.query(-18.96, 47.50, -18.90, 47.56, null)).isEmpty();
+        assertThat(index.query(-19.51, 46.99, -19.49, 47.01, null)).hasSize(1);
+
+        index.remove(1L);
+        assertThat(index.size()).isZero();
+        assertThat(index.query(-90, -180, 90, 180, null)).isEmpty();
+    }
+
+    @Test
+    void worldWideQueryScansNonEmptyCells() {
+        index.put(point(1, -18.91, 47.52, "EN_ATTENTE"));
+        index.put(point(2, 48.85, 2.35, "EN_ATTENTE"));
+
+        assertThat(index.query(-90, -180, 90, 180, null)).hasSize(2);
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.carte.index;
+
+import com.example.carte.dto.EntrepriseWorkloadResponse;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SignalementStatisticsTest {
+
+    private final SignalementStatistics statistics = new SignalementStatistics();
+
+    private static SignalementPoint point(long id, String statut, Long idEntreprise, String budget) {
+        return new SignalementPoint(id, -18.91, 47.52, statut, new BigDecimal("10.00"), new BigDecimal(budget),
+                idEntreprise, null);
+    }
+
+    private EntrepriseWorkloadResponse workload(long idEntreprise) {
+        return EntrepriseWorkloadResponse.of(idEntreprise, "Colas", statistics.entrepriseParStatut(idEntreprise));
+    }
+
+    @Test
+    void workloadFollowsStatusChangesAndReassignments() {
+        statistics.onSignalementChanged(new SignalementChangedEvent(null, point(1, "EN_ATTENTE", 1L, "100.50")));
+        statistics.onSignalementChanged(new SignalementChangedEvent(null, point(2, "EN_COURS", 1L, "200.00")));
+        statistics.onSignalementChanged(new SignalementChangedEvent(null, point(3, "EN_ATTENTE", null, "50.00")));
+
+        EntrepriseWorkloadResponse before = workload(1L);
+        assertThat(before.getEnAttente()).isEqualTo(1);
+        assertThat(before.getEnCours()).isEqualTo(1);
+        assertThat(before.getTotal()).isEqualTo(2);
+        assertThat(before.getBudget()).isEqualByComparingTo("300.50");
+        assertThat(before.getSurfaceM2()).isEqualByComparingTo("20.00");
+
+        // Résolution du premier, réattribution du second à une autre entreprise
+        statistics.onSignalementChanged(new SignalementChangedEvent(point(1, "EN_ATTENTE", 1L, "100.50"),
+                point(1, "RESOLU", 1L, "100.50")));
+        statistics.onSignalementChanged(new SignalementChangedEvent(point(2, "EN_COURS", 1L, "200.00"),
+                point(2, "EN_COURS", 2L, "200.00")));
+
+        EntrepriseWorkloadResponse after = workload(1L);
+        assertThat(after.getEnAttente()).isZero();
+        assertThat(after.getEnCours()).isZero();
+        assertThat(after.getResolu()).isEqualTo(1);
+        assertThat(after.getBudget()).isEqualByComparingTo("100.50");
+        assertThat(workload(2L).getEnCours()).isEqualTo(1);
+        assertThat(workload(3L).getTotal()).isZero();
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.carte.index;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SignalementTextIndexTest {
+
+    private SignalementSpatialIndex spatialIndex;
+    private SignalementTextIndex index;
+
+    @BeforeEach
+    void setUp() {
+        spatialIndex = new SignalementSpatialIndex();
+        ReflectionTestUtils.setField(spatialIndex, "cellSize", 0.01);
+        index = new SignalementTextIndex();
+        ReflectionTestUtils.setField(index, "signalementSpatialIndex", spatialIndex);
+    }
+
+    private void add(long id, double lat, double lon, String statut, String titre, String description) {
+        SignalementPoint p = new SignalementPoint(id, lat, lon, statut, null, null, null, null);
+        spatialIndex.onSignalementChanged(new SignalementChangedEvent(null, p, titre, description));
+        index.onSignalementChanged(new SignalementChangedEvent(null, p, titre, description));
+    }
+
+    private List<Long> ids(List<SignalementTextIndex.Hit> hits) {
+        return hits.stream().map(SignalementTextIndex.Hit::idSignalement).toList();
+    }
+
+    @Test
+    void analyzerNormalizesAccentsStopWordsAndPlurals() {
+        assertThat(FrenchAnalyzer.tokenize("Nids-de-poule sur l'Avenue de l'Indépendance"))
+                .containsExactly("nid", "poule", "avenue", "independance");
+    }
+
+    @Test
+    void searchRequiresAllTermsAndRanksTitleFirst() {
+        add(1, -18.91, 47.52, "nouveau", "Eclairage en panne", "Route tres sombre, nid de poule");
+        add(2, -18.91, 47.52, "nouveau", "Nid de poule", "Trou profond sur la route");
+        add(3, -18.91, 47.52, "nouveau", "Inondation", "Caniveau bouché");
+
+        assertThat(ids(index.search("nids de poule", null, null, 10))).containsExactly(2L, 1L);
+        assertThat(ids(index.search("poule inondation", null, null, 10))).isEmpty();
+        assertThat(ids(index.search("caniveau bouche", null, null, 10))).containsExactly(3L);
+    }
+
+    @Test
+    void searchIntersectsWithStatutAndBoundingBox() {
+        add(1, -18.91, 47.52, "nouveau", "Nid de poule", null);
+        add(2, -18.91, 47.52, "termine", "Nid de poule", null);
+        add(3, -19.50, 47.00, "nouveau", "Nid de poule", null);
+
+        assertThat(ids(index.search("poule", null, "nouveau", 10))).containsExactlyInAnyOrder(1L, 3L);
+        assertThat(ids(index.search("poule", new double[]{-19.0, 47.5, -18.9, 47.6}, "nouveau", 10)))
+                .containsExactly(1L);
+    }
+
+    @Test
+    void deleteAndStatusOnlyEventsKeepIndexConsistent() {
+        add(1, -18.91, 47.52, "nouveau", "Nid de poule", null);
+        SignalementPoint p = spatialIndex.get(1L);
+
+        // Changement de statut sans texte : les termes restent indexés
+        SignalementPoint updated = new SignalementPoint(1L, p.latitude(), p.longitude(), "termine",
+                null, null, null, null);
+        spatialIndex.onSignalementChanged(new SignalementChangedEvent(p, updated));
+        index.onSignalementChanged(new SignalementChangedEvent(p, updated));
+        assertThat(ids(index.search("poule", null, "termine", 10))).containsExactly(1L);
+
+        index.onSignalementChanged(new SignalementChangedEvent(updated, null));
+        assertThat(index.search("poule", null, null, 10)).isEmpty();
+        assertThat(index.size()).isZero();
+    }
+}
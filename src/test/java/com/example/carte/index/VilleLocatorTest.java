@@ -0,0 +1,112 @@
+package com.example.carte.index;
+
+import com.example.carte.entity.Ville;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VilleLocatorTest {
+
+    private VilleLocator locator;
+
+    @BeforeEach
+    void setUp() {
+        locator = new VilleLocator();
+        ReflectionTestUtils.setField(locator, "cellSize", 0.1);
+    }
+
+    private static Ville ville(long id, double lat, double lon, Double rayonKm, double[][] frontiere) {
+        Ville v = new Ville();
+        v.setIdVille(id);
+        v.setNom("Ville " + id);
+        v.setLatitude(BigDecimal.valueOf(lat));
+        v.setLongitude(BigDecimal.valueOf(lon));
+        v.setRayonKm(rayonKm == null ? null : BigDecimal.valueOf(rayonKm));
+        v.setFrontiere(frontiere == null ? null : PolygonCodec.encode(frontiere));
+        return v;
+    }
+
+    // Carré [lon0, lon1] x [lat0, lat1] au format plat
+    private static double[] square(double lat0, double lon0, double lat1, double lon1) {
+        return new double[]{lon0, lat0, lon1, lat0, lon1, lat1, lon0, lat1};
+    }
+
+    @Test
+    void codecRoundTripsAtDecimalPrecision() {
+        double[][] rings = {{47.5212345, -18.9123456, 47.53, -18.91, 47.52, -18.90}, square(-18.95, 47.50, -18.94, 47.51)};
+
+        double[][] decoded = PolygonCodec.decode(PolygonCodec.encode(rings));
+
+        assertThat(decoded).isDeepEqualTo(rings);
+    }
+
+    @Test
+    void polygonWithHoleExcludesTheHole() {
+        locator.put(ville(1, -18.9, 47.5, null,
+                new double[][]{square(-19.0, 47.4, -18.8, 47.6), square(-18.92, 47.48, -18.88, 47.52)}));
+
+        assertThat(locator.locate(-18.95, 47.45)).isEqualTo(1L);
+        assertThat(locator.locate(-18.90, 47.50)).isNull();
+        assertThat(locator.locate(-18.70, 47.50)).isNull();
+    }
+
+    @Test
+    void polygonWinsOverCircleAndSmallestPolygonWins() {
+        locator.put(ville(1, -18.9, 47.5, 50.0, null));
+        locator.put(ville(2, -18.9, 47.5, null, new double[][]{square(-19.0, 47.4, -18.8, 47.6)}));
+        locator.put(ville(3, -18.9, 47.5, null, new double[][]{square(-18.92, 47.48, -18.88, 47.52)}));
+
+        assertThat(locator.locate(-18.90, 47.50)).isEqualTo(3L);
+        assertThat(locator.locate(-18.95, 47.45)).isEqualTo(2L);
+        assertThat(locator.locate(-18.70, 47.50)).isEqualTo(1L);
+    }
+
+    @Test
+    void updateAndRemoveRefreshTheIndex() {
+        locator.put(ville(1, -18.9, 47.5, null, new double[][]{square(-19.0, 47.4, -18.8, 47.6)}));
+        locator.put(ville(1, -21.45, 47.08, null, new double[][]{square(-21.5, 47.0, -21.4, 47.1)}));
+
+        assertThat(locator.locate(-18.9, 47.5)).isNull();
+        assertThat(locator.locate(-21.45, 47.05)).isEqualTo(1L);
+
+        locator.remove(1L);
+        assertThat(locator.locate(-21.45, 47.05)).isNull();
+    }
+
+    @Test
+    void preparedPolygonMatchesPlainRayCasting() {
+        Random random = new Random(7);
+        int n = 500;
+        double[] ring = new double[n * 2];
+        for (int i = 0; i < n; i++) {
+            double angle = 2 * Math.PI * i / n;
+            double radius = 0.05 + random.nextDouble() * 0.05;
+            ring[2 * i] = 47.5 + radius * Math.cos(angle);
+            ring[2 * i + 1] = -18.9 + radius * Math.sin(angle);
+        }
+        PreparedPolygon prepared = new PreparedPolygon(new double[][]{ring});
+
+        for (int i = 0; i < 10_000; i++) {
+            double lat = -18.9 + (random.nextDouble() - 0.5) * 0.25;
+            double lon = 47.5 + (random.nextDouble() - 0.5) * 0.25;
+            assertThat(prepared.contains(lat, lon)).isEqualTo(rayCast(ring, lat, lon));
+        }
+    }
+
+    private static boolean rayCast(double[] ring, double lat, double lon) {
+        boolean inside = false;
+        int n = ring.length / 2;
+        for (int i = 0, j = n - 1; i < n; j = i++) {
+            double xi = ring[2 * i], yi = ring[2 * i + 1], xj = ring[2 * j], yj = ring[2 * j + 1];
+            if ((yi > lat) != (yj > lat) && lon < xj + (lat - yj) * (xi - xj) / (yi - yj)) {
+                inside = !inside;
+            }
+        }
+        return inside;
+    }
+}
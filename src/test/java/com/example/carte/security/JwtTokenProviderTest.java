@@ -0,0 +1,67 @@
+package com.example.carte.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JwtTokenProviderTest {
+
+    private static final String SECRET = "test-secret-key-long-enough-for-hmac-sha-256-signatures";
+
+    private JwtTokenProvider provider;
+
+    private static JwtTokenProvider provider(String secret, long expirationMs, int cacheMaxSize) {
+        JwtTokenProvider p = new JwtTokenProvider();
+        ReflectionTestUtils.setField(p, "jwtSecret", secret);
+        ReflectionTestUtils.setField(p, "jwtExpirationMs", expirationMs);
+        ReflectionTestUtils.setField(p, "cacheMaxSize", cacheMaxSize);
+        ReflectionTestUtils.invokeMethod(p, "init");
+        return p;
+    }
+
+    @BeforeEach
+    void setUp() {
+        provider = provider(SECRET, 60_000, 100);
+    }
+
+    @Test
+    void validTokenIsVerifiedOnceThenServedFromCache() {
+        String token = provider.generateToken("rakoto", "MANAGER");
+
+        JwtTokenProvider.JwtPrincipal principal = provider.authenticate(token);
+
+        assertThat(principal.username()).isEqualTo("rakoto");
+        assertThat(principal.role()).isEqualTo("MANAGER");
+        assertThat(provider.cacheSize()).isEqualTo(1);
+        assertThat(provider.authenticate(token)).isSameAs(principal);
+        assertThat(provider.getUsernameFromToken(token)).isEqualTo("rakoto");
+    }
+
+    @Test
+    void rejectsTamperedForeignAndExpiredTokens() {
+        String token = provider.generateToken("rakoto", "USER");
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+        String foreign = provider(SECRET + "-other", 60_000, 100).generateToken("rakoto", "USER");
+
+        assertThat(provider.authenticate(tampered)).isNull();
+        assertThat(provider.authenticate(foreign)).isNull();
+        assertThat(provider.validateToken("not-a-jwt")).isFalse();
+        assertThat(provider.validateToken(null)).isFalse();
+
+        JwtTokenProvider shortLived = provider(SECRET, -1_000, 100);
+        assertThat(shortLived.authenticate(shortLived.generateToken("rakoto", "USER"))).isNull();
+        assertThat(shortLived.cacheSize()).isZero();
+    }
+
+    @Test
+    void cacheStaysBounded() {
+        JwtTokenProvider small = provider(SECRET, 60_000, 10);
+        for (int i = 0; i < 50; i++) {
+            assertThat(small.authenticate(small.generateToken("user" + i, "USER"))).isNotNull();
+        }
+
+        assertThat(small.cacheSize()).isLessThanOrEqualTo(10);
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.carte.security;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+class PasswordHasherTest {
+
+    private PasswordHasher hasher;
+
+    private static PasswordHasher hasher(int cost, int minCost, int maxCost, long targetMs) {
+        PasswordHasher h = new PasswordHasher();
+        ReflectionTestUtils.setField(h, "configuredCost", cost);
+        ReflectionTestUtils.setField(h, "minCost", minCost);
+        ReflectionTestUtils.setField(h, "maxCost", maxCost);
+        ReflectionTestUtils.setField(h, "targetMs", targetMs);
+        ReflectionTestUtils.setField(h, "threads", 1);
+        ReflectionTestUtils.setField(h, "queueCapacity", 1);
+        ReflectionTestUtils.setField(h, "timeoutMs", 5_000L);
+        ReflectionTestUtils.invokeMethod(h, "init");
+        return h;
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (hasher != null) {
+            ReflectionTestUtils.invokeMethod(hasher, "shutdown");
+        }
+    }
+
+    @Test
+    void hashesOnPoolAndFlagsOnlyLowerCosts() {
+        hasher = hasher(5, 4, 16, 250);
+        String hash = hasher.encode("mot-de-passe");
+
+        assertThat(hash).startsWith("$2a$05$");
+        assertThat(hasher.matches("mot-de-passe", hash)).isTrue();
+        assertThat(hasher.matches("autre", hash)).isFalse();
+        assertThat(hasher.upgradeEncoding(hash)).isFalse();
+        assertThat(hasher.upgradeEncoding(new BCryptPasswordEncoder(4).encode("mot-de-passe"))).isTrue();
+        assertThat(hasher.upgradeEncoding(new BCryptPasswordEncoder(6).encode("mot-de-passe"))).isFalse();
+        assertThat(hasher.upgradeEncoding("pas-un-bcrypt")).isFalse();
+    }
+
+    @Test
+    void calibrationStaysWithinBounds() {
+        hasher = hasher(0, 4, 6, 10_000);
+        assertThat(hasher.getCost()).isEqualTo(6);
+        ReflectionTestUtils.invokeMethod(hasher, "shutdown");
+
+        hasher = hasher(0, 4, 16, 1);
+        assertThat(hasher.getCost()).isEqualTo(4);
+    }
+
+    @Test
+    void fullQueueIsRejectedImmediately() throws InterruptedException {
+        hasher = hasher(4, 4, 16, 250);
+        ThreadPoolExecutor executor = (ThreadPoolExecutor) ReflectionTestUtils.getField(hasher, "executor");
+        CountDownLatch release = new CountDownLatch(1);
+        executor.execute(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        executor.execute(() -> { });
+
+        assertThatThrownBy(() -> hasher.encode("mot-de-passe")).isInstanceOf(PasswordHasher.BusyException.class);
+        assertThat(hasher.getRejected()).isEqualTo(1);
+
+        release.countDown();
+        await().atMost(Duration.ofSeconds(5)).until(() -> executor.getActiveCount() == 0 && executor.getQueue().isEmpty());
+        assertThat(hasher.matches("mot-de-passe", hasher.encode("mot-de-passe"))).isTrue();
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.carte.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SlidingWindowCounterTest {
+
+    @Test
+    void eventsLeaveTheWindowBucketByBucket() {
+        SlidingWindowCounter counter = new SlidingWindowCounter(Duration.ofSeconds(10), 10, 100);
+
+        assertThat(counter.increment("rakoto", 0)).isEqualTo(1);
+        assertThat(counter.increment("rakoto", 4_500)).isEqualTo(2);
+        assertThat(counter.increment("rabe", 4_500)).isEqualTo(1);
+        assertThat(counter.count("rakoto", 9_999)).isEqualTo(2);
+        assertThat(counter.count("rakoto", 10_000)).isEqualTo(1);
+        assertThat(counter.count("rakoto", 15_000)).isZero();
+
+        counter.increment("rakoto", 20_000);
+        counter.reset("rakoto");
+        assertThat(counter.count("rakoto", 20_000)).isZero();
+    }
+
+    @Test
+    void concurrentIncrementsAreNotLost() throws InterruptedException {
+        SlidingWindowCounter counter = new SlidingWindowCounter(Duration.ofMinutes(15), 10, 100);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        for (int t = 0; t < 8; t++) {
+            pool.execute(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    counter.increment("rakoto", 1_000);
+                }
+            });
+        }
+        pool.shutdown();
+        assertThat(pool.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(counter.count("rakoto", 1_000)).isEqualTo(80_000);
+    }
+
+    @Test
+    void keyCountStaysBounded() {
+        SlidingWindowCounter counter = new SlidingWindowCounter(Duration.ofMinutes(15), 10, 160);
+        for (int i = 0; i < 5_000; i++) {
+            counter.increment("user" + i, 1_000);
+        }
+
+        assertThat(counter.size()).isLessThanOrEqualTo(160);
+    }
+
+    @Test
+    void fullStripeEvictsOldestWindowFirst() {
+        // 10 clés par segment ; toutes les clés du test tombent dans le même segment
+        SlidingWindowCounter counter = new SlidingWindowCounter(Duration.ofMinutes(15), 10, 160);
+        List<String> keys = sameStripeKeys("ancien", 10);
+        counter.increment("ancien", 0);
+        for (String key : keys.subList(0, 8)) {
+            counter.increment(key, 90_000);
+        }
+        counter.increment(keys.get(8), 180_000);
+        counter.increment(keys.get(9), 180_000);
+
+        assertThat(counter.count("ancien", 180_000)).isZero();
+        for (String key : keys) {
+            assertThat(counter.count(key, 180_000)).isEqualTo(1);
+        }
+    }
+
+    private static List<String> sameStripeKeys(String reference, int count) {
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; keys.size() < count; i++) {
+            String key = "user" + i;
+            if (stripeOf(key) == stripeOf(reference)) {
+                keys.add(key);
+            }
+        }
+        return keys;
+    }
+
+    private static int stripeOf(String key) {
+        int h = key.hashCode();
+        return (h ^ (h >>> 16)) & 15;
+    }
+}
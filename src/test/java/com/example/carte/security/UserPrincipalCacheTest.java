@@ -0,0 +1,80 @@
+package com.example.carte.security;
+
+import com.example.carte.dto.PrincipalCacheStatusResponse;
+import com.example.carte.entity.User;
+import com.example.carte.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+class UserPrincipalCacheTest {
+
+    private UserPrincipalCache cache;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        cache = new UserPrincipalCache();
+        ReflectionTestUtils.setField(cache, "userRepository", userRepository);
+        ReflectionTestUtils.setField(cache, "ttlMs", 60_000L);
+        ReflectionTestUtils.setField(cache, "maxSize", 100);
+
+        user = new User();
+        user.setUsername("rakoto");
+        user.setEmail("rakoto@example.com");
+        user.setPassword("secret-password");
+        user.setRole("MANAGER");
+        user = userRepository.save(user);
+    }
+
+    @Test
+    void servesPrincipalFromMemoryUntilInvalidated() {
+        UserPrincipal principal = cache.get("rakoto");
+
+        assertThat(principal).isEqualTo(new UserPrincipal(user.getId(), "rakoto", "MANAGER", true, false));
+        assertThat(cache.get("rakoto")).isSameAs(principal);
+
+        user.setRole("ADMIN");
+        userRepository.saveAndFlush(user);
+        assertThat(cache.get("rakoto").role()).isEqualTo("MANAGER");
+        cache.invalidate("rakoto");
+        assertThat(cache.get("rakoto").role()).isEqualTo("ADMIN");
+
+        PrincipalCacheStatusResponse status = cache.getStatus();
+        assertThat(status.getHits()).isEqualTo(2);
+        assertThat(status.getMisses()).isEqualTo(2);
+        assertThat(status.getHitRatio()).isEqualTo(0.5);
+    }
+
+    @Test
+    void unknownUsersAreCachedAndEntriesExpire() {
+        assertThat(cache.get("inconnu")).isNull();
+        assertThat(cache.get("inconnu")).isNull();
+        assertThat(cache.getStatus().getHits()).isEqualTo(1);
+
+        ReflectionTestUtils.setField(cache, "ttlMs", -1L);
+        cache.get("rakoto");
+        cache.get("rakoto");
+        assertThat(cache.getStatus().getMisses()).isEqualTo(3);
+    }
+
+    @Test
+    void sizeStaysBounded() {
+        ReflectionTestUtils.setField(cache, "maxSize", 10);
+        for (int i = 0; i < 50; i++) {
+            cache.get("user" + i);
+        }
+
+        assertThat(cache.getStatus().getSize()).isLessThanOrEqualTo(10);
+        assertThat(cache.getStatus().getEvictions()).isGreaterThan(0);
+    }
+}
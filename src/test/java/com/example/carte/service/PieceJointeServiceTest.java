@@ -0,0 +1,225 @@
+package com.example.carte.service;
+
+import com.example.carte.dto.PieceJointeRequest;
+import com.example.carte.dto.PieceJointeResponse;
+import com.example.carte.entity.PieceBlob;
+import com.example.carte.entity.Signalement;
+import com.example.carte.entity.User;
+import com.example.carte.repository.PieceBlobRepository;
+import com.example.carte.storage.PieceStorage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jpa.test.autoconfigure.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.transaction.TestTransaction;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Import({PieceJointeService.class, PieceStorage.class, PieceThumbnailService.class})
+class PieceJointeServiceTest {
+
+    private static Path dir;
+
+    @DynamicPropertySource
+    static void storageDir(DynamicPropertyRegistry registry) throws IOException {
+        dir = Files.createTempDirectory("pieces");
+        registry.add("pieces.storage.dir", dir::toString);
+    }
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private PieceJointeService pieceJointeService;
+
+    @Autowired
+    private PieceStorage pieceStorage;
+
+    @Autowired
+    private PieceBlobRepository pieceBlobRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long idSignalement;
+
+    @BeforeEach
+    void setUp() {
+        User user = new User();
+        user.setUsername("agent");
+        user.setEmail("agent@example.com");
+        user.setPassword("secret-password");
+        entityManager.persist(user);
+
+        Signalement s = new Signalement();
+        s.setTitre("Nid de poule");
+        s.setLatitude(new BigDecimal("-18.9100000"));
+        s.setLongitude(new BigDecimal("47.5200000"));
+        s.setStatut("EN_ATTENTE");
+        s.setUtilisateur(user);
+        entityManager.persist(s);
+        idSignalement = s.getIdSignalement();
+    }
+
+    private PieceJointeResponse upload(byte[] data) {
+        return pieceJointeService.upload(idSignalement,
+                new MockMultipartFile("fichier", "rapport.pdf", "application/pdf", data), null);
+    }
+
+    @Test
+    void identicalUploadsShareOneCountedFile() {
+        PieceJointeResponse first = upload(new byte[]{1, 2, 3, 4});
+        PieceJointeResponse second = upload(new byte[]{1, 2, 3, 4});
+        PieceJointeResponse other = upload(new byte[]{5, 6});
+
+        assertThat(second.getChemin()).isEqualTo(first.getChemin());
+        assertThat(other.getChemin()).isNotEqualTo(first.getChemin());
+        assertThat(first.getTaille()).isEqualTo(4);
+        assertThat(first.getTypeFichier()).isEqualTo("pdf");
+        String sha256 = PieceStorage.sha256Of(first.getChemin());
+        assertThat(pieceBlobRepository.findById(sha256)).get().extracting(PieceBlob::getRefCount).isEqualTo(2L);
+        assertThat(pieceJointeService.getFichier(first.getIdPiece()).etag()).isEqualTo("\"" + sha256 + "\"");
+    }
+
+    @Test
+    void fileIsDeletedWithItsLastReference() {
+        PieceJointeResponse first = upload(new byte[]{1, 2, 3, 4});
+        PieceJointeResponse second = upload(new byte[]{1, 2, 3, 4});
+        Path path = pieceStorage.resolve(first.getChemin());
+        String sha256 = PieceStorage.sha256Of(first.getChemin());
+
+        pieceJointeService.delete(first.getIdPiece());
+        assertThat(path).exists();
+        assertThat(pieceBlobRepository.findById(sha256)).get().extracting(PieceBlob::getRefCount).isEqualTo(1L);
+
+        pieceJointeService.delete(second.getIdPiece());
+        assertThat(pieceBlobRepository.findById(sha256)).isEmpty();
+        // Le fichier n'est effacé qu'au commit
+        assertThat(path).exists();
+
+        TestTransaction.flagForCommit();
+        TestTransaction.end();
+        try {
+            assertThat(path).doesNotExist();
+            assertThat(pieceBlobRepository.findById(sha256)).isEmpty();
+        } finally {
+            cleanUp();
+        }
+    }
+
+    @Test
+    void rolledBackDeleteKeepsTheFile() {
+        PieceJointeResponse piece = upload(new byte[]{1, 2, 3, 4});
+        Path path = pieceStorage.resolve(piece.getChemin());
+
+        pieceJointeService.delete(piece.getIdPiece());
+        TestTransaction.end();
+
+        assertThat(path).exists();
+    }
+
+    @Test
+    void reuploadBeforeCleanupKeepsTheFile() {
+        PieceJointeResponse piece = upload(new byte[]{4, 3, 2, 1});
+        Path path = pieceStorage.resolve(piece.getChemin());
+        TestTransaction.flagForCommit();
+        TestTransaction.end();
+        try {
+            // Le même contenu est redéposé juste avant l'effacement du fichier
+            transactionTemplate.executeWithoutResult(status -> {
+                pieceJointeService.delete(piece.getIdPiece());
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public int getOrder() {
+                        return Ordered.HIGHEST_PRECEDENCE;
+                    }
+
+                    @Override
+                    public void afterCommit() {
+                        // Autre thread : sa propre transaction, committée avant l'effacement
+                        CompletableFuture.runAsync(() -> upload(new byte[]{4, 3, 2, 1})).join();
+                    }
+                });
+            });
+
+            assertThat(path).exists();
+            assertThat(pieceBlobRepository.findById(PieceStorage.sha256Of(piece.getChemin())))
+                    .get().extracting(PieceBlob::getRefCount).isEqualTo(1L);
+        } finally {
+            cleanUp();
+        }
+    }
+
+    // Données committées hors de la transaction du test
+    private void cleanUp() {
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update("DELETE FROM piece_jointe");
+            jdbcTemplate.update("DELETE FROM piece_blob");
+            jdbcTemplate.update("DELETE FROM signalement");
+            jdbcTemplate.update("DELETE FROM users");
+        });
+    }
+
+    @Test
+    void referencingStoredChemin() {
+        PieceJointeResponse uploaded = upload(new byte[]{9, 9});
+
+        PieceJointeRequest request = new PieceJointeRequest();
+        request.setIdSignalement(idSignalement);
+        request.setTypeFichier("pdf");
+        request.setChemin(uploaded.getChemin());
+        pieceJointeService.create(request);
+        pieceJointeService.delete(uploaded.getIdPiece());
+
+        assertThat(pieceStorage.resolve(uploaded.getChemin())).isNotNull();
+
+        request.setChemin("00/00/" + "0".repeat(64));
+        assertThatThrownBy(() -> pieceJointeService.create(request)).hasMessage("Fichier not found");
+    }
+
+    @Test
+    void failedUploadLeavesNoTemporaryFile() throws IOException {
+        byte[] data = {3, 1, 4, 1, 5};
+        String sha256 = HexFormat.of().formatHex(sha256(data));
+        // Un répertoire non vide à la place du fichier empêche sa mise en place
+        Files.createDirectories(dir.resolve(PieceStorage.chemin(sha256)).resolve("bloque"));
+
+        assertThatThrownBy(() -> upload(data)).isInstanceOf(RuntimeException.class);
+        try (Stream<Path> tmp = Files.list(dir.resolve("tmp"))) {
+            assertThat(tmp).isEmpty();
+        }
+    }
+
+    private static byte[] sha256(byte[] data) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(data);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
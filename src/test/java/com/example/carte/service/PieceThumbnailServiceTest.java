@@ -0,0 +1,133 @@
+package com.example.carte.service;
+
+import com.example.carte.storage.PieceStorage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+class PieceThumbnailServiceTest {
+
+    @TempDir
+    Path dir;
+
+    private PieceStorage storage;
+    private PieceThumbnailService service;
+
+    @BeforeEach
+    void setUp() {
+        storage = new PieceStorage();
+        ReflectionTestUtils.setField(storage, "storageDir", dir.toString());
+        ReflectionTestUtils.invokeMethod(storage, "init");
+
+        service = new PieceThumbnailService();
+        ReflectionTestUtils.setField(service, "pieceStorage", storage);
+        ReflectionTestUtils.setField(service, "sizes", new int[]{480, 160});
+        ReflectionTestUtils.setField(service, "threads", 1);
+        ReflectionTestUtils.setField(service, "queueCapacity", 10);
+        ReflectionTestUtils.setField(service, "quality", 0.8f);
+        ReflectionTestUtils.invokeMethod(service, "init");
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.invokeMethod(service, "shutdown");
+    }
+
+    private static byte[] png(int width, int height) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB), "png", out);
+        return out.toByteArray();
+    }
+
+    @Test
+    void generatesVariantsNextToOriginal() throws IOException {
+        String chemin = storage.commit(storage.stage(new ByteArrayInputStream(png(2000, 1000))));
+
+        assertThat(service.getVariant(chemin, 100)).isNull();
+        await().atMost(Duration.ofSeconds(10)).until(() -> service.getVariant(chemin, 100) != null);
+
+        Path smallPath = service.getVariant(chemin, 100);
+        BufferedImage small = ImageIO.read(smallPath.toFile());
+        assertThat(small.getWidth()).isEqualTo(160);
+        assertThat(small.getHeight()).isEqualTo(80);
+        BufferedImage large = ImageIO.read(service.getVariant(chemin, 2000).toFile());
+        assertThat(large.getWidth()).isEqualTo(480);
+        assertThat(smallPath.getParent()).isEqualTo(storage.resolve(chemin).getParent());
+        assertThat(service.getStatus().getCompleted()).isEqualTo(1);
+
+        storage.delete(chemin);
+        assertThat(smallPath).doesNotExist();
+    }
+
+    @Test
+    void unreadableFileIsNotRetried() {
+        String chemin = storage.commit(storage.stage(new ByteArrayInputStream(new byte[]{1, 2, 3})));
+
+        service.schedule(chemin);
+        await().atMost(Duration.ofSeconds(10)).until(() -> service.getStatus().getFailed() == 1);
+
+        assertThat(service.schedule(chemin)).isFalse();
+    }
+
+    @Test
+    void transientFailureIsRetriedOnNextRequest() throws IOException {
+        String chemin = storage.commit(storage.stage(new ByteArrayInputStream(png(600, 300))));
+        // Un répertoire non vide à la place de la variante fait échouer son écriture
+        Path blocked = storage.variant(chemin, 480);
+        Files.createDirectories(blocked.resolve("bloque"));
+
+        assertThat(service.getVariant(chemin, 480)).isNull();
+        await().atMost(Duration.ofSeconds(10)).until(() -> service.getStatus().getFailed() == 1);
+
+        Files.delete(blocked.resolve("bloque"));
+        Files.delete(blocked);
+        assertThat(service.getVariant(chemin, 480)).isNull();
+        await().atMost(Duration.ofSeconds(10)).until(() -> service.getVariant(chemin, 480) != null);
+        assertThat(service.getStatus().getCompleted()).isEqualTo(1);
+    }
+
+    @Test
+    void fullQueueRejectsInsteadOfBlocking() throws IOException {
+        ReflectionTestUtils.invokeMethod(service, "shutdown");
+        ReflectionTestUtils.setField(service, "queueCapacity", 1);
+        ReflectionTestUtils.invokeMethod(service, "init");
+
+        List<String> chemins = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            chemins.add(storage.commit(storage.stage(new ByteArrayInputStream(png(3000, 3000 + i)))));
+        }
+
+        int accepted = 0;
+        for (String chemin : chemins) {
+            if (service.schedule(chemin)) {
+                accepted++;
+            }
+        }
+
+        assertThat(accepted).isLessThan(10);
+        assertThat(service.getStatus().getRejected()).isEqualTo(10 - accepted);
+    }
+
+    @Test
+    void sizeForPicksSmallestSufficientVariant() {
+        assertThat(service.sizeFor(1)).isEqualTo(160);
+        assertThat(service.sizeFor(161)).isEqualTo(480);
+        assertThat(service.sizeFor(5000)).isEqualTo(480);
+    }
+}
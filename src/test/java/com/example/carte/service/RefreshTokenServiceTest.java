@@ -0,0 +1,131 @@
+package com.example.carte.service;
+
+import com.example.carte.dto.AuthResponse;
+import com.example.carte.entity.RefreshToken;
+import com.example.carte.entity.User;
+import com.example.carte.repository.RefreshTokenRepository;
+import com.example.carte.repository.UserRepository;
+import com.example.carte.security.JwtTokenProvider;
+import com.example.carte.security.TokenDenylist;
+import org.hibernate.Hibernate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "jwt.secret=test-secret-key-long-enough-for-hmac-sha-256-signatures",
+        "jwt.expiration=60000"
+})
+@Import({RefreshTokenService.class, JwtTokenProvider.class, TokenDenylist.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class RefreshTokenServiceTest {
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+
+    @Autowired
+    private TokenDenylist tokenDenylist;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        User u = userRepository.findByUsername("rakoto").orElseGet(User::new);
+        u.setUsername("rakoto");
+        u.setEmail("rakoto@example.com");
+        u.setPassword("secret-password");
+        user = userRepository.save(u);
+    }
+
+    private boolean revoked(AuthResponse response) {
+        return tokenDenylist.isRevoked(jwtTokenProvider.authenticate(response.getToken()).tokenId());
+    }
+
+    @Test
+    void rotationIssuesNewPairAndReuseRevokesFamily() {
+        AuthResponse first = refreshTokenService.issue(user);
+        AuthResponse second = refreshTokenService.refresh(first.getRefreshToken());
+
+        assertThat(second.getRefreshToken()).isNotEqualTo(first.getRefreshToken());
+        assertThat(second.getToken()).isNotEqualTo(first.getToken());
+        assertThat(revoked(second)).isFalse();
+
+        assertThatThrownBy(() -> refreshTokenService.refresh(first.getRefreshToken()))
+                .hasMessage("Refresh token reused");
+        assertThat(revoked(first)).isTrue();
+        assertThat(revoked(second)).isTrue();
+        assertThatThrownBy(() -> refreshTokenService.refresh(second.getRefreshToken()))
+                .hasMessage("Invalid refresh token");
+        assertThatThrownBy(() -> refreshTokenService.refresh("inconnu"))
+                .hasMessage("Invalid refresh token");
+    }
+
+    @Test
+    void logoutRevokesOnlyThatSession() {
+        AuthResponse session = refreshTokenService.issue(user);
+        AuthResponse other = refreshTokenService.issue(user);
+        long checks = tokenDenylist.getChecks();
+        long filterHits = tokenDenylist.getFilterHits();
+
+        refreshTokenService.logout(session.getToken(), session.getRefreshToken());
+
+        assertThat(revoked(session)).isTrue();
+        assertThat(revoked(other)).isFalse();
+        assertThat(tokenDenylist.getChecks() - checks).isEqualTo(2);
+        assertThat(tokenDenylist.getFilterHits() - filterHits).isEqualTo(1);
+        assertThatThrownBy(() -> refreshTokenService.refresh(session.getRefreshToken()))
+                .hasMessage("Invalid refresh token");
+        assertThat(refreshTokenService.refresh(other.getRefreshToken()).getToken()).isNotBlank();
+    }
+
+    @Test
+    void rolledBackRevocationNeverReachesFilter() {
+        long expiresAt = System.currentTimeMillis() + 60000;
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            tokenDenylist.revoke("jti-annule", expiresAt);
+            status.setRollbackOnly();
+        });
+        long filterHits = tokenDenylist.getFilterHits();
+
+        assertThat(tokenDenylist.isRevoked("jti-annule")).isFalse();
+        assertThat(tokenDenylist.getFilterHits() - filterHits).isZero();
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                tokenDenylist.revoke("jti-valide", expiresAt));
+        assertThat(tokenDenylist.isRevoked("jti-valide")).isTrue();
+    }
+
+    @Test
+    void detachedTokenPrintsWithoutLoadingUser() {
+        refreshTokenService.issue(user);
+
+        // Hors transaction : le proxy user n'est plus initialisable
+        RefreshToken token = refreshTokenRepository.findAll().get(0);
+
+        assertThat(token.toString()).contains(token.getFamilyId());
+        assertThat(token.hashCode()).isEqualTo(token.hashCode());
+        assertThat(Hibernate.isInitialized(token.getUser())).isFalse();
+    }
+}
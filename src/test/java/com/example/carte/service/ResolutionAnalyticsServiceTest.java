@@ -0,0 +1,117 @@
+package com.example.carte.service;
+
+import com.example.carte.analytics.StatutTransition;
+import com.example.carte.dto.ResolutionStatsResponse;
+import com.example.carte.entity.Signalement;
+import com.example.carte.entity.User;
+import com.example.carte.repository.SignalementRepository;
+import com.example.carte.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Import(ResolutionAnalyticsService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ResolutionAnalyticsServiceTest {
+
+    @Autowired
+    private ResolutionAnalyticsService resolutionAnalyticsService;
+
+    @Autowired
+    private SignalementRepository signalementRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private User manager;
+    private Signalement signalement;
+
+    @BeforeEach
+    void setUp() {
+        manager = new User();
+        manager.setUsername("manager");
+        manager.setEmail("manager@example.com");
+        manager.setPassword("secret-password");
+        manager = userRepository.save(manager);
+
+        Signalement s = new Signalement();
+        s.setTitre("Nid de poule");
+        s.setLatitude(new BigDecimal("-18.9100000"));
+        s.setLongitude(new BigDecimal("47.5200000"));
+        s.setStatut("EN_COURS");
+        s.setUtilisateur(manager);
+        signalement = signalementRepository.save(s);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM resolution_rollup");
+        jdbcTemplate.update("DELETE FROM historique_statut");
+        jdbcTemplate.update("DELETE FROM compteur_changement");
+        jdbcTemplate.update("DELETE FROM signalement");
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void rebuildWaitsForStatutChangesInProgress() throws Exception {
+        LocalDateTime now = LocalDateTime.now();
+        CountDownLatch recorded = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        // Changement de statut : historique et deltas dans la même transaction, committée plus tard
+        CompletableFuture<Void> change = CompletableFuture.runAsync(() ->
+                transactionTemplate.executeWithoutResult(status -> {
+                    jdbcTemplate.update("INSERT INTO historique_statut (id_signalement, ancien_statut, nouveau_statut, "
+                                    + "date_changement, id_manager) VALUES (?, ?, ?, ?, ?)",
+                            signalement.getIdSignalement(), "EN_COURS", "RESOLU", Timestamp.valueOf(now),
+                            manager.getId());
+                    resolutionAnalyticsService.record(List.of(new StatutTransition(signalement.getIdSignalement(),
+                            "EN_COURS", "RESOLU", signalement.getDateSignalement(), signalement.getDateSignalement(),
+                            now, null, null)));
+                    recorded.countDown();
+                    try {
+                        release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }));
+        assertThat(recorded.await(5, TimeUnit.SECONDS)).isTrue();
+
+        CompletableFuture<Long> rebuild = CompletableFuture.supplyAsync(resolutionAnalyticsService::rebuild);
+        Thread.sleep(300);
+        assertThat(rebuild).isNotDone();
+
+        release.countDown();
+        change.get(5, TimeUnit.SECONDS);
+        assertThat(rebuild.get(5, TimeUnit.SECONDS)).isEqualTo(1);
+
+        // Le changement n'est compté qu'une fois : ses deltas sont remplacés par le recalcul
+        List<ResolutionStatsResponse> stats = resolutionAnalyticsService.getStats(
+                ResolutionAnalyticsService.MESURE_RESOLUTION, "global", null, null, false);
+        assertThat(stats).extracting(ResolutionStatsResponse::getNombre).containsExactly(1L);
+        assertThat(resolutionAnalyticsService.getRecordFailures()).isZero();
+    }
+}
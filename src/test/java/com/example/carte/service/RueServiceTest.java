@@ -0,0 +1,95 @@
+package com.example.carte.service;
+
+import com.example.carte.dto.RueRequest;
+import com.example.carte.entity.Ville;
+import com.example.carte.index.ReferenceDataCache;
+import com.example.carte.index.RueNameIndex;
+import com.example.carte.index.RueSegment;
+import com.example.carte.index.RueSegmentIndex;
+import com.example.carte.repository.RueRepository;
+import com.example.carte.repository.VilleRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Import({RueService.class, RueSegmentIndex.class, RueNameIndex.class, ReferenceDataCache.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class RueServiceTest {
+
+    @Autowired
+    private RueService rueService;
+
+    @Autowired
+    private RueSegmentIndex rueSegmentIndex;
+
+    @Autowired
+    private RueNameIndex rueNameIndex;
+
+    @Autowired
+    private RueRepository rueRepository;
+
+    @Autowired
+    private VilleRepository villeRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Ville ville;
+
+    @BeforeEach
+    void setUp() {
+        rueRepository.findAll().forEach(r -> {
+            rueSegmentIndex.remove(r.getIdRue());
+            rueNameIndex.remove(r.getIdRue());
+        });
+        rueRepository.deleteAll();
+        villeRepository.deleteAll();
+        ville = new Ville();
+        ville.setNom("Antananarivo");
+        ville.setLatitude(new BigDecimal("-18.9100000"));
+        ville.setLongitude(new BigDecimal("47.5200000"));
+        ville = villeRepository.save(ville);
+    }
+
+    private RueRequest request(String nom) {
+        RueRequest request = new RueRequest();
+        request.setNom(nom);
+        request.setLatitudeDebut(new BigDecimal("-18.9100000"));
+        request.setLongitudeDebut(new BigDecimal("47.5200000"));
+        request.setLatitudeFin(new BigDecimal("-18.9110000"));
+        request.setLongitudeFin(new BigDecimal("47.5210000"));
+        request.setIdVille(ville.getIdVille());
+        return request;
+    }
+
+    @Test
+    void indexesFollowOnlyCommittedWrites() {
+        int size = rueSegmentIndex.size();
+        transactionTemplate.executeWithoutResult(status -> {
+            rueService.create(request("Rue Ratsimilaho"));
+            assertThat(rueSegmentIndex.size()).isEqualTo(size);
+            status.setRollbackOnly();
+        });
+        assertThat(rueSegmentIndex.size()).isEqualTo(size);
+        assertThat(rueNameIndex.suggest("ratsimilaho", null, 10)).isEmpty();
+
+        Long id = rueService.create(request("Rue Ratsimilaho")).getIdRue();
+        assertThat(rueSegmentIndex.size()).isEqualTo(size + 1);
+        assertThat(rueNameIndex.suggest("ratsimilaho", null, 10)).extracting(RueSegment::idRue).containsExactly(id);
+        assertThat(rueService.getNearest(-18.9105, 47.5205, 1, null)).hasSize(1);
+
+        rueService.delete(id);
+        assertThat(rueSegmentIndex.size()).isEqualTo(size);
+        assertThat(rueNameIndex.suggest("ratsimilaho", null, 10)).isEmpty();
+    }
+}
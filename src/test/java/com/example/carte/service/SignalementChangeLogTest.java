@@ -0,0 +1,194 @@
+package com.example.carte.service;
+
+import com.example.carte.dto.SignalementChangesResponse;
+import com.example.carte.dto.SignalementResponse;
+import com.example.carte.entity.Signalement;
+import com.example.carte.entity.User;
+import com.example.carte.index.RueSegmentIndex;
+import com.example.carte.index.SignalementClusterIndex;
+import com.example.carte.index.SignalementSpatialIndex;
+import com.example.carte.index.SignalementStatistics;
+import com.example.carte.index.SignalementTextIndex;
+import com.example.carte.index.VilleLocator;
+import com.example.carte.repository.SignalementRepository;
+import com.example.carte.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "signalement.changes.number-interval-ms=3600000"
+})
+@Import({SignalementService.class, SignalementChangeLog.class, SignalementSpatialIndex.class,
+        SignalementClusterIndex.class, SignalementStatistics.class, VilleLocator.class, RueSegmentIndex.class,
+        SignalementTextIndex.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SignalementChangeLogTest {
+
+    @Autowired
+    private SignalementService signalementService;
+
+    @Autowired
+    private SignalementChangeLog signalementChangeLog;
+
+    @Autowired
+    private SignalementRepository signalementRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setUsername("agent");
+        user.setEmail("agent@example.com");
+        user.setPassword("secret-password");
+        user = userRepository.save(user);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM signalement_suppression");
+        jdbcTemplate.update("DELETE FROM signalement");
+        jdbcTemplate.update("DELETE FROM compteur_changement");
+        userRepository.deleteAll();
+    }
+
+    private Long create(String titre) {
+        Signalement s = new Signalement();
+        s.setTitre(titre);
+        s.setLatitude(new BigDecimal("-18.9100000"));
+        s.setLongitude(new BigDecimal("47.5200000"));
+        s.setStatut("EN_ATTENTE");
+        s.setUtilisateur(user);
+        return signalementRepository.save(s).getIdSignalement();
+    }
+
+    private void rename(Long id, String titre) {
+        transactionTemplate.executeWithoutResult(status ->
+                signalementRepository.findById(id).orElseThrow().setTitre(titre));
+    }
+
+    @Test
+    void writesAppearOnlyOnceNumbered() {
+        Long a = create("Nid de poule");
+        Long b = create("Fissure");
+
+        assertThat(signalementService.getChanges(null, null).getUpdated()).isEmpty();
+        assertThat(signalementChangeLog.number()).isEqualTo(2);
+
+        SignalementChangesResponse first = signalementService.getChanges(null, null);
+        assertThat(first.getUpdated()).extracting(SignalementResponse::getIdSignalement).containsExactly(a, b);
+        assertThat(first.isHasMore()).isFalse();
+        assertThat(signalementService.getChanges(first.getCursor(), null).getUpdated()).isEmpty();
+
+        rename(a, "Nid de poule profond");
+        signalementChangeLog.number();
+
+        SignalementChangesResponse next = signalementService.getChanges(first.getCursor(), null);
+        assertThat(next.getUpdated()).extracting(SignalementResponse::getTitre).containsExactly("Nid de poule profond");
+        assertThat(signalementService.getChanges(next.getCursor(), null).getUpdated()).isEmpty();
+    }
+
+    @Test
+    void lateCommitIsNotSkipped() throws Exception {
+        Long slow = create("Nid de poule");
+        Long fast = create("Fissure");
+        signalementChangeLog.number();
+        String cursor = signalementService.getChanges(null, null).getCursor();
+
+        // La transaction lente écrit avant la rapide mais committe après elle
+        CountDownLatch written = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> slowWrite = CompletableFuture.runAsync(() ->
+                transactionTemplate.executeWithoutResult(status -> {
+                    signalementRepository.findById(slow).orElseThrow().setTitre("Nid de poule profond");
+                    signalementRepository.flush();
+                    written.countDown();
+                    try {
+                        release.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }));
+        assertThat(written.await(10, TimeUnit.SECONDS)).isTrue();
+        rename(fast, "Fissure large");
+        signalementChangeLog.number();
+
+        SignalementChangesResponse page = signalementService.getChanges(cursor, null);
+        assertThat(page.getUpdated()).extracting(SignalementResponse::getIdSignalement).containsExactly(fast);
+
+        release.countDown();
+        slowWrite.get(10, TimeUnit.SECONDS);
+        signalementChangeLog.number();
+
+        SignalementChangesResponse late = signalementService.getChanges(page.getCursor(), null);
+        assertThat(late.getUpdated()).extracting(SignalementResponse::getTitre).containsExactly("Nid de poule profond");
+    }
+
+    @Test
+    void deletionsAreReportedAfterEarlierChanges() {
+        Long a = create("Nid de poule");
+        Long b = create("Fissure");
+        signalementChangeLog.number();
+        String cursor = signalementService.getChanges(null, null).getCursor();
+
+        signalementService.delete(a);
+        rename(b, "Fissure large");
+        signalementChangeLog.number();
+
+        SignalementChangesResponse page = signalementService.getChanges(cursor, null);
+        assertThat(page.getDeleted()).containsExactly(a);
+        assertThat(page.getUpdated()).extracting(SignalementResponse::getIdSignalement).containsExactly(b);
+    }
+
+    @Test
+    void pagesFollowTheCursor() {
+        for (int i = 0; i < 5; i++) {
+            create("Nid de poule " + i);
+        }
+        signalementChangeLog.number();
+
+        SignalementChangesResponse p1 = signalementService.getChanges(null, 2);
+        SignalementChangesResponse p2 = signalementService.getChanges(p1.getCursor(), 2);
+        SignalementChangesResponse p3 = signalementService.getChanges(p2.getCursor(), 2);
+
+        assertThat(p1.getUpdated()).hasSize(2);
+        assertThat(p1.isHasMore()).isTrue();
+        assertThat(p2.getUpdated()).hasSize(2);
+        assertThat(p2.isHasMore()).isTrue();
+        assertThat(p3.getUpdated()).hasSize(1);
+        assertThat(p3.isHasMore()).isFalse();
+        assertThat(signalementService.getChanges(p3.getCursor(), 2).getUpdated()).isEmpty();
+    }
+
+    @Test
+    void rejectsInvalidCursor() {
+        assertThatThrownBy(() -> signalementService.getChanges("pas-un-curseur", null))
+                .hasMessage("Invalid cursor");
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.carte.service;
+
+import com.example.carte.dto.SignalementImportResponse;
+import com.example.carte.dto.SignalementImportResult;
+import com.example.carte.entity.User;
+import com.example.carte.index.RueSegmentIndex;
+import com.example.carte.index.VilleLocator;
+import com.example.carte.repository.SignalementRepository;
+import com.example.carte.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "signalement.bulk.batch-size=2"
+})
+@Import({SignalementImportService.class, VilleLocator.class, RueSegmentIndex.class,
+        SignalementImportServiceTest.Config.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SignalementImportServiceTest {
+
+    @TestConfiguration
+    static class Config {
+        @Bean
+        ObjectMapper objectMapper() {
+            return JsonMapper.builder().build();
+        }
+
+        @Bean
+        LocalValidatorFactoryBean validator() {
+            return new LocalValidatorFactoryBean();
+        }
+    }
+
+    // Équivalent H2 de la fonction PostgreSQL utilisée pour réserver les identifiants
+    public static class H2Functions {
+        public static String pgGetSerialSequence(String table, String column) {
+            return "test_signalement_seq";
+        }
+    }
+
+    @Autowired
+    private SignalementImportService signalementImportService;
+
+    @Autowired
+    private SignalementRepository signalementRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long idUtilisateur;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("CREATE SEQUENCE IF NOT EXISTS test_signalement_seq START WITH 100000");
+        jdbcTemplate.execute("CREATE ALIAS IF NOT EXISTS pg_get_serial_sequence FOR '"
+                + H2Functions.class.getName() + ".pgGetSerialSequence'");
+        signalementRepository.deleteAll();
+        User user = userRepository.findByUsername("agent").orElseGet(User::new);
+        user.setUsername("agent");
+        user.setEmail("agent@example.com");
+        user.setPassword("secret-password");
+        idUtilisateur = userRepository.save(user).getId();
+    }
+
+    private String line(String titre, long idUtilisateur) {
+        return "{\"titre\":\"" + titre + "\",\"latitude\":-18.91,\"longitude\":47.52,\"statut\":\"EN_ATTENTE\","
+                + "\"idUtilisateur\":" + idUtilisateur + "}";
+    }
+
+    @Test
+    void malformedLinesAreReportedPerLineAndImportContinues() throws Exception {
+        String body = String.join("\n",
+                line("Nid de poule 0", idUtilisateur),
+                line("Nid de poule 1", idUtilisateur),
+                "{\"titre\": pas du json",
+                "",
+                line("Utilisateur inconnu", -1),
+                line("Nid de poule 4", idUtilisateur),
+                "[]");
+
+        SignalementImportResponse response = signalementImportService.importNdjson(
+                new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+
+        assertThat(response.getSuccess()).isEqualTo(3);
+        assertThat(response.getErrors()).isEqualTo(3);
+        assertThat(response.getResults())
+                .extracting(SignalementImportResult::getIndex, SignalementImportResult::isSuccess)
+                .containsExactly(tuple(0, true), tuple(1, true), tuple(2, false), tuple(3, false),
+                        tuple(4, true), tuple(5, false));
+        assertThat(response.getResults().get(2).getMessage()).startsWith("Invalid JSON");
+        assertThat(response.getResults().get(3).getMessage()).isEqualTo("User not found");
+        assertThat(response.getResults().get(5).getMessage()).startsWith("Invalid JSON");
+        assertThat(signalementRepository.count()).isEqualTo(3);
+    }
+}
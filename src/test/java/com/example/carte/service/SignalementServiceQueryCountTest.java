@@ -0,0 +1,144 @@
+package com.example.carte.service;
+
+import com.example.carte.dto.SignalementPageResponse;
+import com.example.carte.dto.SignalementResponse;
+import com.example.carte.entity.Entreprise;
+import com.example.carte.entity.Signalement;
+import com.example.carte.entity.User;
+import com.example.carte.index.RueSegmentIndex;
+import com.example.carte.index.SignalementClusterIndex;
+import com.example.carte.index.SignalementSpatialIndex;
+import com.example.carte.index.SignalementStatistics;
+import com.example.carte.index.SignalementTextIndex;
+import com.example.carte.index.VilleLocator;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jpa.test.autoconfigure.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Import({SignalementService.class, SignalementSpatialIndex.class, SignalementClusterIndex.class,
+        SignalementStatistics.class, VilleLocator.class, RueSegmentIndex.class,
+        SignalementTextIndex.class, SignalementChangeLog.class})
+class SignalementServiceQueryCountTest {
+
+    private static final int NB_SIGNALEMENTS = 30;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private SignalementService signalementService;
+
+    private Statistics statistics;
+    private Long firstId;
+
+    @BeforeEach
+    void setUp() {
+        User user = new User();
+        user.setUsername("agent");
+        user.setEmail("agent@example.com");
+        user.setPassword("secret-password");
+        entityManager.persist(user);
+
+        Entreprise entreprise = new Entreprise();
+        entreprise.setNom("Colas");
+        entityManager.persist(entreprise);
+
+        for (int i = 0; i < NB_SIGNALEMENTS; i++) {
+            Signalement s = new Signalement();
+            s.setTitre("Nid de poule " + i);
+            s.setLatitude(new BigDecimal("-18.9100000"));
+            s.setLongitude(new BigDecimal("47.5200000"));
+            s.setStatut(i % 2 == 0 ? "EN_ATTENTE" : "RESOLU");
+            s.setUtilisateur(user);
+            s.setEntreprise(i % 3 == 0 ? entreprise : null);
+            entityManager.persist(s);
+            if (firstId == null) {
+                firstId = s.getIdSignalement();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void listingCostsOneStatementWhateverTheNumberOfRows() {
+        SignalementPageResponse page = signalementService.getPage(null, 100, null, null, null, null);
+
+        assertThat(page.getItems()).hasSize(NB_SIGNALEMENTS);
+        assertThat(page.getItems()).anyMatch(r -> "Colas".equals(r.getNomEntreprise()));
+        assertThat(page.getItems()).allMatch(r -> "agent".equals(r.getUsername()));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void filteredPageCostsOneStatement() {
+        SignalementPageResponse page = signalementService.getPage(null, 5, "RESOLU", null, null, null);
+
+        assertThat(page.getItems()).hasSize(5);
+        assertThat(page.isHasMore()).isTrue();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void filtersCombineAndPagesFollowTheKey() {
+        SignalementResponse premier = signalementService.getById(firstId);
+        Long idUtilisateur = premier.getIdUtilisateur();
+        statistics.clear();
+
+        // Entreprise sur i % 3 == 0, RESOLU sur i impair : i = 3, 9, 15, 21, 27
+        SignalementPageResponse first = signalementService.getPage(null, 3, "RESOLU", null, idUtilisateur, null);
+        SignalementPageResponse combined = signalementService.getPage(firstId + 3, 10, "RESOLU",
+                premier.getIdEntreprise(), null, null);
+
+        assertThat(first.getItems()).extracting(r -> r.getIdSignalement() - firstId).containsExactly(1L, 3L, 5L);
+        assertThat(first.getNextCursor()).isEqualTo(firstId + 5);
+        assertThat(combined.getItems()).extracting(r -> r.getIdSignalement() - firstId)
+                .containsExactly(9L, 15L, 21L, 27L);
+        assertThat(combined.isHasMore()).isFalse();
+        assertThat(signalementService.getPage(null, 10, null, null, idUtilisateur + 1, null).getItems()).isEmpty();
+        assertThat(signalementService.getPage(null, 10, null, null, null,
+                LocalDateTime.now().plusDays(1)).getItems()).isEmpty();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(4);
+    }
+
+    @Test
+    void detailCostsOneStatement() {
+        assertThat(signalementService.getById(firstId).getUsername()).isEqualTo("agent");
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void toStringAndHashCodeLeaveLazyAssociationsUnloaded() {
+        Signalement s = entityManager.find(Signalement.class, firstId);
+        statistics.clear();
+
+        assertThat(s.toString()).contains("Nid de poule 0");
+        assertThat(s.hashCode()).isEqualTo(s.hashCode());
+        assertThat(s).isEqualTo(s);
+
+        assertThat(Hibernate.isInitialized(s.getUtilisateur())).isFalse();
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+    }
+}
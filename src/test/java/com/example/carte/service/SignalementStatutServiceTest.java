@@ -0,0 +1,245 @@
+package com.example.carte.service;
+
+import com.example.carte.analytics.StatutTransition;
+import com.example.carte.dto.BulkStatutUpdateRequest;
+import com.example.carte.dto.ResolutionStatsResponse;
+import com.example.carte.dto.SignalementResponse;
+import com.example.carte.dto.StatutUpdateRequest;
+import com.example.carte.dto.StatutUpdateResponse;
+import com.example.carte.entity.HistoriqueStatut;
+import com.example.carte.entity.Signalement;
+import com.example.carte.entity.User;
+import com.example.carte.index.RueSegmentIndex;
+import com.example.carte.index.SignalementClusterIndex;
+import com.example.carte.index.SignalementSpatialIndex;
+import com.example.carte.index.SignalementStatistics;
+import com.example.carte.index.SignalementTextIndex;
+import com.example.carte.index.VilleLocator;
+import com.example.carte.repository.HistoriqueStatutRepository;
+import com.example.carte.repository.ResolutionRollupRepository;
+import com.example.carte.repository.SignalementRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jpa.test.autoconfigure.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "signalement.changes.number-interval-ms=3600000"
+})
+@Import({SignalementStatutService.class, ResolutionAnalyticsService.class, SignalementService.class,
+        SignalementChangeLog.class, SignalementSpatialIndex.class, SignalementClusterIndex.class,
+        SignalementStatistics.class, VilleLocator.class, RueSegmentIndex.class, SignalementTextIndex.class})
+class SignalementStatutServiceTest {
+
+    private static final int NB_SIGNALEMENTS = 30;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private SignalementStatutService signalementStatutService;
+
+    @Autowired
+    private SignalementService signalementService;
+
+    @Autowired
+    private SignalementRepository signalementRepository;
+
+    @Autowired
+    private HistoriqueStatutRepository historiqueStatutRepository;
+
+    @Autowired
+    private ResolutionAnalyticsService resolutionAnalyticsService;
+
+    @Autowired
+    private ResolutionRollupRepository resolutionRollupRepository;
+
+    private User manager;
+    private final List<Long> ids = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        manager = new User();
+        manager.setUsername("manager");
+        manager.setEmail("manager@example.com");
+        manager.setPassword("secret-password");
+        entityManager.persist(manager);
+
+        for (int i = 0; i < NB_SIGNALEMENTS; i++) {
+            Signalement s = new Signalement();
+            s.setTitre("Nid de poule " + i);
+            s.setLatitude(new BigDecimal("-18.9100000"));
+            s.setLongitude(new BigDecimal("47.5200000"));
+            s.setStatut(i < 10 ? "EN_COURS" : "EN_ATTENTE");
+            s.setUtilisateur(manager);
+            entityManager.persist(s);
+            ids.add(s.getIdSignalement());
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void bulkUpdateChangesStatutAndAppendsHistory() {
+        BulkStatutUpdateRequest request = new BulkStatutUpdateRequest();
+        List<Long> requested = new ArrayList<>(ids);
+        requested.add(-1L);
+        request.setIds(requested);
+        request.setStatut("EN_COURS");
+        request.setIdManager(manager.getId());
+
+        StatutUpdateResponse response = signalementStatutService.updateStatuts(request);
+        entityManager.clear();
+
+        assertThat(response.getUpdated()).isEqualTo(20);
+        assertThat(response.getUnchanged()).isEqualTo(10);
+        assertThat(response.getNotFound()).containsExactly(-1L);
+        assertThat(signalementRepository.findAll()).allMatch(s -> "EN_COURS".equals(s.getStatut()));
+
+        List<HistoriqueStatut> history = historiqueStatutRepository.findAll();
+        assertThat(history).hasSize(20);
+        assertThat(history).allMatch(h -> "EN_ATTENTE".equals(h.getAncienStatut())
+                && "EN_COURS".equals(h.getNouveauStatut())
+                && manager.getId().equals(h.getManager().getId()));
+    }
+
+    @Test
+    void singleUpdateReturnsTheUpdatedSignalement() {
+        StatutUpdateRequest request = new StatutUpdateRequest();
+        request.setStatut("RESOLU");
+        request.setIdManager(manager.getId());
+
+        SignalementResponse response = signalementStatutService.updateStatut(ids.get(0), request);
+
+        assertThat(response.getStatut()).isEqualTo("RESOLU");
+        assertThat(historiqueStatutRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    void unknownStatutIsRejected() {
+        StatutUpdateRequest request = new StatutUpdateRequest();
+        request.setStatut("TERMINE");
+        request.setIdManager(manager.getId());
+        assertThatThrownBy(() -> signalementStatutService.updateStatut(ids.get(0), request))
+                .hasMessage("Invalid statut");
+
+        BulkStatutUpdateRequest bulk = new BulkStatutUpdateRequest();
+        bulk.setIds(ids);
+        bulk.setStatut("resolu");
+        bulk.setIdManager(manager.getId());
+        assertThatThrownBy(() -> signalementStatutService.updateStatuts(bulk))
+                .hasMessage("Invalid statut");
+
+        assertThat(historiqueStatutRepository.count()).isZero();
+        assertThat(signalementRepository.findById(ids.get(0)).orElseThrow().getStatut()).isEqualTo("EN_COURS");
+    }
+
+    @Test
+    void signalementWithHistoryCanBeDeleted() {
+        StatutUpdateRequest request = new StatutUpdateRequest();
+        request.setStatut("RESOLU");
+        request.setIdManager(manager.getId());
+        signalementStatutService.updateStatut(ids.get(0), request);
+        signalementStatutService.updateStatut(ids.get(1), request);
+
+        signalementService.delete(ids.get(0));
+        entityManager.flush();
+        entityManager.clear();
+
+        assertThat(signalementRepository.findById(ids.get(0))).isEmpty();
+        assertThat(historiqueStatutRepository.findAll())
+                .extracting(h -> h.getSignalement().getIdSignalement())
+                .containsExactly(ids.get(1));
+    }
+
+    @Test
+    void unknownSignalementOrManagerIsRejected() {
+        StatutUpdateRequest request = new StatutUpdateRequest();
+        request.setStatut("RESOLU");
+        request.setIdManager(manager.getId());
+        assertThatThrownBy(() -> signalementStatutService.updateStatut(-1L, request))
+                .hasMessage("Signalement not found");
+
+        request.setIdManager(-1L);
+        assertThatThrownBy(() -> signalementStatutService.updateStatut(ids.get(0), request))
+                .hasMessage("Manager not found");
+    }
+
+    @Test
+    void statutChangesFeedResolutionRollupsAndRebuildMatches() {
+        BulkStatutUpdateRequest request = new BulkStatutUpdateRequest();
+        request.setIds(ids);
+        request.setStatut("RESOLU");
+        request.setIdManager(manager.getId());
+        signalementStatutService.updateStatuts(request);
+
+        List<ResolutionStatsResponse> incremental = resolutionAnalyticsService.getStats(
+                ResolutionAnalyticsService.MESURE_RESOLUTION, "global", null, null, false);
+        assertThat(incremental).hasSize(1);
+        assertThat(incremental.get(0).getNombre()).isEqualTo(NB_SIGNALEMENTS);
+        assertThat(incremental.get(0).getMedianeJours()).isNotNull().isLessThan(1.0);
+
+        List<ResolutionStatsResponse> parStatut = resolutionAnalyticsService.getStats(
+                ResolutionAnalyticsService.MESURE_DUREE_STATUT, "entreprise", null, null, false);
+        assertThat(parStatut).extracting(ResolutionStatsResponse::getStatut, ResolutionStatsResponse::getNombre)
+                .containsExactly(tuple("EN_ATTENTE", 20L),
+                        tuple("EN_COURS", 10L));
+
+        assertThat(resolutionAnalyticsService.rebuild()).isEqualTo(NB_SIGNALEMENTS);
+        assertThat(resolutionAnalyticsService.getStats(
+                ResolutionAnalyticsService.MESURE_RESOLUTION, "global", null, null, false))
+                .usingRecursiveComparison().isEqualTo(incremental);
+    }
+
+    @Test
+    void deltasAreAppendedThenCompactedWithoutChangingStats() {
+        BulkStatutUpdateRequest request = new BulkStatutUpdateRequest();
+        request.setIds(ids.subList(0, 10));
+        request.setStatut("RESOLU");
+        request.setIdManager(manager.getId());
+        signalementStatutService.updateStatuts(request);
+        request.setIds(ids.subList(10, NB_SIGNALEMENTS));
+        signalementStatutService.updateStatuts(request);
+
+        List<ResolutionStatsResponse> before = resolutionAnalyticsService.getStats(
+                ResolutionAnalyticsService.MESURE_RESOLUTION, "global", null, null, false);
+        long rows = resolutionRollupRepository.count();
+
+        assertThat(resolutionAnalyticsService.compact()).isPositive();
+        entityManager.flush();
+        assertThat(resolutionRollupRepository.count()).isLessThan(rows);
+        assertThat(resolutionAnalyticsService.compact()).isZero();
+        assertThat(resolutionAnalyticsService.getStats(
+                ResolutionAnalyticsService.MESURE_RESOLUTION, "global", null, null, false))
+                .usingRecursiveComparison().isEqualTo(before);
+        assertThat(before.get(0).getNombre()).isEqualTo(NB_SIGNALEMENTS);
+    }
+
+    @Test
+    void failingAnalyticsDoNotFailTheCaller() {
+        long failures = resolutionAnalyticsService.getRecordFailures();
+        LocalDateTime now = LocalDateTime.now();
+        // Statut trop long pour la colonne : l'insertion des deltas échoue
+        resolutionAnalyticsService.record(List.of(new StatutTransition(ids.get(0), "X".repeat(40),
+                "EN_COURS", now.minusDays(1), now.minusDays(1), now, null, null)));
+
+        assertThat(resolutionAnalyticsService.getRecordFailures() - failures).isEqualTo(1);
+        assertThat(resolutionAnalyticsService.getStatus().getRecordFailures()).isEqualTo(failures + 1);
+        StatutUpdateRequest request = new StatutUpdateRequest();
+        request.setStatut("RESOLU");
+        request.setIdManager(manager.getId());
+        assertThat(signalementStatutService.updateStatut(ids.get(0), request).getStatut()).isEqualTo("RESOLU");
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.carte.service;
+
+import com.example.carte.index.SignalementChangedEvent;
+import com.example.carte.index.SignalementPoint;
+import com.example.carte.index.SignalementSpatialIndex;
+import com.example.carte.tile.TileCache;
+import com.example.carte.tile.TileMath;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SignalementTileServiceTest {
+
+    private static final int MAX_ZOOM = 14;
+
+    private SignalementSpatialIndex index;
+    private SignalementTileService service;
+    private TileCache cache;
+
+    @BeforeEach
+    void setUp() {
+        index = new SignalementSpatialIndex();
+        ReflectionTestUtils.setField(index, "cellSize", 0.01);
+
+        service = new SignalementTileService();
+        ReflectionTestUtils.setField(service, "signalementSpatialIndex", index);
+        ReflectionTestUtils.setField(service, "maxZoom", MAX_ZOOM);
+        ReflectionTestUtils.setField(service, "cacheBytes", 1L << 20);
+        ReflectionTestUtils.invokeMethod(service, "init");
+        cache = (TileCache) ReflectionTestUtils.getField(service, "cache");
+    }
+
+    private static SignalementPoint point(long id, double lat, double lon) {
+        return new SignalementPoint(id, lat, lon, "EN_ATTENTE", null, null, null, null);
+    }
+
+    private static String key(SignalementPoint p, int z) {
+        return TileCache.key(z, (int) TileMath.tileX(p.longitude(), z), (int) TileMath.tileY(p.latitude(), z));
+    }
+
+    private void render(SignalementPoint p, int z) {
+        service.getTile(z, (int) TileMath.tileX(p.longitude(), z), (int) TileMath.tileY(p.latitude(), z));
+    }
+
+    @Test
+    void tilesAreCachedOnceRendered() {
+        SignalementPoint a = point(1, -18.91, 47.52);
+        index.put(a);
+
+        render(a, 10);
+        byte[] first = cache.get(key(a, 10));
+
+        assertThat(first).isNotEmpty();
+        render(a, 10);
+        assertThat(cache.size()).isEqualTo(1);
+        assertThat(cache.get(key(a, 10))).isSameAs(first);
+    }
+
+    @Test
+    void changeEvictsOnlyTilesOfPreviousAndCurrentPositions() {
+        SignalementPoint a = point(1, -18.91, 47.52);
+        SignalementPoint moved = point(1, -19.50, 47.00);
+        SignalementPoint elsewhere = point(2, 48.85, 2.35);
+        index.put(a);
+        index.put(elsewhere);
+        for (int z : new int[]{4, 10, 14}) {
+            render(a, z);
+            render(moved, z);
+            render(elsewhere, z);
+        }
+        // Zoom 4 : a et moved sont dans la même tuile
+        assertThat(key(a, 4)).isEqualTo(key(moved, 4));
+        assertThat(key(a, 10)).isNotEqualTo(key(moved, 10));
+        assertThat(cache.size()).isEqualTo(8);
+
+        index.put(moved);
+        service.onSignalementChanged(new SignalementChangedEvent(a, moved));
+
+        for (int z : new int[]{4, 10, 14}) {
+            assertThat(cache.get(key(a, z))).isNull();
+            assertThat(cache.get(key(moved, z))).isNull();
+            assertThat(cache.get(key(elsewhere, z))).isNotNull();
+        }
+        assertThat(cache.size()).isEqualTo(3);
+    }
+
+    @Test
+    void deletionEvictsPreviousPositionOnly() {
+        SignalementPoint a = point(1, -18.91, 47.52);
+        SignalementPoint b = point(2, 48.85, 2.35);
+        index.put(a);
+        index.put(b);
+        render(a, 12);
+        render(b, 12);
+
+        index.remove(1L);
+        service.onSignalementChanged(new SignalementChangedEvent(a, null));
+
+        assertThat(cache.get(key(a, 12))).isNull();
+        assertThat(cache.get(key(b, 12))).isNotNull();
+        render(a, 12);
+        assertThat(cache.get(key(a, 12))).isEmpty();
+    }
+
+    @Test
+    void rejectsTilesOutsideZoomRange() {
+        assertThatThrownBy(() -> service.getTile(MAX_ZOOM + 1, 0, 0)).hasMessage("Invalid tile coordinates");
+        assertThatThrownBy(() -> service.getTile(2, 4, 0)).hasMessage("Invalid tile coordinates");
+    }
+}
@@ -0,0 +1,195 @@
+package com.example.carte.service;
+
+import com.example.carte.dto.LoginRequest;
+import com.example.carte.dto.UpdateUserRequest;
+import com.example.carte.entity.User;
+import com.example.carte.repository.RefreshTokenRepository;
+import com.example.carte.repository.UserRepository;
+import com.example.carte.security.JwtTokenProvider;
+import com.example.carte.security.LoginThrottle;
+import com.example.carte.security.TokenDenylist;
+import com.example.carte.security.UserPrincipalCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "jwt.secret=test-secret-key-long-enough-for-hmac-sha-256-signatures",
+        "jwt.expiration=60000",
+        "login.throttle.max-failures-per-ip=5"
+})
+@Import({UserService.class, LoginThrottle.class, JwtTokenProvider.class, RefreshTokenService.class, TokenDenylist.class,
+        UserPrincipalCache.class, UserServiceTest.Config.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class UserServiceTest {
+
+    static final AtomicInteger hashChecks = new AtomicInteger();
+    static volatile Runnable onEncode;
+
+    @TestConfiguration
+    static class Config {
+        @Bean
+        PasswordEncoder passwordEncoder() {
+            PasswordEncoder bcrypt = new BCryptPasswordEncoder(4);
+            return new PasswordEncoder() {
+                @Override
+                public String encode(CharSequence rawPassword) {
+                    Runnable hook = onEncode;
+                    if (hook != null) {
+                        hook.run();
+                    }
+                    return bcrypt.encode(rawPassword);
+                }
+
+                @Override
+                public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                    hashChecks.incrementAndGet();
+                    return bcrypt.matches(rawPassword, encodedPassword);
+                }
+
+                @Override
+                public boolean upgradeEncoding(String encodedPassword) {
+                    return !encodedPassword.startsWith("$2a$04$");
+                }
+            };
+        }
+    }
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private UserPrincipalCache userPrincipalCache;
+
+    @Autowired
+    private LoginThrottle loginThrottle;
+
+    @BeforeEach
+    void setUp() {
+        refreshTokenRepository.deleteAll();
+        userRepository.deleteAll();
+        User user = new User();
+        user.setUsername("rakoto");
+        user.setEmail("rakoto@example.com");
+        user.setPassword(passwordEncoder.encode("bon-mot-de-passe"));
+        userRepository.save(user);
+        hashChecks.set(0);
+        onEncode = null;
+    }
+
+    private static LoginRequest login(String username, String password) {
+        LoginRequest request = new LoginRequest();
+        request.setUsername(username);
+        request.setPassword(password);
+        return request;
+    }
+
+    @Test
+    void lockIsPersistedOnceAndLaterAttemptsSkipBcrypt() {
+        for (int i = 0; i < 2; i++) {
+            assertThatThrownBy(() -> userService.authenticateUser(login("rakoto", "faux"), "10.0.0.1"))
+                    .hasMessage("Invalid password");
+            assertThat(userRepository.findByUsername("rakoto").get().isLocked()).isFalse();
+        }
+        assertThatThrownBy(() -> userService.authenticateUser(login("rakoto", "faux"), "10.0.0.2"))
+                .hasMessage("Invalid password");
+
+        User locked = userRepository.findByUsername("rakoto").get();
+        assertThat(userPrincipalCache.get("rakoto").locked()).isTrue();
+        assertThat(locked.isLocked()).isTrue();
+        assertThat(locked.getLockTime()).isNotNull();
+        assertThat(hashChecks.get()).isEqualTo(3);
+
+        assertThatThrownBy(() -> userService.authenticateUser(login("rakoto", "bon-mot-de-passe"), "10.0.0.3"))
+                .hasMessage("Account is locked. Try again later.");
+        assertThat(hashChecks.get()).isEqualTo(3);
+
+        userService.unlockUserByUsername("rakoto");
+        assertThat(userPrincipalCache.get("rakoto").locked()).isFalse();
+        assertThat(userRepository.findByUsername("rakoto").get().isLocked()).isFalse();
+        assertThat(userService.authenticateUser(login("rakoto", "bon-mot-de-passe"), "10.0.0.3").getToken())
+                .isNotBlank();
+    }
+
+    @Test
+    void noisyClientIsRejectedBeforeAnyLookup() {
+        for (int i = 0; i < 5; i++) {
+            String username = "inconnu" + i;
+            assertThatThrownBy(() -> userService.authenticateUser(login(username, "x"), "10.0.0.9"))
+                    .hasMessage("User not found");
+        }
+
+        assertThatThrownBy(() -> userService.authenticateUser(login("rakoto", "bon-mot-de-passe"), "10.0.0.9"))
+                .hasMessage("Too many failed attempts. Try again later.");
+        assertThat(hashChecks.get()).isZero();
+        Object userFailures = ReflectionTestUtils.getField(loginThrottle, "userFailures");
+        assertThat((Integer) ReflectionTestUtils.invokeMethod(userFailures, "size")).isZero();
+        assertThat(userService.authenticateUser(login("rakoto", "bon-mot-de-passe"), "10.0.0.10").getToken())
+                .isNotBlank();
+    }
+
+    @Test
+    void passwordHashedWithOtherCostIsRehashedOnLogin() {
+        User user = userRepository.findByUsername("rakoto").get();
+        user.setPassword(new BCryptPasswordEncoder(5).encode("bon-mot-de-passe"));
+        userRepository.save(user);
+
+        userService.authenticateUser(login("rakoto", "bon-mot-de-passe"), "10.0.0.1");
+
+        String rehashed = userRepository.findByUsername("rakoto").get().getPassword();
+        assertThat(rehashed).startsWith("$2a$04$");
+        assertThat(passwordEncoder.matches("bon-mot-de-passe", rehashed)).isTrue();
+    }
+
+    @Test
+    void deletedUserIsEvictedFromPrincipalCacheAfterCommit() {
+        Long id = userRepository.findByUsername("rakoto").get().getId();
+        assertThat(userPrincipalCache.get("rakoto")).isNotNull();
+
+        userService.deleteUser(id);
+
+        assertThat(userPrincipalCache.get("rakoto")).isNull();
+    }
+
+    @Test
+    void updateDoesNotOverwriteLockTakenWhileHashing() {
+        Long id = userRepository.findByUsername("rakoto").get().getId();
+        onEncode = () -> userRepository.lock("rakoto", 3, LocalDateTime.now());
+        UpdateUserRequest request = new UpdateUserRequest();
+        request.setFirstName("Jean");
+        request.setPassword("nouveau-mot-de-passe");
+
+        userService.updateUser(id, request);
+
+        User user = userRepository.findById(id).get();
+        assertThat(user.getFirstName()).isEqualTo("Jean");
+        assertThat(passwordEncoder.matches("nouveau-mot-de-passe", user.getPassword())).isTrue();
+        assertThat(user.isLocked()).isTrue();
+        assertThat(user.getFailedLoginAttempts()).isEqualTo(3);
+    }
+}
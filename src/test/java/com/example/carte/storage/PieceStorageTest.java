@@ -0,0 +1,91 @@
+package com.example.carte.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PieceStorageTest {
+
+    @TempDir
+    Path dir;
+
+    private PieceStorage storage;
+
+    @BeforeEach
+    void setUp() {
+        storage = new PieceStorage();
+        ReflectionTestUtils.setField(storage, "storageDir", dir.resolve("pieces").toString());
+        ReflectionTestUtils.invokeMethod(storage, "init");
+    }
+
+    private String store(byte[] data) {
+        return storage.commit(storage.stage(new ByteArrayInputStream(data)));
+    }
+
+    @Test
+    void storesContentUnderItsSha256() throws Exception {
+        byte[] data = new byte[200_000];
+        new Random(7).nextBytes(data);
+        String sha256 = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+
+        PieceStorage.Staged staged = storage.stage(new ByteArrayInputStream(data));
+        String chemin = storage.commit(staged);
+
+        assertThat(staged.sha256()).isEqualTo(sha256);
+        assertThat(staged.taille()).isEqualTo(data.length);
+        assertThat(chemin).isEqualTo(sha256.substring(0, 2) + "/" + sha256.substring(2, 4) + "/" + sha256);
+        assertThat(PieceStorage.sha256Of(chemin)).isEqualTo(sha256);
+        Path path = storage.resolve(chemin);
+        assertThat(path).isNotNull();
+        assertThat(Files.readAllBytes(path)).isEqualTo(data);
+        try (var tmp = Files.list(dir.resolve("pieces").resolve("tmp"))) {
+            assertThat(tmp).isEmpty();
+        }
+    }
+
+    @Test
+    void identicalContentIsNotRewritten() throws IOException {
+        String chemin = store(new byte[]{1, 2, 3});
+        Path path = storage.resolve(chemin);
+        FileTime written = Files.getLastModifiedTime(path);
+        Files.setLastModifiedTime(path, FileTime.fromMillis(written.toMillis() - 60_000));
+
+        assertThat(store(new byte[]{1, 2, 3})).isEqualTo(chemin);
+        assertThat(Files.getLastModifiedTime(path).toMillis()).isEqualTo(written.toMillis() - 60_000);
+        assertThat(store(new byte[]{1, 2, 4})).isNotEqualTo(chemin);
+        assertThat(PieceStorage.sha256Of("2026/10/photo.jpg")).isNull();
+    }
+
+    @Test
+    void resolveRejectsPathsOutsideRoot() throws IOException {
+        Files.writeString(dir.resolve("secret.txt"), "x");
+
+        assertThat(storage.resolve("../secret.txt")).isNull();
+        assertThat(storage.resolve(dir.resolve("secret.txt").toString())).isNull();
+        assertThat(storage.resolve("https://example.org/photo.jpg")).isNull();
+        assertThat(storage.resolve(null)).isNull();
+    }
+
+    @Test
+    void deleteRemovesFile() {
+        String chemin = store(new byte[]{1, 2, 3});
+        Path path = storage.resolve(chemin);
+
+        storage.delete(chemin);
+
+        assertThat(Files.exists(path)).isFalse();
+        assertThat(storage.resolve(chemin)).isNull();
+    }
+}
@@ -0,0 +1,216 @@
+package com.example.carte.tile;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MvtEncoderTest {
+
+    @Test
+    void emptyEncoderProducesEmptyTile() {
+        MvtEncoder encoder = new MvtEncoder("signalements");
+
+        assertThat(encoder.isEmpty()).isTrue();
+        assertThat(encoder.encode()).isEmpty();
+    }
+
+    @Test
+    void decodesLayerGeometryAndAttributes() {
+        MvtEncoder encoder = new MvtEncoder("signalements");
+        Map<String, Object> first = new LinkedHashMap<>();
+        first.put("statut", "EN_ATTENTE");
+        first.put("surfaceM2", 12.5);
+        first.put("priorite", -3L);
+        encoder.addPoint(7, 0, 4095, first);
+        Map<String, Object> second = new LinkedHashMap<>();
+        second.put("statut", "EN_ATTENTE");
+        second.put("surfaceM2", null);
+        encoder.addPoint(300, 2048, 17, second);
+
+        Layer layer = Layer.decode(encoder.encode());
+
+        assertThat(layer.version).isEqualTo(2);
+        assertThat(layer.name).isEqualTo("signalements");
+        assertThat(layer.extent).isEqualTo(MvtEncoder.EXTENT);
+        assertThat(layer.keys).containsExactly("statut", "surfaceM2", "priorite");
+        assertThat(layer.values).containsExactly("EN_ATTENTE", 12.5, -3L);
+        assertThat(layer.features).hasSize(2);
+
+        Feature f1 = layer.features.get(0);
+        assertThat(f1.id).isEqualTo(7);
+        assertThat(f1.type).isEqualTo(1);
+        assertThat(f1.geometry).containsExactly(9L, 0L, 4095L);
+        assertThat(layer.attributes(f1)).containsExactly(
+                Map.entry("statut", "EN_ATTENTE"), Map.entry("surfaceM2", 12.5), Map.entry("priorite", -3L));
+
+        // Clés et valeurs partagées, attribut null omis
+        Feature f2 = layer.features.get(1);
+        assertThat(f2.id).isEqualTo(300);
+        assertThat(f2.geometry).containsExactly(9L, 2048L, 17L);
+        assertThat(layer.attributes(f2)).containsExactly(Map.entry("statut", "EN_ATTENTE"));
+    }
+
+    @Test
+    void rejectsUnsupportedValueType() {
+        MvtEncoder encoder = new MvtEncoder("signalements");
+        encoder.addPoint(1, 0, 0, Map.of("actif", true));
+
+        assertThatThrownBy(encoder::encode).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    // Lecteur protobuf réduit aux messages écrits par l'encodeur
+    private static final class Reader {
+
+        private final byte[] data;
+        private int pos;
+        private final int end;
+
+        Reader(byte[] data, int start, int end) {
+            this.data = data;
+            this.pos = start;
+            this.end = end;
+        }
+
+        boolean hasMore() {
+            return pos < end;
+        }
+
+        long varint() {
+            long result = 0;
+            int shift = 0;
+            while (true) {
+                int b = data[pos++] & 0xff;
+                result |= (long) (b & 0x7f) << shift;
+                if ((b & 0x80) == 0) {
+                    return result;
+                }
+                shift += 7;
+            }
+        }
+
+        long fixed64() {
+            long result = 0;
+            for (int i = 0; i < 8; i++) {
+                result |= (long) (data[pos++] & 0xff) << (8 * i);
+            }
+            return result;
+        }
+
+        Reader message() {
+            int length = (int) varint();
+            Reader r = new Reader(data, pos, pos + length);
+            pos += length;
+            return r;
+        }
+
+        String string() {
+            int length = (int) varint();
+            String s = new String(data, pos, length, StandardCharsets.UTF_8);
+            pos += length;
+            return s;
+        }
+
+        List<Long> packed() {
+            Reader r = message();
+            List<Long> values = new ArrayList<>();
+            while (r.hasMore()) {
+                values.add(r.varint());
+            }
+            return values;
+        }
+    }
+
+    private static long unZigZag(long n) {
+        return (n >>> 1) ^ -(n & 1);
+    }
+
+    private static final class Feature {
+        long id;
+        long type;
+        List<Long> tags = List.of();
+        List<Long> geometry = List.of();
+    }
+
+    private static final class Layer {
+        long version;
+        String name;
+        long extent;
+        final List<Feature> features = new ArrayList<>();
+        final List<String> keys = new ArrayList<>();
+        final List<Object> values = new ArrayList<>();
+
+        static Layer decode(byte[] tile) {
+            Reader t = new Reader(tile, 0, tile.length);
+            assertThat(t.varint()).isEqualTo((3 << 3) | 2);
+            Reader l = t.message();
+            assertThat(t.hasMore()).isFalse();
+
+            Layer layer = new Layer();
+            while (l.hasMore()) {
+                long tag = l.varint();
+                switch ((int) (tag >>> 3)) {
+                    case 15 -> layer.version = l.varint();
+                    case 1 -> layer.name = l.string();
+                    case 2 -> layer.features.add(feature(l.message()));
+                    case 3 -> layer.keys.add(l.string());
+                    case 4 -> layer.values.add(value(l.message()));
+                    case 5 -> layer.extent = l.varint();
+                    default -> throw new AssertionError("Unexpected layer field " + (tag >>> 3));
+                }
+            }
+            return layer;
+        }
+
+        private static Feature feature(Reader r) {
+            Feature f = new Feature();
+            while (r.hasMore()) {
+                long tag = r.varint();
+                switch ((int) (tag >>> 3)) {
+                    case 1 -> f.id = r.varint();
+                    case 2 -> f.tags = r.packed();
+                    case 3 -> f.type = r.varint();
+                    case 4 -> f.geometry = unZigZagCoordinates(r.packed());
+                    default -> throw new AssertionError("Unexpected feature field " + (tag >>> 3));
+                }
+            }
+            return f;
+        }
+
+        // Commande MoveTo laissée telle quelle, paramètres décodés
+        private static List<Long> unZigZagCoordinates(List<Long> geometry) {
+            List<Long> decoded = new ArrayList<>();
+            decoded.add(geometry.get(0));
+            for (int i = 1; i < geometry.size(); i++) {
+                decoded.add(unZigZag(geometry.get(i)));
+            }
+            return decoded;
+        }
+
+        private static Object value(Reader r) {
+            long tag = r.varint();
+            Object v = switch ((int) (tag >>> 3)) {
+                case 1 -> r.string();
+                case 3 -> Double.longBitsToDouble(r.fixed64());
+                case 6 -> unZigZag(r.varint());
+                default -> throw new AssertionError("Unexpected value field " + (tag >>> 3));
+            };
+            assertThat(r.hasMore()).isFalse();
+            return v;
+        }
+
+        Map<String, Object> attributes(Feature f) {
+            Map<String, Object> attributes = new LinkedHashMap<>();
+            for (int i = 0; i < f.tags.size(); i += 2) {
+                attributes.put(keys.get(f.tags.get(i).intValue()), values.get(f.tags.get(i + 1).intValue()));
+            }
+            return attributes;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.carte.tile;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TileCacheTest {
+
+    @Test
+    void emptyTilesStayBounded() {
+        TileCache cache = new TileCache(64 * 1024);
+
+        for (int x = 0; x < 100_000; x++) {
+            cache.put(TileCache.key(20, x, 0), new byte[0]);
+        }
+
+        assertThat(cache.size()).isEqualTo(64 * 1024 / TileCache.ENTRY_OVERHEAD);
+        assertThat(cache.sizeInBytes()).isLessThanOrEqualTo(64 * 1024);
+        // Les plus récentes restent, les plus anciennes sont évincées
+        assertThat(cache.get(TileCache.key(20, 99_999, 0))).isEmpty();
+        assertThat(cache.get(TileCache.key(20, 0, 0))).isNull();
+    }
+
+    @Test
+    void evictionCountsDataAndOverhead() {
+        TileCache cache = new TileCache(3 * (100 + TileCache.ENTRY_OVERHEAD));
+        cache.put("a", new byte[100]);
+        cache.put("b", new byte[100]);
+        cache.put("c", new byte[100]);
+        assertThat(cache.size()).isEqualTo(3);
+
+        cache.get("a");
+        cache.put("d", new byte[100]);
+        assertThat(cache.get("b")).isNull();
+        assertThat(cache.get("a")).isNotNull();
+
+        cache.evict("a");
+        assertThat(cache.sizeInBytes()).isEqualTo(2 * (100 + TileCache.ENTRY_OVERHEAD));
+        // Une tuile plus grande que le cache n'est jamais gardée
+        cache.put("big", new byte[3 * 100 + 2 * TileCache.ENTRY_OVERHEAD + 1]);
+        assertThat(cache.get("big")).isNull();
+        assertThat(cache.size()).isEqualTo(2);
+    }
+}
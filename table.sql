@@ -14,12 +14,35 @@ CREATE TABLE IF NOT EXISTS users (
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
 );
 
+CREATE TABLE refresh_token (
+    id BIGSERIAL PRIMARY KEY,
+    token_hash VARCHAR(64) NOT NULL UNIQUE,
+    family_id VARCHAR(36) NOT NULL,
+    user_id BIGINT NOT NULL REFERENCES users(id),
+    expires_at TIMESTAMP NOT NULL,
+    used_at TIMESTAMP,
+    revoked BOOLEAN NOT NULL DEFAULT FALSE,
+    access_jti VARCHAR(36),
+    access_expires_at TIMESTAMP,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX idx_refresh_token_family ON refresh_token (family_id);
+
+CREATE INDEX idx_refresh_token_user ON refresh_token (user_id, expires_at);
+
+CREATE TABLE revoked_token (
+    jti VARCHAR(36) PRIMARY KEY,
+    expires_at TIMESTAMP NOT NULL
+);
+
 CREATE TABLE ville (
     id_ville BIGSERIAL PRIMARY KEY,
     nom VARCHAR(100) NOT NULL,
     latitude DECIMAL(10, 7) NOT NULL,
     longitude DECIMAL(10, 7) NOT NULL,
     rayon_km DECIMAL(6, 2),
+    frontiere BYTEA,
     date_import TIMESTAMP DEFAULT CURRENT_TIMESTAMP
 );
 
@@ -54,9 +77,14 @@ CREATE TABLE signalement (
     budget DECIMAL(15, 2),
     id_utilisateur BIGINT NOT NULL,
     id_entreprise BIGINT,
+    id_ville BIGINT,
+    id_rue BIGINT,
     sync_state VARCHAR(20) DEFAULT 'local',
     derniere_maj TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-    CONSTRAINT fk_signalement_entreprise FOREIGN KEY (id_entreprise) REFERENCES entreprise (id_entreprise)
+    numero_changement BIGINT,
+    CONSTRAINT fk_signalement_entreprise FOREIGN KEY (id_entreprise) REFERENCES entreprise (id_entreprise),
+    CONSTRAINT fk_signalement_ville FOREIGN KEY (id_ville) REFERENCES ville (id_ville),
+    CONSTRAINT fk_signalement_rue FOREIGN KEY (id_rue) REFERENCES rue (id_rue)
 );
 
 CREATE TABLE historique_statut (
@@ -69,11 +97,31 @@ CREATE TABLE historique_statut (
     CONSTRAINT fk_hist_signalement FOREIGN KEY (id_signalement) REFERENCES signalement (id_signalement)
 );
 
+CREATE TABLE signalement_suppression (
+    id_signalement BIGINT PRIMARY KEY,
+    date_suppression TIMESTAMP NOT NULL,
+    numero_changement BIGINT
+);
+
+CREATE TABLE compteur_changement (
+    nom VARCHAR(50) PRIMARY KEY,
+    valeur BIGINT NOT NULL
+);
+
+CREATE TABLE piece_blob (
+    sha256 VARCHAR(64) PRIMARY KEY,
+    taille BIGINT NOT NULL,
+    ref_count BIGINT NOT NULL,
+    date_creation TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
 CREATE TABLE piece_jointe (
     id_piece BIGSERIAL PRIMARY KEY,
     id_signalement BIGINT NOT NULL,
     type_fichier VARCHAR(20),
     chemin TEXT NOT NULL,
+    type_mime VARCHAR(100),
+    taille BIGINT,
     date_ajout TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     CONSTRAINT fk_piece_signalement FOREIGN KEY (id_signalement) REFERENCES signalement (id_signalement)
 );
@@ -85,4 +133,31 @@ CREATE INDEX idx_rue_position_debut ON rue (
     longitude_debut
 );
 
-CREATE INDEX idx_rue_position_fin ON rue (latitude_fin, longitude_fin);
\ No newline at end of file
+CREATE INDEX idx_rue_position_fin ON rue (latitude_fin, longitude_fin);
+
+CREATE INDEX idx_signalement_statut ON signalement (statut, id_signalement);
+
+CREATE INDEX idx_signalement_entreprise ON signalement (id_entreprise, id_signalement);
+
+CREATE INDEX idx_signalement_utilisateur ON signalement (id_utilisateur, id_signalement);
+
+CREATE INDEX idx_signalement_changement ON signalement (numero_changement);
+
+CREATE INDEX idx_suppression_changement ON signalement_suppression (numero_changement);
+
+CREATE INDEX idx_historique_signalement_date ON historique_statut (id_signalement, date_changement);
+
+CREATE TABLE resolution_rollup (
+    id_rollup BIGSERIAL PRIMARY KEY,
+    mesure VARCHAR(20) NOT NULL,
+    statut VARCHAR(20) NOT NULL,
+    dimension VARCHAR(20) NOT NULL,
+    id_dimension BIGINT NOT NULL,
+    mois DATE NOT NULL,
+    nombre BIGINT NOT NULL,
+    total_heures DOUBLE PRECISION NOT NULL,
+    histogramme BYTEA NOT NULL
+);
+
+-- Plusieurs lignes par clé possibles : deltas ajoutés sans verrou, regroupés périodiquement
+CREATE INDEX idx_resolution_rollup_cle ON resolution_rollup (mesure, dimension, mois, statut, id_dimension);
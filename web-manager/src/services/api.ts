@@ -65,6 +65,12 @@ export interface Signalement {
   derniereMaj?: string;
 }
 
+export interface SignalementPage {
+  items: Signalement[];
+  nextCursor: number | null;
+  hasMore: boolean;
+}
+
 export interface SignalementRequest {
   titre: string;
   description?: string;
@@ -286,8 +292,12 @@ export const userService = {
 
 // ===================== SIGNALEMENT SERVICE =====================
 export const signalementService = {
-  getAll: async (): Promise<Signalement[]> => {
-    const response = await fetch(`${API_URL}/signalements`, {
+  getPage: async (after?: number, limit = 1000): Promise<SignalementPage> => {
+    const params = new URLSearchParams({ limit: String(limit) });
+    if (after !== undefined) {
+      params.set('after', String(after));
+    }
+    const response = await fetch(`${API_URL}/signalements?${params}`, {
       method: 'GET',
       headers: getAuthHeaders(),
     });
@@ -299,6 +309,17 @@ export const signalementService = {
     return response.json();
   },
 
+  getAll: async (): Promise<Signalement[]> => {
+    const all: Signalement[] = [];
+    let after: number | undefined;
+    do {
+      const page = await signalementService.getPage(after);
+      all.push(...page.items);
+      after = page.hasMore && page.nextCursor !== null ? page.nextCursor : undefined;
+    } while (after !== undefined);
+    return all;
+  },
+
   getById: async (id: number): Promise<Signalement> => {
     const response = await fetch(`${API_URL}/signalements/${id}`, {
       method: 'GET',
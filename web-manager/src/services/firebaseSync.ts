@@ -89,48 +89,41 @@ export const importSignalementsFromFirebase = async (): Promise<{ success: numbe
       return { success: 0, errors: 0 };
     }
     
-    let success = 0;
-    let errors = 0;
+    // Préparer les données pour l'API PostgreSQL
+    const signalementsData = firebaseSignalements.map(fs => ({
+      titre: fs.titre || 'Sans titre',
+      description: fs.description || '',
+      latitude: fs.latitude || 0,
+      longitude: fs.longitude || 0,
+      statut: fs.statut || 'EN_ATTENTE',
+      surfaceM2: fs.surfaceM2 || 0,
+      budget: fs.budget || 0,
+      idUtilisateur: parseInt(fs.userId) || 1,
+      idEntreprise: fs.entrepriseId ? parseInt(fs.entrepriseId) : undefined,
+    }));
 
-    for (const fs of firebaseSignalements) {
-      try {
-        // Préparer les données pour l'API PostgreSQL
-        const signalementData = {
-          titre: fs.titre || 'Sans titre',
-          description: fs.description || '',
-          latitude: fs.latitude || 0,
-          longitude: fs.longitude || 0,
-          statut: fs.statut || 'EN_ATTENTE',
-          surfaceM2: fs.surfaceM2 || 0,
-          budget: fs.budget || 0,
-          idUtilisateur: parseInt(fs.userId) || 1,
-          idEntreprise: fs.entrepriseId ? parseInt(fs.entrepriseId) : undefined,
-        };
+    // Un seul appel pour tout le lot, le serveur insère par batch
+    const response = await fetch(`${API_URL}/signalements/bulk`, {
+      method: 'POST',
+      headers: {
+        'Authorization': `Bearer ${token}`,
+        'Content-Type': 'application/json',
+      },
+      body: JSON.stringify(signalementsData),
+    });
 
-        // Créer le signalement dans PostgreSQL via l'API
-        const response = await fetch(`${API_URL}/signalements`, {
-          method: 'POST',
-          headers: {
-            'Authorization': `Bearer ${token}`,
-            'Content-Type': 'application/json',
-          },
-          body: JSON.stringify(signalementData),
-        });
-
-        if (response.ok) {
-          success++;
-        } else {
-          const errorData = await response.json().catch(() => ({}));
-          console.error(`Erreur import signalement ${fs.id}:`, errorData);
-          errors++;
-        }
-      } catch (error) {
-        console.error(`Erreur import signalement ${fs.id}:`, error);
-        errors++;
-      }
+    if (!response.ok) {
+      const errorData = await response.json().catch(() => ({}));
+      throw new Error(errorData.message || 'Import failed');
     }
 
-    return { success, errors };
+    const result: { success: number; errors: number; results: { index: number; success: boolean; message?: string }[] } =
+      await response.json();
+    result.results
+      .filter(r => !r.success)
+      .forEach(r => console.error(`Erreur import signalement ${firebaseSignalements[r.index].id}:`, r.message));
+
+    return { success: result.success, errors: result.errors };
   } catch (error) {
     console.error('Erreur import signalements:', error);
     throw error;